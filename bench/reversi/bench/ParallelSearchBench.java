@@ -0,0 +1,98 @@
+package reversi.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.CaptureMax;
+import reversi.strategy.SearchStats;
+import reversi.strategy.TranspositionTable;
+
+/**
+ * Measures how much faster the parallel alpha-beta search gets with more threads. Every thread
+ * count searches the same positions to the same fixed depth, each with a fresh transposition
+ * table, and the time taken is compared with the time of a single thread.
+ */
+public class ParallelSearchBench {
+  // the search depth must be reached on every position, however long it takes
+  private static final long UNLIMITED_MILLIS = Long.MAX_VALUE / 1_000_000;
+
+  private static final int TABLE_MEGABYTES = 64;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optional board size (default 6), search depth (default 7), and largest thread
+   *             count (default the number of available cores)
+   */
+  public static void main(String[] args) {
+    int boardSize = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+    int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 7;
+    int maxThreads = (args.length > 2) ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+
+    List<Reversi> positions = openingPositions(boardSize, new int[]{0, 4, 8, 12});
+    System.out.printf("board size %d, depth %d, %d positions%n", boardSize, depth,
+            positions.size());
+
+    // warm up the JIT before measuring anything
+    run(positions, depth, 1);
+
+    double baseMillis = 0;
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      long[] totals = run(positions, depth, threads);
+      double millis = totals[0] / 1e6;
+      if (threads == 1) {
+        baseMillis = millis;
+      }
+      System.out.printf("threads %3d: %9.1f ms, %,13d nodes, %,11d nodes/s, speedup %.2f%n",
+              threads, millis, totals[1], Math.round(totals[1] * 1e9 / totals[0]),
+              baseMillis / millis);
+    }
+  }
+
+  // searches every position and gives the total time in nanoseconds and the total node count
+  private static long[] run(List<Reversi> positions, int depth, int threads) {
+    long[] totals = new long[2];
+    for (Reversi position : positions) {
+      AlphaBetaStrategy strategy = new AlphaBetaStrategy(UNLIMITED_MILLIS, depth,
+              new TranspositionTable(TABLE_MEGABYTES), threads);
+      long start = System.nanoTime();
+      strategy.chooseMove(position, position.getCurrentPlayer());
+      totals[0] += System.nanoTime() - start;
+      SearchStats stats = strategy.getLastSearchStats();
+      if (stats != null) {
+        totals[1] += stats.nodes;
+      }
+    }
+    return totals;
+  }
+
+  // positions reached by letting CaptureMax play the given numbers of moves from the start
+  private static List<Reversi> openingPositions(int boardSize, int[] plies) {
+    List<Reversi> positions = new ArrayList<>();
+    for (int count : plies) {
+      Reversi model = new HexReversi(boardSize);
+      model.startGame();
+      CaptureMax captureMax = new CaptureMax();
+      for (int ply = 0; ply < count && !model.isGameOver(); ply++) {
+        PlayerPiece player = model.getCurrentPlayer();
+        Coord move = captureMax.chooseMove(model, player);
+        if (move == null) {
+          model.passTurn();
+        }
+        else {
+          model.makeMove(move);
+        }
+      }
+      if (!model.isGameOver()) {
+        positions.add(model);
+      }
+    }
+    return positions;
+  }
+}
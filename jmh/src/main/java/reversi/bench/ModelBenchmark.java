@@ -0,0 +1,180 @@
+package reversi.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.HexTopology;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.CaptureMax;
+
+/**
+ * JMH benchmarks of the hot paths of the HexReversi model and the CaptureMax strategy at a range
+ * of board sizes. Every board size gets one random game, played with a fixed seed, and the
+ * positions a quarter, half and three quarters of the way through it. The queries are timed on
+ * those positions, so one operation of a query benchmark covers all three of them.<br>
+ * The model can't take moves back, so makeMove is timed by replaying the recorded game on a new
+ * model. The cost of setting up that model is measured on its own, as newGame, so it can be
+ * taken off. Run with the GC profiler (-prof gc) for the allocation rate of every benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+  private static final long SEED = 20231121L;
+
+  @Param({"4", "8", "12", "16", "20"})
+  public int boardSize;
+
+  private List<Coord> game;
+  private List<Reversi> positions;
+  private Coord[] cells;
+  private CaptureMax captureMax;
+  private Random random;
+
+  @Setup
+  public void setUp() {
+    this.game = randomGame(this.boardSize, new Random(SEED));
+    this.positions = new ArrayList<>();
+    for (int quarter = 1; quarter <= 3; quarter++) {
+      this.positions.add(replay(this.boardSize,
+              this.game.subList(0, this.game.size() * quarter / 4)));
+    }
+    HexTopology topology = HexTopology.of(this.boardSize);
+    this.cells = new Coord[topology.getCellCount()];
+    for (int cell = 0; cell < this.cells.length; cell++) {
+      this.cells[cell] = topology.coordOf(cell);
+    }
+    this.captureMax = new CaptureMax();
+    this.random = new Random(SEED);
+  }
+
+  @Benchmark
+  public Reversi newGame() {
+    Reversi model = new HexReversi(this.boardSize);
+    model.startGame();
+    return model;
+  }
+
+  @Benchmark
+  public Reversi makeMoveReplay() {
+    return replay(this.boardSize, this.game);
+  }
+
+  @Benchmark
+  public void isMoveLegal(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      PlayerPiece player = position.getCurrentPlayer();
+      for (Coord cell : this.cells) {
+        sink.consume(position.isMoveLegal(player, cell));
+      }
+    }
+  }
+
+  @Benchmark
+  public void isMoveLegalIndex(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      PlayerPiece player = position.getCurrentPlayer();
+      for (int cell = 0; cell < this.cells.length; cell++) {
+        sink.consume(position.isMoveLegal(player, cell));
+      }
+    }
+  }
+
+  @Benchmark
+  public void canPlayerMove(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      sink.consume(position.canPlayerMove(PlayerPiece.BLACK));
+      sink.consume(position.canPlayerMove(PlayerPiece.WHITE));
+    }
+  }
+
+  @Benchmark
+  public void isGameOver(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      sink.consume(position.isGameOver());
+    }
+  }
+
+  @Benchmark
+  public void getPlayerScore(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      sink.consume(position.getPlayerScore(PlayerPiece.BLACK));
+      sink.consume(position.getPlayerScore(PlayerPiece.WHITE));
+    }
+  }
+
+  @Benchmark
+  public void getScore(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      sink.consume(position.getScore());
+    }
+  }
+
+  @Benchmark
+  public void captureMaxChooseMove(Blackhole sink) {
+    for (Reversi position : this.positions) {
+      sink.consume(this.captureMax.chooseMove(position, position.getCurrentPlayer()));
+    }
+  }
+
+  @Benchmark
+  public List<Coord> randomGame() {
+    return randomGame(this.boardSize, this.random);
+  }
+
+  // plays random legal moves until the game is over, and gives the moves, with null for a pass
+  private static List<Coord> randomGame(int boardSize, Random random) {
+    Reversi model = new HexReversi(boardSize);
+    model.startGame();
+    List<Coord> moves = new ArrayList<>();
+    while (!model.isGameOver()) {
+      List<Coord> legal = model.legalMoves(model.getCurrentPlayer());
+      if (legal.isEmpty()) {
+        model.passTurn();
+        moves.add(null);
+      }
+      else {
+        Coord move = legal.get(random.nextInt(legal.size()));
+        model.makeMove(move);
+        moves.add(move);
+      }
+    }
+    return moves;
+  }
+
+  // plays the given moves on a new model
+  private static Reversi replay(int boardSize, List<Coord> moves) {
+    Reversi model = new HexReversi(boardSize);
+    model.startGame();
+    for (Coord move : moves) {
+      if (move == null) {
+        model.passTurn();
+      }
+      else {
+        model.makeMove(move);
+      }
+    }
+    return model;
+  }
+}
@@ -1,5 +1,7 @@
 package reversi;
 
+import javax.swing.SwingUtilities;
+
 import reversi.model.HexReversi;
 import reversi.model.Reversi;
 import reversi.view.GUIView;
@@ -38,7 +40,8 @@ public class HexReversiGame {
 
     viewPlayer1.display(true);
     viewPlayer2.display(true);
-    model.startGame();
+    // the computer players play their moves on the event dispatch thread, so the game starts there
+    SwingUtilities.invokeLater(model::startGame);
 
     viewPlayer1.display(true);
     viewPlayer2.display(true);
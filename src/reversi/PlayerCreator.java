@@ -1,10 +1,21 @@
 package reversi;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
+import reversi.controller.AsyncMachinePlayer;
 import reversi.controller.HumanPlayer;
 import reversi.controller.MachinePlayer;
 import reversi.controller.Player;
 import reversi.model.Reversi;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.BookStrategy;
 import reversi.strategy.CaptureMax;
+import reversi.strategy.EndgameStrategy;
+import reversi.strategy.MctsStrategy;
+import reversi.strategy.OpeningBook;
+import reversi.strategy.ReversiStrategy;
+import reversi.strategy.TranspositionTable;
 
 /**
  * Factory class for creating Player objects in a game of Reversi.
@@ -15,28 +26,140 @@ public class PlayerCreator {
    * Enum that represents the type of players that can be created.
    * HUMAN represents a human-controlled player
    * CAPTURE_MAX represents a computer player that utilizes the strategy to capture the max pieces
+   * ALPHA_BETA represents a computer player that searches ahead for up to a second per move,
+   * using every available core, and plays the last moves of the game perfectly
+   * MCTS represents a computer player that plays out random games for up to a second per move,
+   * using every available core
    */
   public enum PlayerType {
     HUMAN,
-    CAPTURE_MAX
+    CAPTURE_MAX,
+    ALPHA_BETA,
+    MCTS
   }
 
+  // time the ALPHA_BETA player may spend searching for each move
+  private static final long ALPHA_BETA_BUDGET_MILLIS = 1000;
+
+  // memory the ALPHA_BETA player may use to remember searched positions
+  private static final int ALPHA_BETA_TABLE_MEGABYTES = 32;
+
+  // most empty cells at which the ALPHA_BETA player solves the rest of the game exactly
+  private static final int ALPHA_BETA_ENDGAME_EMPTIES = 14;
+
+  // part of the ALPHA_BETA budget a solve may take, leaving the rest to search if it runs out
+  private static final long ALPHA_BETA_SOLVE_MILLIS = ALPHA_BETA_BUDGET_MILLIS / 2;
+
+  // time the MCTS player may spend playing out games for each move
+  private static final long MCTS_BUDGET_MILLIS = 1000;
+
   /**
-   * Static method that creates a Player object given the model and the PlayerType.
+   * System property naming an opening book file for the ALPHA_BETA and MCTS players to play
+   * their first moves from, as written by reversi.tools.OpeningBookBuilder.
+   */
+  public static final String BOOK_PROPERTY = "hexreversi.book";
+
+  /**
+   * Static method that creates a Player object given the model and the PlayerType. Computer
+   * players choose their moves in the background and play them on the Swing event dispatch
+   * thread, so the model should only be used on that thread. The ALPHA_BETA player ponders on
+   * its opponent's time.
    *
    * @param model Full Reversi game model
    * @param type The type of player to be created
    * @return Instance of a player given the PlayerType
    */
   public static Player create(Reversi model, PlayerType type) {
+    return create(model, type, true);
+  }
+
+  /**
+   * Static method that creates a Player object given the model and the PlayerType, choosing how
+   * computer players think. A background player is an AsyncMachinePlayer, as created by
+   * create(model, type). Otherwise a computer player is a MachinePlayer, which chooses and plays
+   * its move on the thread that asks for it, and never ponders.
+   *
+   * @param model Full Reversi game model
+   * @param type The type of player to be created
+   * @param background true for computer players that think in the background
+   * @return Instance of a player given the PlayerType
+   */
+  public static Player create(Reversi model, PlayerType type, boolean background) {
+    if (type == PlayerType.HUMAN) {
+      return new HumanPlayer(model);
+    }
+    ReversiStrategy strategy = createStrategy(type);
+    if (!background) {
+      return new MachinePlayer(model, strategy);
+    }
+    // only the ALPHA_BETA strategy has a transposition table for pondering to fill
+    return new AsyncMachinePlayer(model, strategy, type == PlayerType.ALPHA_BETA);
+  }
+
+  /**
+   * Static method that creates the strategy a computer player of the given PlayerType uses, for
+   * playing games without players or views. Strategies may keep state between moves, so a
+   * strategy should only be used by one game at a time.
+   *
+   * @param type The type of computer player whose strategy is created
+   * @return A new instance of the strategy of the PlayerType
+   * @throws IllegalArgumentException if the PlayerType is HUMAN, which has no strategy
+   */
+  public static ReversiStrategy createStrategy(PlayerType type) throws IllegalArgumentException {
+    return createStrategy(type, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Static method that creates the strategy a computer player of the given PlayerType uses, with
+   * its search limited to the given number of threads. Games played side by side should share
+   * the cores between them rather than each search on all of them.
+   *
+   * @param type          The type of computer player whose strategy is created
+   * @param searchThreads The most threads the strategy may search on
+   * @return A new instance of the strategy of the PlayerType
+   * @throws IllegalArgumentException if the PlayerType is HUMAN, which has no strategy, or the
+   *                                  thread count is not positive
+   */
+  public static ReversiStrategy createStrategy(PlayerType type, int searchThreads)
+          throws IllegalArgumentException {
+    if (searchThreads <= 0) {
+      throw new IllegalArgumentException("Search thread count must be positive.");
+    }
     switch (type) {
-      case HUMAN:
-        return new HumanPlayer(model);
       case CAPTURE_MAX:
-        return new MachinePlayer(model, new CaptureMax());
+        return new CaptureMax();
+      case ALPHA_BETA:
+        return withBook(new EndgameStrategy(
+                new AlphaBetaStrategy(ALPHA_BETA_BUDGET_MILLIS, Integer.MAX_VALUE,
+                        new TranspositionTable(ALPHA_BETA_TABLE_MEGABYTES), searchThreads),
+                ALPHA_BETA_ENDGAME_EMPTIES, ALPHA_BETA_SOLVE_MILLIS));
+      case MCTS:
+        return withBook(new MctsStrategy(MCTS_BUDGET_MILLIS, Long.MAX_VALUE, searchThreads));
       default:
         throw new IllegalArgumentException("Invalid PlayerType");
     }
   }
 
+  /**
+   * Puts the opening book named by the BOOK_PROPERTY system property in front of a strategy, if
+   * the property is set.
+   *
+   * @param strategy the strategy to play once the game leaves the book
+   * @return the strategy, wrapped in a BookStrategy if a book was given
+   * @throws IllegalArgumentException if the book file can't be read
+   */
+  private static ReversiStrategy withBook(ReversiStrategy strategy)
+          throws IllegalArgumentException {
+    String file = System.getProperty(BOOK_PROPERTY);
+    if (file == null) {
+      return strategy;
+    }
+    try {
+      return new BookStrategy(OpeningBook.open(Path.of(file)), strategy);
+    }
+    catch (IOException e) {
+      throw new IllegalArgumentException("Can't read opening book " + file, e);
+    }
+  }
+
 }
@@ -0,0 +1,220 @@
+package reversi.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.swing.SwingUtilities;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+import reversi.strategy.PonderingStrategy;
+import reversi.strategy.ReversiStrategy;
+import reversi.view.PlayerActions;
+
+/**
+ * Represents a computer player in Reversi that chooses its moves in the background, so the
+ * thread that asks it for a move, which in the GUI is the Swing event dispatch thread, is never
+ * blocked by its strategy. When asked for a move, the player copies the position and returns at
+ * once, and its strategy searches the copy on the player's own thread. The chosen move is then
+ * handed back to the listeners on the thread the results are posted to, which is the event
+ * dispatch thread unless another one is given.<br>
+ * A move is only played if the position it was chosen for is still the position of the game
+ * when the move is handed back. Moves chosen for a position that changed in the meantime, or
+ * after the player was stopped, are dropped.<br>
+ * In pondering mode, a player whose strategy is a PonderingStrategy lets it think about the
+ * opponent's position as soon as its own move was played, and until the player is asked for its
+ * next move or stopped.
+ */
+public class AsyncMachinePlayer implements Player {
+  private PlayerPiece piece;
+
+  private final ReadonlyReversi model;
+
+  private final List<PlayerActions> featuresListeners;
+  private final ReversiStrategy strategy;
+
+  // true if the strategy ponders on the opponent's time
+  private final boolean ponder;
+
+  // runs the strategy, one search at a time
+  private final ExecutorService searcher;
+
+  // runs the code that hands chosen moves back to the listeners
+  private final Executor resultPoster;
+
+  // the fields below are only used on the thread that requests moves and gets the results
+
+  // number of the latest request, so that results of older requests can be told apart
+  private int requests;
+
+  // the search of the latest request, or null if no search is waiting to be handed back
+  private Future<?> pending;
+
+  // position hash of the latest request
+  private long pendingHash;
+
+  private volatile boolean stopped;
+
+  /**
+   * Constructs a machine player that hands its moves back on the Swing event dispatch thread.
+   *
+   * @param model Read-only model
+   * @param strategy Game strategy
+   */
+  public AsyncMachinePlayer(ReadonlyReversi model, ReversiStrategy strategy) {
+    this(model, strategy, SwingUtilities::invokeLater, false);
+  }
+
+  /**
+   * Constructs a machine player that hands its moves back on the Swing event dispatch thread,
+   * and can ponder on the opponent's time.
+   *
+   * @param model Read-only model
+   * @param strategy Game strategy
+   * @param ponder true to let the strategy ponder, if it is a PonderingStrategy
+   */
+  public AsyncMachinePlayer(ReadonlyReversi model, ReversiStrategy strategy, boolean ponder) {
+    this(model, strategy, SwingUtilities::invokeLater, ponder);
+  }
+
+  /**
+   * Constructs a machine player that hands its moves back on the thread of the given executor,
+   * which must be the thread the model is used on.
+   *
+   * @param model Read-only model
+   * @param strategy Game strategy
+   * @param resultPoster runs the code that hands chosen moves back to the listeners
+   * @param ponder true to let the strategy ponder, if it is a PonderingStrategy
+   * @throws IllegalArgumentException if the model, strategy or result poster is null
+   */
+  public AsyncMachinePlayer(ReadonlyReversi model, ReversiStrategy strategy,
+                            Executor resultPoster, boolean ponder)
+          throws IllegalArgumentException {
+    if (model == null || strategy == null || resultPoster == null) {
+      throw new IllegalArgumentException("Arguments can't be null.");
+    }
+    this.model = model;
+    this.strategy = strategy;
+    this.resultPoster = resultPoster;
+    this.ponder = ponder && (strategy instanceof PonderingStrategy);
+    this.featuresListeners = new ArrayList<>();
+    this.searcher = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "machine-player");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts choosing a move for the current position and returns without waiting for it. Asking
+   * again for the same position while the move is still being chosen does nothing.
+   */
+  @Override
+  public void requestMove() {
+    if (this.stopped || this.model.isGameOver()) {
+      return;
+    }
+    long hash = this.model.getPositionHash();
+    if (this.pending != null) {
+      if (this.pendingHash == hash) {
+        return;
+      }
+      this.pending.cancel(true);
+    }
+
+    // the strategy searches a copy, so the model can still be read and changed meanwhile
+    BitboardHexReversi position = BitboardHexReversi.copyOf(this.model, this.piece);
+    PlayerPiece player = this.piece;
+    int request = ++this.requests;
+    this.pendingHash = hash;
+    this.pending = this.searcher.submit(() -> {
+      Coord move;
+      try {
+        move = this.strategy.chooseMove(position, player);
+      }
+      catch (RuntimeException e) {
+        this.resultPoster.execute(() -> this.fail(request, e));
+        return;
+      }
+      this.resultPoster.execute(() -> this.deliver(request, hash, move));
+    });
+  }
+
+  // hands a chosen move to the listeners if the game is still where it was when it was requested
+  private void deliver(int request, long hash, Coord move) {
+    if (request != this.requests) {
+      return;
+    }
+    this.pending = null;
+    if (this.stopped || this.model.isGameOver() || this.model.getCurrentPlayer() != this.piece
+            || this.model.getPositionHash() != hash) {
+      return;
+    }
+    if (move == null) {
+      for (PlayerActions features : this.featuresListeners) {
+        features.passMove();
+      }
+    }
+    else {
+      for (PlayerActions features : this.featuresListeners) {
+        features.playMove(move);
+      }
+    }
+    this.startPondering();
+  }
+
+  // lets the strategy think on the opponent's time once the player's own move was played
+  private void startPondering() {
+    if (this.ponder && !this.stopped && !this.model.isGameOver()
+            && this.model.getCurrentPlayer() != this.piece) {
+      ((PonderingStrategy) this.strategy).ponder(this.model, this.model.getCurrentPlayer());
+    }
+  }
+
+  // rethrows the failure of a strategy on the thread that would have gotten its move
+  private void fail(int request, RuntimeException failure) {
+    if (request == this.requests) {
+      this.pending = null;
+    }
+    throw failure;
+  }
+
+  /**
+   * Stops the player for good. A move that is still being chosen is never handed back, and the
+   * player's thread ends once its strategy returns. Pondering is stopped as well.
+   */
+  @Override
+  public void stop() {
+    this.stopped = true;
+    this.searcher.shutdownNow();
+    if (this.ponder) {
+      ((PonderingStrategy) this.strategy).stopPondering();
+    }
+  }
+
+  @Override
+  public void addListener(PlayerActions features) {
+    this.featuresListeners.add(features);
+  }
+
+  @Override
+  public PlayerPiece getPiece() {
+    return this.piece;
+  }
+
+  @Override
+  public void initializePiece() {
+    this.piece = this.model.getPiece(this);
+  }
+
+  @Override
+  public String toString() {
+    return (this.piece == PlayerPiece.WHITE) ? "White" : "Black";
+  }
+}
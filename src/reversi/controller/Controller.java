@@ -35,6 +35,7 @@ public class Controller implements PlayerActions, ModelFeatures {
     this.model.addPlayer(player);
     this.model.addFeatures(this);
     this.view.addFeatureListener(this);
+    this.view.addCloseListener(this.player::stop);
     this.player.initializePiece();
     this.player.addListener(this);
     this.view.setTitle(this.player.toString());
@@ -79,7 +80,10 @@ public class Controller implements PlayerActions, ModelFeatures {
       return;
     }
 
-    if (this.model.getCurrentPlayer() == this.player.getPiece()) {
+    if (!this.model.isOnBoard(coord)) {
+      view.showMessage("Illegal move for " + this.player);
+    }
+    else if (this.model.getCurrentPlayer() == this.player.getPiece()) {
       try {
         this.model.makeMove(coord);
       }
@@ -106,6 +110,7 @@ public class Controller implements PlayerActions, ModelFeatures {
   public void yourTurn() {
     if (this.model.isGameOver()) {
       if (!gameIsOver) {
+        this.player.stop();
         view.showMessage(GAME_OVER_MSG);
       }
       gameIsOver = true;
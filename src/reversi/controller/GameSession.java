@@ -0,0 +1,353 @@
+package reversi.controller;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.PositionSnapshot;
+import reversi.model.Score;
+import reversi.strategy.ReversiStrategy;
+
+/**
+ * One game hosted by a SessionManager. A session holds no thread of its own: the whole game is
+ * kept in the session object, and the game advances in steps that run on the manager's shared
+ * session threads, only when there is something to do. A step is scheduled when the session
+ * starts, when a move is submitted for a human player through submitMove() or submitPass(), which
+ * can be called from any thread, when a computer player's move has been chosen, and when the
+ * session is cancelled. A session waiting for a human therefore holds nothing but its small
+ * queue.<br>
+ * The strategy of a computer player chooses its move on the manager's search threads, and the
+ * step that follows plays it. Steps of one session never run at the same time, and while a
+ * strategy is choosing a move no step touches the model, so the model is only ever used by one
+ * thread at a time. Other threads learn about the game through the session's listener or the
+ * position snapshots it publishes rather than by reading the model.
+ */
+public final class GameSession {
+  // the most moves that can wait to be played before submitting more is refused
+  private static final int QUEUE_CAPACITY = 16;
+
+  private final long id;
+  private final HexReversi model;
+  private final ReversiStrategy blackStrategy;
+  private final ReversiStrategy whiteStrategy;
+  private final SessionListener listener;
+  private final Executor steps;
+  private final ExecutorService searches;
+  private final BlockingQueue<SubmittedMove> humanMoves;
+  private final CountDownLatch ended;
+
+  // true while a step is waiting to run or running, so a session never runs two steps at once
+  private final AtomicBoolean stepScheduled;
+
+  // the score after the last move played, published for other threads as one value
+  private volatile Score score;
+  private volatile boolean cancelled;
+
+  // the computer player's move being chosen, and the result once it has been
+  private volatile Future<?> search;
+  private volatile boolean moveChosen;
+  private volatile Coord chosenMove;
+  private volatile RuntimeException searchFailure;
+
+  // only used by steps
+  private boolean started;
+  private boolean finished;
+
+  /**
+   * Creates a session that has not started playing yet.
+   *
+   * @param id            the number of the session in its manager
+   * @param boardSize     the size of the board to play on
+   * @param blackStrategy the strategy of the black player, or null if black is human
+   * @param whiteStrategy the strategy of the white player, or null if white is human
+   * @param listener      the listener told about the game
+   * @param steps         the executor the steps of the game run on
+   * @param searches      the executor computer players choose their moves on
+   * @throws IllegalArgumentException if the board size is less than 2 or the listener is null
+   */
+  GameSession(long id, int boardSize, ReversiStrategy blackStrategy,
+              ReversiStrategy whiteStrategy, SessionListener listener, Executor steps,
+              ExecutorService searches)
+          throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener can't be null.");
+    }
+    this.id = id;
+    this.model = new HexReversi(boardSize);
+    this.blackStrategy = blackStrategy;
+    this.whiteStrategy = whiteStrategy;
+    this.listener = listener;
+    this.steps = steps;
+    this.searches = searches;
+    this.humanMoves = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    this.ended = new CountDownLatch(1);
+    this.stepScheduled = new AtomicBoolean();
+    this.score = Score.scoreOf(0, 0, 0);
+  }
+
+  /**
+   * Gives the number of the session in its manager.
+   *
+   * @return the session id
+   */
+  public long getId() {
+    return this.id;
+  }
+
+  /**
+   * Starts playing the game.
+   */
+  void start() {
+    this.schedule();
+  }
+
+  /**
+   * Submits a move for a human player, to be played when it is that player's turn.
+   *
+   * @param player the player making the move
+   * @param move   the cell to place the piece on
+   * @return true if the move was queued, or false if too many moves are already waiting
+   */
+  public boolean submitMove(PlayerPiece player, Coord move) {
+    return this.submit(new SubmittedMove(player, move));
+  }
+
+  /**
+   * Submits a pass for a human player, to be played when it is that player's turn.
+   *
+   * @param player the player passing
+   * @return true if the pass was queued, or false if too many moves are already waiting
+   */
+  public boolean submitPass(PlayerPiece player) {
+    return this.submit(new SubmittedMove(player, null));
+  }
+
+  private boolean submit(SubmittedMove move) {
+    if (!this.humanMoves.offer(move)) {
+      return false;
+    }
+    this.schedule();
+    return true;
+  }
+
+  /**
+   * Returns whether the game has ended.
+   *
+   * @return true if the game is over or the session was cancelled
+   */
+  public boolean hasEnded() {
+    return this.ended.getCount() == 0;
+  }
+
+  /**
+   * Waits for the game to end.
+   *
+   * @param timeoutMillis the longest time to wait, in milliseconds
+   * @return true if the game ended, or false if the time ran out first
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public boolean awaitEnd(long timeoutMillis) throws InterruptedException {
+    return this.ended.await(timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Gives a player's number of pieces on the board after the last move played.
+   *
+   * @param player BLACK or WHITE
+   * @return the player's score
+   */
+  public int getScore(PlayerPiece player) {
+    return this.score.of(player);
+  }
+
+  /**
+   * Gives an immutable snapshot of the position after the last move played, which can be read
+   * from any thread while the game goes on.
+   *
+   * @return the snapshot of the current position
+   * @throws IllegalStateException if the game hasn't started playing yet
+   */
+  public PositionSnapshot getSnapshot() throws IllegalStateException {
+    return this.model.getSnapshot();
+  }
+
+  /**
+   * Stops the game before it is over, whether or not it has started playing yet. A computer
+   * player choosing its move has its search thread interrupted, which the strategies of this
+   * project take as the end of their time. The listener is told the game ended.
+   */
+  public void cancel() {
+    this.cancelled = true;
+    Future<?> choosing = this.search;
+    if (choosing != null) {
+      choosing.cancel(true);
+    }
+    this.schedule();
+  }
+
+  // runs a step on the session threads, unless one is already waiting to run
+  private void schedule() {
+    if (this.stepScheduled.compareAndSet(false, true)) {
+      try {
+        this.steps.execute(this::step);
+      }
+      catch (RejectedExecutionException e) {
+        // the manager was shut down after every session ended, so there is nothing left to do
+        this.stepScheduled.set(false);
+      }
+    }
+  }
+
+  // plays the game for as long as it can without waiting for a human or a strategy
+  private void step() {
+    try {
+      this.advance();
+    }
+    catch (RuntimeException e) {
+      this.finish();
+      throw e;
+    }
+    finally {
+      this.stepScheduled.set(false);
+      // something may have happened after advance() looked, while the step was still scheduled
+      if (!this.finished && (this.cancelled || this.moveChosen || !this.humanMoves.isEmpty())) {
+        this.schedule();
+      }
+    }
+  }
+
+  private void advance() {
+    if (this.finished) {
+      return;
+    }
+    if (!this.started) {
+      if (this.cancelled) {
+        this.finish();
+        return;
+      }
+      this.model.startGame();
+      this.updateScores();
+      this.started = true;
+    }
+    while (true) {
+      if (this.cancelled) {
+        this.finish();
+        return;
+      }
+      if (this.search != null) {
+        // the strategy reads the model until it has chosen, so the model is left alone till then
+        if (!this.moveChosen) {
+          return;
+        }
+        this.search = null;
+        this.moveChosen = false;
+        if (this.searchFailure != null) {
+          throw this.searchFailure;
+        }
+        this.play(this.model.getCurrentPlayer(), this.chosenMove);
+        continue;
+      }
+      if (this.model.isGameOver()) {
+        this.finish();
+        return;
+      }
+      PlayerPiece player = this.model.getCurrentPlayer();
+      ReversiStrategy strategy = (player == PlayerPiece.BLACK)
+              ? this.blackStrategy : this.whiteStrategy;
+      if (strategy != null) {
+        this.search = this.searches.submit(() -> this.chooseMove(strategy, player));
+        return;
+      }
+      SubmittedMove submitted = this.humanMoves.poll();
+      if (submitted == null) {
+        return;
+      }
+      this.playHumanMove(player, submitted);
+    }
+  }
+
+  // runs on a search thread, and schedules the step that plays the chosen move
+  private void chooseMove(ReversiStrategy strategy, PlayerPiece player) {
+    try {
+      this.chosenMove = strategy.chooseMove(this.model, player);
+    }
+    catch (RuntimeException e) {
+      this.searchFailure = e;
+    }
+    finally {
+      this.moveChosen = true;
+      this.schedule();
+    }
+  }
+
+  // plays a move submitted for the human player to move, if it is legal
+  private void playHumanMove(PlayerPiece player, SubmittedMove submitted) {
+    if (submitted.player != player) {
+      this.listener.moveRejected(this, submitted.player, submitted.move, "It's not your turn.");
+    }
+    else if (submitted.move != null && !this.model.isOnBoard(submitted.move)) {
+      this.listener.moveRejected(this, player, submitted.move, "Move is off the board.");
+    }
+    else if (submitted.move != null && !this.model.isMoveLegal(player, submitted.move)) {
+      this.listener.moveRejected(this, player, submitted.move, "Illegal move for " + player);
+    }
+    else {
+      this.play(player, submitted.move);
+    }
+  }
+
+  private void play(PlayerPiece player, Coord move) {
+    if (move == null) {
+      this.model.passTurn();
+    }
+    else {
+      this.model.makeMove(move);
+    }
+    this.updateScores();
+    this.listener.movePlayed(this, player, move);
+  }
+
+  private void updateScores() {
+    this.score = this.model.getScore();
+  }
+
+  // ends the session, stopping a strategy that is still choosing a move
+  private void finish() {
+    if (this.finished) {
+      return;
+    }
+    this.finished = true;
+    Future<?> choosing = this.search;
+    if (choosing != null) {
+      choosing.cancel(true);
+    }
+    try {
+      this.listener.gameEnded(this);
+    }
+    finally {
+      this.ended.countDown();
+    }
+  }
+
+  /**
+   * A move waiting to be played for a human player.
+   */
+  private static final class SubmittedMove {
+    private final PlayerPiece player;
+    private final Coord move;
+
+    SubmittedMove(PlayerPiece player, Coord move) {
+      this.player = player;
+      this.move = move;
+    }
+  }
+}
@@ -31,6 +31,11 @@ public class HumanPlayer implements Player {
     // Human player should interact with the view to make a move
   }
 
+  @Override
+  public void stop() {
+    // Human player has nothing running between moves
+  }
+
   @Override
   public void addListener(PlayerActions features) {
     this.featuresListeners.add(features);
@@ -11,7 +11,9 @@ import reversi.view.PlayerActions;
 
 /**
  * Represents a computer player in Reversi. It utilizes the given strategy
- * to choose its interactions.
+ * to choose its interactions. The move is chosen and played on the thread that asks for it, so
+ * a slow strategy holds that thread until it is done; AsyncMachinePlayer chooses in the
+ * background instead.
  */
 public class MachinePlayer implements Player {
   private PlayerPiece piece;
@@ -49,6 +51,11 @@ public class MachinePlayer implements Player {
     }
   }
 
+  @Override
+  public void stop() {
+    // Machine player chooses its moves while requestMove() runs, so nothing is left running
+  }
+
   @Override
   public void addListener(PlayerActions features) {
     this.featuresListeners.add(features);
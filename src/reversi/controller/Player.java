@@ -13,6 +13,11 @@ public interface Player {
    */
   void requestMove();
 
+  /**
+   * Tells the player that the game is over or was closed, so it should stop choosing moves.
+   */
+  void stop();
+
   /**
    * This listener receives notifications about player actions.
    *
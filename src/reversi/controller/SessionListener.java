@@ -0,0 +1,37 @@
+package reversi.controller;
+
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+
+/**
+ * The listener of a game session, which is told about everything that happens in the game. Its
+ * methods are called on the session threads of the manager, never two at once for one session,
+ * and they hold up the other sessions waiting for those threads, so they should return quickly.
+ */
+public interface SessionListener {
+  /**
+   * Notifies that a move was played.
+   *
+   * @param session the session the move was played in
+   * @param player  the player who moved
+   * @param move    the cell the piece was placed on, or null if the player passed
+   */
+  void movePlayed(GameSession session, PlayerPiece player, Coord move);
+
+  /**
+   * Notifies that a move submitted for a human player was not played.
+   *
+   * @param session the session the move was submitted to
+   * @param player  the player the move was submitted for
+   * @param move    the submitted cell, or null for a pass
+   * @param reason  why the move was not played
+   */
+  void moveRejected(GameSession session, PlayerPiece player, Coord move, String reason);
+
+  /**
+   * Notifies that the game ended, either normally or because the session was cancelled.
+   *
+   * @param session the session that ended
+   */
+  void gameEnded(GameSession session);
+}
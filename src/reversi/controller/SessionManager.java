@@ -0,0 +1,183 @@
+package reversi.controller;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+import reversi.strategy.ReversiStrategy;
+
+/**
+ * Hosts many games at once. No session has a thread of its own: a session keeps its game in the
+ * session object, and advances it in short steps on a fixed pool of session threads, only when a
+ * human move is submitted or a computer move has been chosen. Computer players choose their
+ * moves on a second fixed pool of search threads. An idle session costs only its object, so tens
+ * of thousands of sessions waiting for humans or for a search thread can be hosted at once, while
+ * the number of threads stays the same.
+ */
+public class SessionManager {
+  private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+  private final ExecutorService steps;
+  private final ExecutorService searches;
+  private final AtomicLong nextId;
+  private final Map<Long, GameSession> sessions;
+  private volatile boolean shutDown;
+
+  /**
+   * Creates a manager with no sessions, with one session thread and one search thread for each
+   * available core.
+   */
+  public SessionManager() {
+    this(Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a manager with no sessions.
+   *
+   * @param sessionThreads the number of threads playing the moves of every session
+   * @param searchThreads  the number of threads computer players choose their moves on, which is
+   *                       the most computer players that think at the same time
+   * @throws IllegalArgumentException if a thread count is not positive
+   */
+  public SessionManager(int sessionThreads, int searchThreads) throws IllegalArgumentException {
+    if (sessionThreads <= 0 || searchThreads <= 0) {
+      throw new IllegalArgumentException("Thread counts must be positive.");
+    }
+    int pool = POOL_COUNT.incrementAndGet();
+    this.steps = newPool("game-session-" + pool, sessionThreads);
+    this.searches = newPool("game-search-" + pool, searchThreads);
+    this.nextId = new AtomicLong();
+    this.sessions = new ConcurrentHashMap<>();
+  }
+
+  // a fixed pool of daemon threads, so sessions never keep the program from exiting
+  private static ExecutorService newPool(String name, int size) {
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(size, runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts a new game. Each strategy plays for one color, and a color without a strategy is
+   * played by a human, whose moves are submitted to the session.
+   *
+   * @param boardSize     the size of the board to play on
+   * @param blackStrategy the strategy of the black player, or null if black is human
+   * @param whiteStrategy the strategy of the white player, or null if white is human
+   * @param listener      the listener told about the game
+   * @return the new session, which is already playing
+   * @throws IllegalArgumentException if the board size is less than 2 or the listener is null
+   * @throws IllegalStateException    if the manager was shut down
+   */
+  public GameSession startGame(int boardSize, ReversiStrategy blackStrategy,
+                               ReversiStrategy whiteStrategy, SessionListener listener)
+          throws IllegalArgumentException, IllegalStateException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener can't be null.");
+    }
+    if (this.shutDown) {
+      throw new IllegalStateException("Session manager was shut down.");
+    }
+    long id = this.nextId.incrementAndGet();
+    GameSession session = new GameSession(id, boardSize, blackStrategy, whiteStrategy,
+        new RemovingListener(listener), this.steps, this.searches);
+    this.sessions.put(id, session);
+    session.start();
+    return session;
+  }
+
+  /**
+   * Gives a session that is still playing.
+   *
+   * @param id the session id
+   * @return the session, or null if no session with that id is playing
+   */
+  public GameSession getSession(long id) {
+    return this.sessions.get(id);
+  }
+
+  /**
+   * Gives the number of sessions still playing.
+   *
+   * @return the active session count
+   */
+  public int activeSessions() {
+    return this.sessions.size();
+  }
+
+  /**
+   * Stops a session before its game is over. Its listener is told the game ended.
+   *
+   * @param id the session id
+   */
+  public void cancel(long id) {
+    GameSession session = this.sessions.get(id);
+    if (session != null) {
+      session.cancel();
+    }
+  }
+
+  /**
+   * Stops every session and refuses new ones, then stops the threads of the manager.
+   *
+   * @param timeoutMillis the longest time to wait for the sessions to stop, in milliseconds
+   * @return true if every session and thread stopped in time
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public boolean shutdown(long timeoutMillis) throws InterruptedException {
+    this.shutDown = true;
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    for (GameSession session : this.sessions.values()) {
+      session.cancel();
+    }
+    boolean stopped = true;
+    for (GameSession session : this.sessions.values()) {
+      long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      stopped &= session.awaitEnd(Math.max(left, 0));
+    }
+    this.steps.shutdown();
+    this.searches.shutdownNow();
+    long left = deadline - System.nanoTime();
+    return stopped && this.steps.awaitTermination(Math.max(left, 0), TimeUnit.NANOSECONDS)
+            && this.searches.awaitTermination(Math.max(deadline - System.nanoTime(), 0),
+            TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Forgets sessions when their games end, then passes every notification on.
+   */
+  private final class RemovingListener implements SessionListener {
+    private final SessionListener delegate;
+
+    RemovingListener(SessionListener delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void movePlayed(GameSession session, PlayerPiece player, Coord move) {
+      this.delegate.movePlayed(session, player, move);
+    }
+
+    @Override
+    public void moveRejected(GameSession session, PlayerPiece player, Coord move,
+                             String reason) {
+      this.delegate.moveRejected(session, player, move, reason);
+    }
+
+    @Override
+    public void gameEnded(GameSession session) {
+      sessions.remove(session.getId());
+      this.delegate.gameEnded(session);
+    }
+  }
+}
@@ -0,0 +1,816 @@
+package reversi.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import reversi.controller.Player;
+
+/**
+ * An implementation of the Reversi interface on the same hex-shaped board as HexReversi, but with
+ * the cells packed into primitive bit sets instead of a 2D list of pieces.
+ * Every cell is given a linear cell id, counting left to right starting from the top row, so the
+ * 0th cell is the left-most cell of the top row and the last cell is the right-most cell of the
+ * bottom row. Each color owns one bit set stored as an array of 64-bit words, where bit
+ * (id % 64) of word (id / 64) is set when that color occupies the cell with the given id.
+ * Occupancy tests, applying flips and scoring are done with bitwise operations on these words.
+ * Finding which pieces a move flips is not: it walks the precomputed ray of cell ids in each of
+ * the six directions from the move, testing one bit per cell. This is a deliberate adaptation of
+ * shift-based move generation, which moves every cell of a bit set to its neighbor with one shift
+ * per direction. On a hexagon the rows have different widths, so the distance between neighbors
+ * changes from row to row, and a single shift only works on a padded layout with guard bits
+ * around every row, which would make every other operation on the board pay for the padding.
+ * The rays stop at the edge of the board and are shared by every board of the same size.
+ * The board also supports moves that can be taken back through the SearchableReversi interface.
+ */
+public class BitboardHexReversi implements Reversi, SearchableReversi {
+  /**
+   * We chose to keep the same row and column coordinate system as HexReversi on the public
+   * interface so both implementations are interchangeable, and only translate to the linear cell
+   * ids internally. The cell ids are the cell indices of the shared HexTopology of the board
+   * size, whose precomputed rays are used for every walk along the board.
+   */
+
+  // shape of the board, shared with every other board of the same size
+  private HexTopology topology;
+
+  // keys used to hash positions on this board, and the hash of the current position
+  private ZobristKeys zobrist;
+  private long positionHash;
+
+  // bit sets of the cells occupied by each color
+  private long[] blackCells;
+  private long[] whiteCells;
+
+  // scratch bit set used while collecting the pieces flipped by a move
+  private long[] flipCells;
+
+  // True is game is started
+  // False is game not yet started
+  private boolean gameStarted;
+
+  // States which player's turn it is
+  /** invariant * : currentTurn is never EMPTY. */
+  private PlayerPiece currentTurn;
+
+  // number of passes made in a row
+  private int consecutivePasses;
+
+  // delivers turn changes to the feature listeners after the move that caused them returns
+  private final TurnDispatcher turns;
+
+  private final Map<Player, PlayerPiece> playerMap;
+
+  /**
+   * Constructor for BitboardHexReversi. The board is initialized to an empty hexagon grid.
+   *
+   * @param boardSize The length of an edge of the board to set to.
+   * @throws IllegalArgumentException if the board size is less than 2
+   */
+  public BitboardHexReversi(int boardSize) {
+    if (boardSize < 2) {
+      throw new IllegalArgumentException("Board size is too small.");
+    }
+    this.gameStarted = false;
+    this.turns = new TurnDispatcher();
+    this.playerMap = new HashMap<>();
+    this.initBoard(boardSize);
+  }
+
+  /**
+   * Sets up the topology and empty bit sets for a board of the given size.
+   *
+   * @param boardSize The length of an edge of the board.
+   */
+  private void initBoard(int boardSize) {
+    this.topology = HexTopology.of(boardSize);
+    this.zobrist = ZobristKeys.of(this.topology);
+    int words = (this.topology.getCellCount() + 63) >>> 6;
+    this.blackCells = new long[words];
+    this.whiteCells = new long[words];
+    this.flipCells = new long[words];
+  }
+
+  /**
+   * Creates a started board holding the same position as the given model, with the same player to
+   * move. The new board has no players or feature listeners, and is not affected by any later
+   * changes to the given model.
+   *
+   * @param model the model to copy the position of
+   * @return a new board with the model's position
+   * @throws IllegalStateException if the model's game hasn't started yet
+   */
+  public static BitboardHexReversi copyOf(ReadonlyReversi model) throws IllegalStateException {
+    return copyOf(model, model.getCurrentPlayer());
+  }
+
+  /**
+   * Creates a started board holding the same pieces as the given model, with the given player to
+   * move. The new board has no players or feature listeners, and is not affected by any later
+   * changes to the given model.
+   *
+   * @param model         the model to copy the pieces of
+   * @param currentPlayer the player to move on the new board
+   * @return a new board with the model's pieces
+   * @throws IllegalStateException if the model's game hasn't started yet
+   * @throws IllegalArgumentException if the player is EMPTY or null
+   */
+  public static BitboardHexReversi copyOf(ReadonlyReversi model, PlayerPiece currentPlayer)
+          throws IllegalStateException, IllegalArgumentException {
+    List<List<PlayerPiece>> board = model.copyBoard();
+    BitboardHexReversi copy = new BitboardHexReversi((board.size() + 1) / 2);
+    copy.continueGame(board, currentPlayer);
+    return copy;
+  }
+
+  /**
+   * Continues game based on the given state of the another board and the current player.
+   *
+   * @param currentBoard board to continue game from
+   * @param currentPlayer current player that is up to make a move
+   * @throws IllegalArgumentException if the provided player is EMPTY or null, or if the
+   *                                  current board is invalid.
+   * @throws IllegalStateException  if the game has already started
+   */
+  public void continueGame(List<List<PlayerPiece>> currentBoard, PlayerPiece currentPlayer)
+          throws IllegalArgumentException, IllegalStateException {
+    if (this.gameStarted) {
+      throw new IllegalStateException("Game has already started");
+    }
+    this.validateBoard(currentBoard);
+    if (currentPlayer == null || currentPlayer == PlayerPiece.EMPTY) {
+      throw new IllegalArgumentException("Player cannot be null or empty");
+    }
+    if (currentBoard.size() != this.getBoardHeight()) {
+      this.initBoard((currentBoard.size() + 1) / 2);
+    }
+    for (int row = 0; row < currentBoard.size(); row++) {
+      for (int col = 0; col < currentBoard.get(row).size(); col++) {
+        int id = this.topology.cellIndex(row, col);
+        PlayerPiece piece = currentBoard.get(row).get(col);
+        if (piece == PlayerPiece.BLACK) {
+          this.blackCells[id >>> 6] |= 1L << id;
+        }
+        else if (piece == PlayerPiece.WHITE) {
+          this.whiteCells[id >>> 6] |= 1L << id;
+        }
+      }
+    }
+    this.consecutivePasses = 0;
+    this.currentTurn = currentPlayer;
+    this.positionHash = this.computeHash();
+    this.gameStarted = true;
+  }
+
+  private void validateBoard(List<List<PlayerPiece>> currentBoard)
+          throws IllegalArgumentException {
+    if (currentBoard == null) {
+      throw new IllegalArgumentException("Board cannot be null");
+    }
+    if (currentBoard.size() % 2 == 0) {
+      throw new IllegalArgumentException("Invalid board size");
+    }
+    int boardSize = (currentBoard.size() + 1) / 2;
+    if (boardSize < 2) {
+      throw new IllegalArgumentException("Board size is too small.");
+    }
+
+    for (int row = 0; row < currentBoard.size(); row++) {
+      List<PlayerPiece> cells = currentBoard.get(row);
+      if (cells == null
+              || cells.size() != currentBoard.size() - Math.abs(row - boardSize + 1)) {
+        throw new IllegalArgumentException("Invalid board size");
+      }
+      for (PlayerPiece cell : cells) {
+        if (cell == null) {
+          throw new IllegalArgumentException("Cells cannot be null in board");
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts a game of Reversi with a hex-shaped board. This method adds the initial pieces onto the
+   * board and notifies the players that the game has started. Black always moves first.
+   *
+   * @throws IllegalStateException if game has already started
+   */
+  @Override
+  public void startGame() throws IllegalArgumentException, IllegalStateException {
+    if (this.gameStarted) {
+      throw new IllegalStateException("Game already started");
+    }
+    this.gameStarted = true;
+    this.consecutivePasses = 0;
+
+    int center = (this.getBoardHeight() - 1) / 2;
+    this.setCell(center - 1, center - 1, PlayerPiece.BLACK);
+    this.setCell(center - 1, center, PlayerPiece.WHITE);
+    this.setCell(center, center - 1, PlayerPiece.WHITE);
+    this.setCell(center, center + 1, PlayerPiece.BLACK);
+    this.setCell(center + 1, center - 1, PlayerPiece.BLACK);
+    this.setCell(center + 1, center, PlayerPiece.WHITE);
+
+    this.currentTurn = PlayerPiece.BLACK;
+    this.positionHash = this.computeHash();
+    this.turns.turnChanged();
+  }
+
+  private void setCell(int row, int col, PlayerPiece piece) {
+    int id = this.topology.cellIndex(row, col);
+    long bit = 1L << id;
+    this.blackCells[id >>> 6] &= ~bit;
+    this.whiteCells[id >>> 6] &= ~bit;
+    if (piece == PlayerPiece.BLACK) {
+      this.blackCells[id >>> 6] |= bit;
+    }
+    else if (piece == PlayerPiece.WHITE) {
+      this.whiteCells[id >>> 6] |= bit;
+    }
+  }
+
+  /**
+   * Computes the hash of the current position from scratch.
+   *
+   * @return the hash of the pieces on the board and the player to move
+   */
+  private long computeHash() {
+    long hash = (this.currentTurn == PlayerPiece.WHITE) ? this.zobrist.turnKey() : 0L;
+    for (int id = 0; id < this.topology.getCellCount(); id++) {
+      if (hasCell(this.blackCells, id)) {
+        hash ^= this.zobrist.pieceKey(PlayerPiece.BLACK, id);
+      }
+      else if (hasCell(this.whiteCells, id)) {
+        hash ^= this.zobrist.pieceKey(PlayerPiece.WHITE, id);
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Gives the change of the position hash caused by a move, including the change of turn.
+   *
+   * @param mover the player placing the piece
+   * @param id    the cell the piece is placed on
+   * @param flips the bit set of cells flipped by the move
+   * @return the value to XOR into the hash
+   */
+  private long hashChange(PlayerPiece mover, int id, long[] flips) {
+    long change = this.zobrist.pieceKey(mover, id) ^ this.zobrist.turnKey();
+    for (int word = 0; word < flips.length; word++) {
+      long bits = flips[word];
+      while (bits != 0) {
+        change ^= this.zobrist.flipKey((word << 6) + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+    return change;
+  }
+
+  private void verifyGameStarted() throws IllegalStateException {
+    if (!this.gameStarted) {
+      throw new IllegalStateException("Game hasn't started yet.");
+    }
+  }
+
+  /**
+   * Helper method for converting in-bounds coordinates to a cell id.
+   *
+   * @param coord the coordinates containing information of the row and col
+   * @return the linear cell id of the coordinates
+   * @throws IllegalArgumentException if either of the values are out-of-bounds.
+   */
+  private int cellId(Coord coord) throws IllegalArgumentException {
+    int id = this.topology.cellIndex(coord);
+    if (id < 0) {
+      if (coord.row < 0 || coord.row >= this.getBoardHeight()) {
+        throw new IllegalArgumentException("Row number out-of-range.");
+      }
+      throw new IllegalArgumentException("Column number out-of-range on given row");
+    }
+    return id;
+  }
+
+  // checks that a cell index is on the board and gives it back
+  private int cellId(int cell) throws IllegalArgumentException {
+    if (cell < 0 || cell >= this.topology.getCellCount()) {
+      throw new IllegalArgumentException("Cell index out-of-range.");
+    }
+    return cell;
+  }
+
+  @Override
+  public boolean isOnBoard(Coord coord) {
+    return coord != null && this.topology.cellIndex(coord) >= 0;
+  }
+
+  private static boolean hasCell(long[] cells, int id) {
+    return (cells[id >>> 6] & (1L << id)) != 0;
+  }
+
+  private boolean isEmptyCell(int id) {
+    return ((this.blackCells[id >>> 6] | this.whiteCells[id >>> 6]) & (1L << id)) == 0;
+  }
+
+  private long[] cellsOf(PlayerPiece player) {
+    return (player == PlayerPiece.BLACK) ? this.blackCells : this.whiteCells;
+  }
+
+  private long[] cellsOfOpponent(PlayerPiece player) {
+    return (player == PlayerPiece.BLACK) ? this.whiteCells : this.blackCells;
+  }
+
+  /**
+   * Checks whether placing a piece at the given empty cell flips anything for the player.
+   *
+   * @param own the bit set of the player placing the piece
+   * @param opp the bit set of the opponent
+   * @param id  the cell the piece would be placed on
+   * @return true if at least one line of opponent pieces would be flipped
+   */
+  private boolean flipsAny(long[] own, long[] opp, int id) {
+    for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+      if (flipDepth(own, opp, this.topology.ray(id, dir)) > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts the opponent pieces flipped along one ray by placing a piece at the ray's origin.
+   *
+   * @param own the bit set of the player placing the piece
+   * @param opp the bit set of the opponent
+   * @param ray the cells walked from the placed piece in one direction
+   * @return the number of opponent pieces flipped along the ray, which may be 0
+   */
+  private static int flipDepth(long[] own, long[] opp, int[] ray) {
+    for (int depth = 0; depth < ray.length; depth++) {
+      int cell = ray[depth];
+      if (!hasCell(opp, cell)) {
+        return hasCell(own, cell) ? depth : 0;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Collects every opponent piece flipped by placing a piece at the given cell into a bit set.
+   *
+   * @param own   the bit set of the player placing the piece
+   * @param opp   the bit set of the opponent
+   * @param id    the cell the piece is placed on
+   * @param flips the bit set to overwrite with the flipped cells
+   * @return true if at least one piece is flipped
+   */
+  private boolean collectFlips(long[] own, long[] opp, int id, long[] flips) {
+    Arrays.fill(flips, 0L);
+    boolean flipsAny = false;
+    for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+      int[] ray = this.topology.ray(id, dir);
+      int depth = flipDepth(own, opp, ray);
+      for (int flip = 0; flip < depth; flip++) {
+        flips[ray[flip] >>> 6] |= 1L << ray[flip];
+      }
+      flipsAny |= depth > 0;
+    }
+    return flipsAny;
+  }
+
+  /**
+   * Applies a bit set of flipped cells and the placed piece to the bit sets of both colors.
+   *
+   * @param own   the bit set of the player placing the piece
+   * @param opp   the bit set of the opponent
+   * @param id    the cell the piece is placed on
+   * @param flips the bit set of cells flipped by the move
+   */
+  private static void applyFlips(long[] own, long[] opp, int id, long[] flips) {
+    for (int word = 0; word < own.length; word++) {
+      own[word] |= flips[word];
+      opp[word] &= ~flips[word];
+    }
+    own[id >>> 6] |= 1L << id;
+  }
+
+  /**
+   * Returns whether the given spot is a legal move for the given player. A legal move
+   * is defined as a move that must flip at least one opponent's piece.
+   *
+   * @param player the player that wants to place the piece
+   * @param coord Location on the grid to check
+   * @return True if the given coord is a legal move for the given player
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalArgumentException if the row or column is invalid
+   */
+  @Override
+  public boolean isMoveLegal(PlayerPiece player, Coord coord) {
+    this.verifyGameStarted();
+    int id = this.cellId(coord);
+    if (!this.isEmptyCell(id) || player == null || player == PlayerPiece.EMPTY) {
+      return false;
+    }
+    return this.flipsAny(this.cellsOf(player), this.cellsOfOpponent(player), id);
+  }
+
+  @Override
+  public PlayerPiece getPiece(Player player) {
+    if (this.playerMap.containsKey(player)) {
+      return this.playerMap.get(player);
+    }
+    throw new IllegalArgumentException("Invalid player given.");
+  }
+
+  /**
+   * Moves a piece to the requested spot based on the row and column for the current player.
+   * The invariant that the currentPlayer is not EMPTY is maintained because it can only be set to
+   * either BLACK or WHITE in this method.
+   *
+   * @param coord   The coordinates containing information of the row and col.
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalArgumentException if the row or column is invalid
+   * @throws IllegalStateException if the move is not legal or the game already ended
+   */
+  @Override
+  public void makeMove(Coord coord) throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    int id = this.cellId(coord);
+
+    if (this.consecutivePasses >= 2) {
+      throw new IllegalStateException("Game has ended");
+    }
+
+    long[] own = this.cellsOf(this.currentTurn);
+    long[] opp = this.cellsOfOpponent(this.currentTurn);
+    if (!this.isEmptyCell(id) || !this.collectFlips(own, opp, id, this.flipCells)) {
+      throw new IllegalStateException("Move is not allowed");
+    }
+    applyFlips(own, opp, id, this.flipCells);
+    this.positionHash ^= this.hashChange(this.currentTurn, id, this.flipCells);
+
+    this.currentTurn = (this.currentTurn == PlayerPiece.BLACK)
+            ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    this.consecutivePasses = 0;
+    this.turns.turnChanged();
+  }
+
+  /**
+   * Gives the current player turn.
+   *
+   * @return The color representing the current player's turn.
+   * @throws IllegalStateException if the game hasn't started
+   */
+  @Override
+  public PlayerPiece getCurrentPlayer() throws IllegalStateException {
+    this.verifyGameStarted();
+    return this.currentTurn;
+  }
+
+  @Override
+  public PlayerPiece getPlayerAtCell(Coord coord)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    int id = this.cellId(coord);
+    if (hasCell(this.blackCells, id)) {
+      return PlayerPiece.BLACK;
+    }
+    return hasCell(this.whiteCells, id) ? PlayerPiece.WHITE : PlayerPiece.EMPTY;
+  }
+
+  @Override
+  public boolean isCellEmpty(Coord coord)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    return this.isEmptyCell(this.cellId(coord));
+  }
+
+  /**
+   * Signals if the game is over if there are no more moves to make.
+   *
+   * @return true is game is over, false is not
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public boolean isGameOver() throws IllegalStateException {
+    return this.consecutivePasses >= 2
+            || !(canPlayerMove(PlayerPiece.BLACK) || canPlayerMove(PlayerPiece.WHITE));
+  }
+
+  /**
+   * Returns whether the current player has a legal move or not. Only the empty cells of the
+   * board are visited, by walking the set bits of the inverted occupancy words.
+   *
+   * @param player the player whose move availability is being checked.
+   * @return true is player can move, false if player cannot move
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public boolean canPlayerMove(PlayerPiece player) throws IllegalStateException {
+    this.verifyGameStarted();
+    if (player == null || player == PlayerPiece.EMPTY) {
+      return false;
+    }
+    long[] own = this.cellsOf(player);
+    long[] opp = this.cellsOfOpponent(player);
+    for (int word = 0; word < own.length; word++) {
+      long empty = ~(own[word] | opp[word]);
+      int cellCount = this.topology.getCellCount();
+      if (word == own.length - 1 && (cellCount & 63) != 0) {
+        empty &= (1L << cellCount) - 1;
+      }
+      while (empty != 0) {
+        int id = (word << 6) + Long.numberOfTrailingZeros(empty);
+        if (this.flipsAny(own, opp, id)) {
+          return true;
+        }
+        empty &= empty - 1;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the cells where the given player can currently move, ordered by cell id. The list is
+   * built by checking every empty cell, since this model does not keep legal move sets.
+   *
+   * @param player the player whose legal moves are requested.
+   * @return the player's legal moves, which is empty for EMPTY or null.
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public List<Coord> legalMoves(PlayerPiece player) throws IllegalStateException {
+    this.verifyGameStarted();
+    if (player == null || player == PlayerPiece.EMPTY) {
+      return Collections.emptyList();
+    }
+    List<Coord> moves = new ArrayList<>();
+    long[] own = this.cellsOf(player);
+    long[] opp = this.cellsOfOpponent(player);
+    for (int id = 0; id < this.topology.getCellCount(); id++) {
+      if (this.isEmptyCell(id) && this.flipsAny(own, opp, id)) {
+        moves.add(this.topology.coordOf(id));
+      }
+    }
+    return Collections.unmodifiableList(moves);
+  }
+
+  @Override
+  public int getBoardHeight() throws IllegalStateException {
+    return this.topology.getBoardHeight();
+  }
+
+  @Override
+  public int getRowWidth(int row) throws IllegalArgumentException, IllegalStateException {
+    return this.topology.getRowWidth(row);
+  }
+
+  @Override
+  public int getPlayerScore(PlayerPiece player)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    if (player == null || player == PlayerPiece.EMPTY) {
+      throw new IllegalArgumentException("Invalid player given.");
+    }
+    return countBits(this.cellsOf(player));
+  }
+
+  /**
+   * Returns the piece counts of both players and the number of empty cells, by counting the set
+   * bits of each player's bit set, one word of 64 cells at a time.
+   *
+   * @return the current score of the board
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public Score getScore() throws IllegalStateException {
+    this.verifyGameStarted();
+    int black = countBits(this.blackCells);
+    int white = countBits(this.whiteCells);
+    return Score.scoreOf(black, white, this.topology.getCellCount() - black - white);
+  }
+
+  private static int countBits(long[] cells) {
+    int count = 0;
+    for (long word : cells) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Returns a copy of the current game board. Unlike the cells of the model, the returned rows
+   * are freshly built lists, so changing them has no effect on the game.
+   *
+   * @return a 2D list of pieces with the top row first
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public List<List<PlayerPiece>> copyBoard() {
+    this.verifyGameStarted();
+    List<List<PlayerPiece>> board = new ArrayList<>(this.getBoardHeight());
+    for (int row = 0; row < this.getBoardHeight(); row++) {
+      List<PlayerPiece> cells = new ArrayList<>(this.getRowWidth(row));
+      for (int col = 0; col < this.getRowWidth(row); col++) {
+        int id = this.topology.cellIndex(row, col);
+        cells.add(hasCell(this.blackCells, id) ? PlayerPiece.BLACK
+                : hasCell(this.whiteCells, id) ? PlayerPiece.WHITE : PlayerPiece.EMPTY);
+      }
+      board.add(cells);
+    }
+    return board;
+  }
+
+  /**
+   * Passes the current players turn to the other player.
+   *
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalStateException if the game is already over.
+   */
+  @Override
+  public void passTurn() throws IllegalStateException {
+    this.verifyGameStarted();
+    if (this.consecutivePasses >= 2 || isGameOver()) {
+      throw new IllegalStateException("Game is already over");
+    }
+    this.currentTurn = (this.currentTurn == PlayerPiece.BLACK)
+            ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    this.positionHash ^= this.zobrist.turnKey();
+    this.consecutivePasses += 1;
+    this.turns.turnChanged();
+  }
+
+  @Override
+  public long getPositionHash() throws IllegalStateException {
+    this.verifyGameStarted();
+    return this.positionHash;
+  }
+
+  @Override
+  public HexTopology getTopology() {
+    return this.topology;
+  }
+
+  @Override
+  public PlayerPiece getPlayerAtCell(int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    this.cellId(cell);
+    if (hasCell(this.blackCells, cell)) {
+      return PlayerPiece.BLACK;
+    }
+    return hasCell(this.whiteCells, cell) ? PlayerPiece.WHITE : PlayerPiece.EMPTY;
+  }
+
+  @Override
+  public boolean isMoveLegal(PlayerPiece player, int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    this.cellId(cell);
+    if (player == null || player == PlayerPiece.EMPTY || !this.isEmptyCell(cell)) {
+      return false;
+    }
+    return this.flipsAny(this.cellsOf(player), this.cellsOfOpponent(player), cell);
+  }
+
+  @Override
+  public int legalMoves(PlayerPiece player, int[] moves) throws IllegalStateException {
+    this.verifyGameStarted();
+    if (player == null || player == PlayerPiece.EMPTY) {
+      return 0;
+    }
+    long[] own = this.cellsOf(player);
+    long[] opp = this.cellsOfOpponent(player);
+    int cellCount = this.topology.getCellCount();
+    int count = 0;
+    for (int word = 0; word < own.length; word++) {
+      long empty = ~(own[word] | opp[word]);
+      if (word == own.length - 1 && (cellCount & 63) != 0) {
+        empty &= (1L << cellCount) - 1;
+      }
+      while (empty != 0) {
+        int id = (word << 6) + Long.numberOfTrailingZeros(empty);
+        if (this.flipsAny(own, opp, id)) {
+          moves[count++] = id;
+        }
+        empty &= empty - 1;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public int getConsecutivePasses() throws IllegalStateException {
+    this.verifyGameStarted();
+    return this.consecutivePasses;
+  }
+
+  @Override
+  public MoveUndo makeMove(int cell, MoveUndo undo)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    this.cellId(cell);
+    this.verifyUndoSize(undo);
+    if (this.consecutivePasses >= 2) {
+      throw new IllegalStateException("Game has ended");
+    }
+    long[] own = this.cellsOf(this.currentTurn);
+    long[] opp = this.cellsOfOpponent(this.currentTurn);
+    // the flips are collected on the board, so an illegal move leaves the record as it was
+    if (!this.isEmptyCell(cell) || !this.collectFlips(own, opp, cell, this.flipCells)) {
+      throw new IllegalStateException("Move is not allowed");
+    }
+    System.arraycopy(this.flipCells, 0, undo.flipped, 0, this.flipCells.length);
+    applyFlips(own, opp, cell, undo.flipped);
+
+    undo.cell = cell;
+    undo.previousTurn = this.currentTurn;
+    undo.previousPasses = this.consecutivePasses;
+    undo.previousHash = this.positionHash;
+    undo.applied = true;
+    this.positionHash ^= this.hashChange(this.currentTurn, cell, undo.flipped);
+    this.currentTurn = (this.currentTurn == PlayerPiece.BLACK)
+            ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    this.consecutivePasses = 0;
+    return undo;
+  }
+
+  @Override
+  public MoveUndo makePass(MoveUndo undo) throws IllegalStateException {
+    this.verifyGameStarted();
+    this.verifyUndoSize(undo);
+    if (this.consecutivePasses >= 2) {
+      throw new IllegalStateException("Game is already over");
+    }
+    Arrays.fill(undo.flipped, 0L);
+    undo.cell = MoveUndo.PASS;
+    undo.previousTurn = this.currentTurn;
+    undo.previousPasses = this.consecutivePasses;
+    undo.previousHash = this.positionHash;
+    undo.applied = true;
+    this.positionHash ^= this.zobrist.turnKey();
+    this.currentTurn = (this.currentTurn == PlayerPiece.BLACK)
+            ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    this.consecutivePasses += 1;
+    return undo;
+  }
+
+  // checks that an undo record has room for the flips of this board
+  private void verifyUndoSize(MoveUndo undo) throws IllegalStateException {
+    if (undo.flipped.length != this.blackCells.length) {
+      throw new IllegalStateException("Undo record is for boards of another size");
+    }
+  }
+
+  @Override
+  public void unmakeMove(MoveUndo undo) throws IllegalStateException {
+    if (!undo.applied || undo.flipped.length != this.blackCells.length) {
+      throw new IllegalStateException("No move to take back");
+    }
+    if (undo.cell != MoveUndo.PASS) {
+      long[] own = this.cellsOf(undo.previousTurn);
+      long[] opp = this.cellsOfOpponent(undo.previousTurn);
+      for (int word = 0; word < own.length; word++) {
+        own[word] &= ~undo.flipped[word];
+        opp[word] |= undo.flipped[word];
+      }
+      own[undo.cell >>> 6] &= ~(1L << undo.cell);
+    }
+    this.currentTurn = undo.previousTurn;
+    this.consecutivePasses = undo.previousPasses;
+    this.positionHash = undo.previousHash;
+    undo.applied = false;
+  }
+
+  @Override
+  public void addFeatures(ModelFeatures features) {
+    this.turns.addListener(features);
+  }
+
+  /**
+   * Gives the dispatcher that delivers this model's turn changes, which measures how long every
+   * turn took.
+   *
+   * @return the turn dispatcher of the model
+   */
+  public TurnDispatcher getTurnDispatcher() {
+    return this.turns;
+  }
+
+  @Override
+  public void addPlayer(Player player) throws IllegalStateException {
+    if (this.playerMap.isEmpty()) {
+      this.playerMap.put(Objects.requireNonNull(player), PlayerPiece.BLACK);
+    }
+    else if (this.playerMap.size() == 1) {
+      this.playerMap.put(Objects.requireNonNull(player), PlayerPiece.WHITE);
+    }
+    else {
+      throw new IllegalStateException("Game is already full.");
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package reversi.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A set of cell indices of a hex board that supports adding, removing and checking a cell in
+ * constant time. The set is also a read-only list of the coordinates of its cells, in no
+ * particular order, which can be handed out as a live view of the set without copying it.
+ */
+final class CellSet extends AbstractList<Coord> implements RandomAccess {
+  private HexTopology topology;
+
+  // cells in the set, packed at the front of the array
+  private int[] members;
+
+  // position of each cell in members, or -1 if the cell is not in the set
+  private int[] positions;
+
+  private int size;
+
+  /**
+   * Creates an empty set for cells of the given board topology.
+   *
+   * @param topology the shape of the board the cells are on
+   */
+  CellSet(HexTopology topology) {
+    this.reset(topology);
+  }
+
+  /**
+   * Removes every cell from the set, and resizes it for cells of the given board topology.
+   *
+   * @param topology the shape of the board the cells are on
+   */
+  void reset(HexTopology topology) {
+    this.topology = topology;
+    if (this.members == null || this.members.length != topology.getCellCount()) {
+      this.members = new int[topology.getCellCount()];
+      this.positions = new int[topology.getCellCount()];
+    }
+    Arrays.fill(this.positions, -1);
+    this.size = 0;
+  }
+
+  /**
+   * Returns whether the given cell is in the set.
+   *
+   * @param cell the cell index to check
+   * @return true if the cell is in the set
+   */
+  boolean containsCell(int cell) {
+    return this.positions[cell] >= 0;
+  }
+
+  /**
+   * Adds or removes a cell, depending on whether it should be in the set.
+   *
+   * @param cell     the cell index to update
+   * @param included true if the cell should be in the set after the call
+   */
+  void updateCell(int cell, boolean included) {
+    int position = this.positions[cell];
+    if (included && position < 0) {
+      this.members[this.size] = cell;
+      this.positions[cell] = this.size++;
+    }
+    else if (!included && position >= 0) {
+      // move the last member into the removed member's place
+      int last = this.members[--this.size];
+      this.members[position] = last;
+      this.positions[last] = position;
+      this.positions[cell] = -1;
+    }
+  }
+
+  /**
+   * Gives the cell index at a position of the set.
+   *
+   * @param index the position in the set, from 0 to size() - 1
+   * @return the cell index at that position
+   */
+  int cellAt(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of range.");
+    }
+    return this.members[index];
+  }
+
+  @Override
+  public Coord get(int index) {
+    return this.topology.coordOf(this.cellAt(index));
+  }
+
+  @Override
+  public boolean contains(Object obj) {
+    if (!(obj instanceof Coord)) {
+      return false;
+    }
+    int cell = this.topology.cellIndex((Coord) obj);
+    return cell >= 0 && this.containsCell(cell);
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+}
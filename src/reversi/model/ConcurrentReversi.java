@@ -0,0 +1,280 @@
+package reversi.model;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import reversi.controller.Player;
+
+/**
+ * A HexReversi game that can be read from any number of threads while one thread plays it.
+ * Every change to the game holds the write lock of a StampedLock while it is applied, and every
+ * query first runs without locking under an optimistic read stamp. If the stamp is still valid
+ * once the query returns, no move was applied meanwhile and the answer is used as is. Only if a
+ * move overlapped the query, it runs again under the read lock, so readers never see a half
+ * applied move and, as long as the game isn't changing, never lock.<br>
+ * Feature listeners are notified of turn changes after the write lock is released, so a machine
+ * player that moves from inside yourTurn() takes the lock again as any other writer does.<br>
+ * Queries that need several answers from the same position, such as the board together with its
+ * score, can be run as one with read().
+ */
+public class ConcurrentReversi implements Reversi {
+  // the game, which is only read or changed through the lock
+  private final HexReversi model;
+
+  private final StampedLock lock;
+
+  // delivers turn changes to the feature listeners once the change is unlocked
+  private final TurnDispatcher turns;
+
+  // number of optimistic queries that overlapped a move and ran again under the read lock
+  private final LongAdder retries;
+
+  /**
+   * Creates a game on a hex-shaped board of the given size.
+   *
+   * @param boardSize The length of an edge of the board to set to.
+   * @throws IllegalArgumentException if the board size is less than 2
+   */
+  public ConcurrentReversi(int boardSize) throws IllegalArgumentException {
+    this.model = new HexReversi(boardSize);
+    this.lock = new StampedLock();
+    this.turns = new TurnDispatcher();
+    this.retries = new LongAdder();
+  }
+
+  /**
+   * Runs a query on the game as one read, so all its answers come from the same position. The
+   * query may run twice if a move overlaps its first run, so it must not change anything, and it
+   * must not keep the model it is given.
+   *
+   * @param query the query to run on the game
+   * @param <T>   the type of the answer
+   * @return the answer of the query
+   */
+  public <T> T read(Function<? super ReadonlyReversi, T> query) {
+    return this.readOptimistically(() -> query.apply(this.model));
+  }
+
+  // runs a query optimistically, and again under the read lock if a change overlapped it
+  private <T> T readOptimistically(Supplier<T> query) {
+    long stamp = this.lock.tryOptimisticRead();
+    if (stamp != 0) {
+      try {
+        T answer = query.get();
+        if (this.lock.validate(stamp)) {
+          return answer;
+        }
+      }
+      catch (RuntimeException e) {
+        // a query that overlapped a move may fail only because it saw the move half applied
+        if (this.lock.validate(stamp)) {
+          throw e;
+        }
+      }
+      this.retries.increment();
+    }
+    stamp = this.lock.readLock();
+    try {
+      return query.get();
+    }
+    finally {
+      this.lock.unlockRead(stamp);
+    }
+  }
+
+  // applies a change under the write lock
+  private void write(Runnable change) {
+    long stamp = this.lock.writeLock();
+    try {
+      change.run();
+    }
+    finally {
+      this.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Gives the number of queries that overlapped a move and had to run again under the read lock.
+   *
+   * @return the number of locked retries so far
+   */
+  public long getReadRetries() {
+    return this.retries.sum();
+  }
+
+  /**
+   * Gives an immutable snapshot of the position after the last change, which needs no locking.
+   *
+   * @return the snapshot of the current position
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  public PositionSnapshot getSnapshot() throws IllegalStateException {
+    return this.model.getSnapshot();
+  }
+
+  /**
+   * Gives the dispatcher that delivers this game's turn changes, which measures how long every
+   * turn took.
+   *
+   * @return the turn dispatcher of the game
+   */
+  public TurnDispatcher getTurnDispatcher() {
+    return this.turns;
+  }
+
+  /**
+   * Continues game based on the given state of the another board and the current player.
+   *
+   * @param currentBoard board to continue game from
+   * @param currentPlayer current player that is up to make a move
+   * @throws IllegalArgumentException if the provided player is EMPTY or null, or if the
+   *                                  current board is invalid.
+   * @throws IllegalStateException  if the game has already started
+   */
+  public void continueGame(List<List<PlayerPiece>> currentBoard, PlayerPiece currentPlayer)
+          throws IllegalArgumentException, IllegalStateException {
+    this.write(() -> this.model.continueGame(currentBoard, currentPlayer));
+  }
+
+  @Override
+  public void startGame() throws IllegalArgumentException, IllegalStateException {
+    this.write(this.model::startGame);
+    this.turns.turnChanged();
+  }
+
+  @Override
+  public void makeMove(Coord coord) throws IllegalArgumentException, IllegalStateException {
+    this.write(() -> this.model.makeMove(coord));
+    this.turns.turnChanged();
+  }
+
+  @Override
+  public void passTurn() throws IllegalStateException {
+    this.write(this.model::passTurn);
+    this.turns.turnChanged();
+  }
+
+  /**
+   * Adds a feature listener to the game, which will be notified when the game turn changes. The
+   * listeners are notified on the thread that changed the turn, so they should be added by the
+   * thread that plays the game.
+   *
+   * @param features the listener which will be notified once the game turn changes.
+   */
+  @Override
+  public void addFeatures(ModelFeatures features) {
+    this.turns.addListener(features);
+  }
+
+  @Override
+  public void addPlayer(Player player) throws IllegalStateException {
+    this.write(() -> this.model.addPlayer(player));
+  }
+
+  @Override
+  public PlayerPiece getPiece(Player player) throws IllegalArgumentException {
+    // the players are kept in a hash map, which is not safe to read while it is being changed
+    long stamp = this.lock.readLock();
+    try {
+      return this.model.getPiece(player);
+    }
+    finally {
+      this.lock.unlockRead(stamp);
+    }
+  }
+
+  @Override
+  public PlayerPiece getCurrentPlayer() throws IllegalStateException {
+    return this.readOptimistically(this.model::getCurrentPlayer);
+  }
+
+  @Override
+  public PlayerPiece getPlayerAtCell(Coord coord)
+          throws IllegalArgumentException, IllegalStateException {
+    return this.readOptimistically(() -> this.model.getPlayerAtCell(coord));
+  }
+
+  @Override
+  public PlayerPiece getPlayerAtCell(int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    return this.readOptimistically(() -> this.model.getPlayerAtCell(cell));
+  }
+
+  @Override
+  public boolean isOnBoard(Coord coord) {
+    return this.readOptimistically(() -> this.model.isOnBoard(coord));
+  }
+
+  @Override
+  public boolean isCellEmpty(Coord coord) throws IllegalArgumentException, IllegalStateException {
+    return this.readOptimistically(() -> this.model.isCellEmpty(coord));
+  }
+
+  @Override
+  public boolean isGameOver() throws IllegalStateException {
+    return this.readOptimistically(this.model::isGameOver);
+  }
+
+  @Override
+  public boolean canPlayerMove(PlayerPiece player) throws IllegalStateException {
+    return this.readOptimistically(() -> this.model.canPlayerMove(player));
+  }
+
+  /**
+   * Returns the cells where the given player can currently move, in no particular order. The
+   * list is an immutable copy, so it stays the same while the game goes on.
+   *
+   * @param player the player whose legal moves are requested.
+   * @return a copy of the player's legal moves, which is empty for EMPTY or null.
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public List<Coord> legalMoves(PlayerPiece player) throws IllegalStateException {
+    return this.readOptimistically(() -> List.copyOf(this.model.legalMovesView(player)));
+  }
+
+  @Override
+  public int getBoardHeight() throws IllegalStateException {
+    return this.readOptimistically(this.model::getBoardHeight);
+  }
+
+  @Override
+  public int getRowWidth(int row) throws IllegalArgumentException, IllegalStateException {
+    return this.readOptimistically(() -> this.model.getRowWidth(row));
+  }
+
+  @Override
+  public int getPlayerScore(PlayerPiece player)
+          throws IllegalArgumentException, IllegalStateException {
+    return this.readOptimistically(() -> this.model.getPlayerScore(player));
+  }
+
+  @Override
+  public Score getScore() throws IllegalStateException {
+    return this.readOptimistically(this.model::getScore);
+  }
+
+  @Override
+  public long getPositionHash() throws IllegalStateException {
+    return this.readOptimistically(this.model::getPositionHash);
+  }
+
+  @Override
+  public List<List<PlayerPiece>> copyBoard() {
+    return this.readOptimistically(this.model::copyBoard);
+  }
+
+  @Override
+  public boolean isMoveLegal(PlayerPiece player, Coord coord) {
+    return this.readOptimistically(() -> this.model.isMoveLegal(player, coord));
+  }
+
+  @Override
+  public boolean isMoveLegal(PlayerPiece player, int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    return this.readOptimistically(() -> this.model.isMoveLegal(player, cell));
+  }
+}
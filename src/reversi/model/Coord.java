@@ -11,9 +11,17 @@ package reversi.model;
  * rows&nbsp;&nbsp;&nbsp;cols<br>
  * &nbsp;&nbsp;0&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;0 1<br>
  * &nbsp;&nbsp;1&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;0 1 2<br>
- * &nbsp;&nbsp;2&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;0 1
+ * &nbsp;&nbsp;2&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;0 1<br>
+ * Coordinates are immutable, and the coordinates of every cell on a board of up to
+ * MAX_CACHED_BOARD_SIZE are created once and shared, so looking them up never allocates.
  */
 public final class Coord {
+  /** The largest board size whose cells all have shared coordinates. */
+  public static final int MAX_CACHED_BOARD_SIZE = 32;
+
+  // shared coordinates for every row and column of the largest cached board
+  private static final Coord[][] CACHE = createCache(2 * MAX_CACHED_BOARD_SIZE - 1);
+
   public final int row;
   public final int col;
 
@@ -22,7 +30,28 @@ public final class Coord {
     this.col = col;
   }
 
+  private static Coord[][] createCache(int height) {
+    Coord[][] cache = new Coord[height][height];
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < height; col++) {
+        cache[row][col] = new Coord(row, col);
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Gives the coordinates of the given row and column. Coordinates on a board of up to
+   * MAX_CACHED_BOARD_SIZE are shared instances, and any others are created on every call.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the coordinates of the cell
+   */
   public static Coord coordAt(int row, int col) {
+    if (row >= 0 && row < CACHE.length && col >= 0 && col < CACHE.length) {
+      return CACHE[row][col];
+    }
     return new Coord(row, col);
   }
 
@@ -41,9 +70,15 @@ public final class Coord {
     return (coordinates.row == this.row && coordinates.col == this.col);
   }
 
+  /**
+   * Packs the row into the high half of the hash and the column into the low half, so no two
+   * coordinates with rows and columns between -32768 and 32767 have the same hash.
+   *
+   * @return the hash of the coordinates
+   */
   @Override
   public int hashCode() {
-    return this.row * this.col + row;
+    return (this.row << 16) | (this.col & 0xFFFF);
   }
 
   @Override
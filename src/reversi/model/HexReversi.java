@@ -1,6 +1,7 @@
 package reversi.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -12,30 +13,42 @@ import reversi.controller.Player;
 /**
  * An implementation that utilizes Reversi interface. This version
  * uses a hex-shaped board where the size is defined in the startGame() function.
- * The cells on the board can be located as where the 0th arraylist inside cellGrid is the top row
- * and the 0th element of an arrayList (row), is the most left cell in that row. The main function
- * to move pieces is the makeMove(int row, int col) function.
- * The cell is set up as a 2D list of Players. The outermost list contains lists of Players
- * each representing a horizontal row in the hexagonal grid. The lengths of these lists change,
- * with the length of the center row being the longest and the first and last list being the
- * shortest. Each inner list is indexed based on the column the cell is within that row.
+ * The cells on the board are located by their row and column, where the 0th row is the top row
+ * and the 0th column of a row is the most left cell in that row. The main function
+ * to move pieces is the makeMove(Coord coord) function.
+ * The lengths of the rows change, with the length of the center row being the longest and the
+ * first and last row being the shortest. Internally every cell is stored at its linear cell index
+ * given by the HexTopology of the board size.
  *
  */
 public class HexReversi implements Reversi {
   /**
-   * For this implementation, we decided to use a 2-D array
-   * to represent the cells in our grid. We did not see a better
-   * way of representing the cells using any other data structure.
-   * We considered keeping track of cell coordinates with 3 dimensions, 1 for each line along the
-   * hex grid, but quickly tossed the idea due to it being difficult to maintain and keep
-   * consistent with itself. Also, although the shape of the board is a hexagon,
-   * traversing through the grid using the ideas of rows and column was easy since it followed
-   * a consistent pattern.
+   * For this implementation, we originally used a 2-D list to represent the cells in our grid,
+   * since traversing the hexagon with the ideas of rows and columns followed a consistent
+   * pattern. The cells are now kept in a flat array indexed by the cell indices of a HexTopology,
+   * which also precomputes every ray of cells walked from a cell in each direction. Checking and
+   * flipping pieces in a direction is then a loop over a precomputed array, instead of
+   * re-deriving each neighbour depending on which half of the hexagon the row is in.
    */
 
-  // 0-th arraylist inside cellGrid is the top row
-  // 0-th element of an arrayList (row), is the most left cell
-  private List<List<PlayerPiece>> cellGrid;
+  // shape of the board, shared with every other board of the same size
+  private HexTopology topology;
+
+  // piece in each cell, indexed by the topology's cell index
+  private PlayerPiece[] cells;
+
+  // keys used to hash positions on this board, and the hash of the current position
+  private ZobristKeys zobrist;
+  private long positionHash;
+
+  // empty cells where each color can currently move, kept up to date after every move
+  private CellSet blackMoves;
+  private CellSet whiteMoves;
+
+  // cells changed by the last move, and the empty cells whose legality they may have changed
+  private int[] changedCells;
+  private int[] affectedCells;
+  private boolean[] isAffected;
   
   // True is game is started
   // False is game not yet started
@@ -48,7 +61,15 @@ public class HexReversi implements Reversi {
   // true if the last player passed their turn.
   private int consecutivePasses;
 
-  private final List<ModelFeatures> features;
+  // delivers turn changes to the feature listeners after the move that caused them returns
+  private final TurnDispatcher turns;
+
+  // number of pieces of each player, kept up to date by every change to the cells
+  private int blackCount;
+  private int whiteCount;
+
+  // immutable picture of the position after the last change, for readers on other threads
+  private volatile PositionSnapshot snapshot;
 
   private Map<Player, PlayerPiece> playerMap;
 
@@ -58,22 +79,87 @@ public class HexReversi implements Reversi {
    */
   public HexReversi(int boardSize) {
     gameStarted = false;
-    features = new ArrayList<>();
+    turns = new TurnDispatcher();
     this.playerMap = new HashMap<>();
 
-    if (boardSize < 2) {
-      throw new IllegalArgumentException("Board size is too small.");
-    }
+    // throws if the board size is less than 2
+    this.topology = HexTopology.of(boardSize);
+    this.zobrist = ZobristKeys.of(this.topology);
+    this.cells = new PlayerPiece[this.topology.getCellCount()];
+    Arrays.fill(this.cells, PlayerPiece.EMPTY);
+    this.initMoveTracking();
+  }
 
-    // # of rows = 2 * boardSize - 1
-    this.cellGrid = new ArrayList<>(2 * boardSize - 1);
+  /**
+   * Creates the legal move sets and scratch arrays for the current topology. The sets are empty
+   * until they are rebuilt from the cells.
+   */
+  private void initMoveTracking() {
+    int cellCount = this.topology.getCellCount();
+    if (this.blackMoves == null) {
+      this.blackMoves = new CellSet(this.topology);
+      this.whiteMoves = new CellSet(this.topology);
+    }
+    else {
+      this.blackMoves.reset(this.topology);
+      this.whiteMoves.reset(this.topology);
+    }
+    this.changedCells = new int[cellCount];
+    this.affectedCells = new int[cellCount];
+    this.isAffected = new boolean[cellCount];
+  }
 
-    for (int rowSize = boardSize; rowSize < 2 * boardSize - 1; rowSize++) {
-      this.cellGrid.add(new ArrayList<>(Collections.nCopies(rowSize, PlayerPiece.EMPTY)));
+  /**
+   * Recomputes the legal move sets of both colors by checking every cell of the board.
+   */
+  private void rebuildLegalMoves() {
+    for (int cell = 0; cell < this.cells.length; cell++) {
+      this.updateLegalMoves(cell);
     }
+  }
 
-    for (int rowSize = 2 * boardSize - 1; rowSize >= boardSize; rowSize--) {
-      this.cellGrid.add(new ArrayList<>(Collections.nCopies(rowSize, PlayerPiece.EMPTY)));
+  /**
+   * Recomputes whether a cell is a legal move for each color and updates the legal move sets.
+   *
+   * @param cell the cell index to recompute
+   */
+  private void updateLegalMoves(int cell) {
+    this.blackMoves.updateCell(cell, this.computeMoveLegal(PlayerPiece.BLACK, cell));
+    this.whiteMoves.updateCell(cell, this.computeMoveLegal(PlayerPiece.WHITE, cell));
+  }
+
+  /**
+   * Updates the legal move sets after the given cells changed. A changed cell can only change
+   * whether an empty cell is a legal move if the walk from that empty cell in some direction
+   * reaches the changed cell before any gap, which means the empty cell is the first empty cell
+   * walking away from the changed cell in the opposite direction. Only those cells are rechecked.
+   *
+   * @param changed the cells that changed, packed at the front of the array
+   * @param count   the number of cells that changed
+   */
+  private void updateLegalMovesAround(int[] changed, int count) {
+    int affected = 0;
+    for (int index = 0; index < count; index++) {
+      int cell = changed[index];
+      if (!this.isAffected[cell]) {
+        this.isAffected[cell] = true;
+        this.affectedCells[affected++] = cell;
+      }
+      for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+        for (int next : this.topology.ray(cell, dir)) {
+          if (this.cells[next] == PlayerPiece.EMPTY) {
+            if (!this.isAffected[next]) {
+              this.isAffected[next] = true;
+              this.affectedCells[affected++] = next;
+            }
+            break;
+          }
+        }
+      }
+    }
+    for (int index = 0; index < affected; index++) {
+      this.isAffected[this.affectedCells[index]] = false;
+      this.updateLegalMoves(this.affectedCells[index]);
     }
   }
 
@@ -95,9 +181,21 @@ public class HexReversi implements Reversi {
     if (currentPlayer == null || currentPlayer == PlayerPiece.EMPTY) {
       throw new IllegalArgumentException("Player cannot be null or empty");
     }
-    this.cellGrid = currentBoard;
+    this.topology = HexTopology.ofHeight(currentBoard.size());
+    this.cells = new PlayerPiece[this.topology.getCellCount()];
+    for (int row = 0; row < currentBoard.size(); row++) {
+      for (int col = 0; col < currentBoard.get(row).size(); col++) {
+        this.cells[this.topology.cellIndex(row, col)] = currentBoard.get(row).get(col);
+      }
+    }
+    this.countPieces();
+    this.initMoveTracking();
+    this.rebuildLegalMoves();
     this.consecutivePasses = 0;
     this.currentTurn = currentPlayer;
+    this.zobrist = ZobristKeys.of(this.topology);
+    this.positionHash = this.zobrist.hash(this.cells, this.currentTurn);
+    this.publishFullSnapshot();
     this.gameStarted = true;
   }
 
@@ -109,9 +207,14 @@ public class HexReversi implements Reversi {
       throw new IllegalArgumentException("Invalid board size");
     }
     int boardSize = (currentBoard.size() + 1) / 2;
+    if (boardSize < 2) {
+      throw new IllegalArgumentException("Board size is too small.");
+    }
 
-    for (int row = 0; row < currentBoard.get(0).size(); row ++) {
-      if (currentBoard.get(row).size() != currentBoard.size() - Math.abs(row - boardSize + 1)) {
+    for (int row = 0; row < currentBoard.size(); row ++) {
+      if (currentBoard.get(row) == null
+              || currentBoard.get(row).size()
+                  != currentBoard.size() - Math.abs(row - boardSize + 1)) {
         throw new IllegalArgumentException("Invalid board size");
       }
       for (int col = 0; col < currentBoard.get(row).size(); col++) {
@@ -142,19 +245,28 @@ public class HexReversi implements Reversi {
 
     //Initialize players on grid
     initPlayersOnGrid();
+    this.rebuildLegalMoves();
 
     //Black player moves first
     this.currentTurn = PlayerPiece.BLACK;
-    for (ModelFeatures listeners: this.features) {
-      listeners.yourTurn();
-    }
+    this.positionHash = this.zobrist.hash(this.cells, this.currentTurn);
+    this.publishFullSnapshot();
+    this.turns.turnChanged();
   }
 
   @Override
   public List<List<PlayerPiece>> copyBoard() {
     this.verifyGameStarted();
 
-    return new ArrayList<>(cellGrid);
+    List<List<PlayerPiece>> board = new ArrayList<>(this.getBoardHeight());
+    for (int row = 0; row < this.getBoardHeight(); row++) {
+      List<PlayerPiece> rowCells = new ArrayList<>(this.getRowWidth(row));
+      for (int col = 0; col < this.getRowWidth(row); col++) {
+        rowCells.add(this.cells[this.topology.cellIndex(row, col)]);
+      }
+      board.add(rowCells);
+    }
+    return board;
   }
 
   /**
@@ -165,16 +277,37 @@ public class HexReversi implements Reversi {
     int center = (this.getBoardHeight() - 1) / 2;
 
     //Row above middle
-    this.cellGrid.get(center - 1).set(center - 1, PlayerPiece.BLACK); //left
-    this.cellGrid.get(center - 1).set(center, PlayerPiece.WHITE); //right
+    this.cells[this.topology.cellIndex(center - 1, center - 1)] = PlayerPiece.BLACK; //left
+    this.cells[this.topology.cellIndex(center - 1, center)] = PlayerPiece.WHITE; //right
 
     //Middle row
-    this.cellGrid.get(center).set(center - 1, PlayerPiece.WHITE); //left
-    this.cellGrid.get(center).set(center + 1, PlayerPiece.BLACK); //right
+    this.cells[this.topology.cellIndex(center, center - 1)] = PlayerPiece.WHITE; //left
+    this.cells[this.topology.cellIndex(center, center + 1)] = PlayerPiece.BLACK; //right
 
     //Row below middle
-    this.cellGrid.get(center + 1).set(center - 1, PlayerPiece.BLACK); //left
-    this.cellGrid.get(center + 1).set(center, PlayerPiece.WHITE); //right
+    this.cells[this.topology.cellIndex(center + 1, center - 1)] = PlayerPiece.BLACK; //left
+    this.cells[this.topology.cellIndex(center + 1, center)] = PlayerPiece.WHITE; //right
+    this.countPieces();
+  }
+
+  // counts the pieces of each player from scratch, after the cells were set up
+  private void countPieces() {
+    this.blackCount = 0;
+    this.whiteCount = 0;
+    for (PlayerPiece value : this.cells) {
+      if (value == PlayerPiece.BLACK) {
+        this.blackCount++;
+      }
+      else if (value == PlayerPiece.WHITE) {
+        this.whiteCount++;
+      }
+    }
+  }
+
+  // publishes a snapshot of the whole board, once the cells were set up
+  private void publishFullSnapshot() {
+    this.snapshot = PositionSnapshot.of(this.topology, this.cells, this.currentTurn,
+            this.consecutivePasses, this.positionHash);
   }
 
   private void verifyGameStarted() throws IllegalStateException {
@@ -187,82 +320,59 @@ public class HexReversi implements Reversi {
    * Helper method for ensuring coordinates are in-bounds.
    *
    * @param coord the coordinates containing information of the row and col
+   * @return the cell index of the coordinates
    * @throws IllegalArgumentException if either of the values are out-of-bounds.
    */
-  private void verifyCoordinates(Coord coord) throws IllegalArgumentException {
-    if (coord.row < 0 || coord.row >= this.getBoardHeight()) {
-      throw new IllegalArgumentException("Row number out-of-range.");
-    }
-    if (coord.col < 0 || coord.col >= this.getRowWidth(coord.row)) {
+  private int verifyCoordinates(Coord coord) throws IllegalArgumentException {
+    int cell = this.topology.cellIndex(coord);
+    if (cell < 0) {
+      if (coord.row < 0 || coord.row >= this.getBoardHeight()) {
+        throw new IllegalArgumentException("Row number out-of-range.");
+      }
       throw new IllegalArgumentException("Column number out-of-range on given row");
     }
+    return cell;
+  }
+
+  /**
+   * Helper method for ensuring a cell index is in-bounds.
+   *
+   * @param cell the cell index on the board
+   * @return the same cell index
+   * @throws IllegalArgumentException if the cell index is out-of-bounds.
+   */
+  private int verifyCell(int cell) throws IllegalArgumentException {
+    if (cell < 0 || cell >= this.cells.length) {
+      throw new IllegalArgumentException("Cell index out-of-range.");
+    }
+    return cell;
+  }
+
+  @Override
+  public boolean isOnBoard(Coord coord) {
+    return coord != null && this.topology.cellIndex(coord) >= 0;
   }
 
   /**
    * Gives the depth of the next piece of the same color of the player in a certain direction.
    *
    * @param player  The color of the pieces being checked for.
-   * @param coord   the coordinates containing information of the row and col
+   * @param cell    the cell index the walk starts from
    * @param dir     a number representing the direction with 0 representing directly left
    *                and subsequent numbers rotating clockwise.
    * @return  the depth of the next piece of the same color, or -1 if there is a gap or no piece of
    *          the same color.
    */
-  private int samePieceInDirection(PlayerPiece player, Coord coord, int dir) {
-    int depth = 1;
-    int current_row = coord.row;
-    int current_col = coord.col;
-    while (depth < this.getBoardHeight()) {
-      // This switch statement aids in navigating our coordinate system since adjacency between
-      //  cells changes after the halfway point.
-      switch (dir) {
-        case 0: // left
-          current_col--;
-          break;
-        case 1: // up left
-          if (current_row <= this.getBoardHeight() / 2) {
-            current_col--;
-          }
-          current_row--;
-          break;
-        case 2: // up right
-          if (current_row > this.getBoardHeight() / 2) {
-            current_col++;
-          }
-          current_row--;
-          break;
-        case 3: // right
-          current_col++;
-          break;
-        case 4: // down right
-          if (current_row < this.getBoardHeight() / 2) {
-            current_col++;
-          }
-          current_row++;
-          break;
-        case 5: // down left
-          if (current_row >= this.getBoardHeight() / 2) {
-            current_col--;
-          }
-          current_row++;
-          break;
-        default:
-          return -1;
-      }
-      PlayerPiece player_at_cell;
-      try {
-        player_at_cell = this.getPlayerAtCell(Coord.coordAt(current_row, current_col));
-      }
-      catch (IllegalArgumentException e) {
+  private int samePieceInDirection(PlayerPiece player, int cell, int dir) {
+    int[] ray = this.topology.ray(cell, dir);
+    for (int depth = 0; depth < ray.length; depth++) {
+      PlayerPiece playerAtCell = this.cells[ray[depth]];
+      if (playerAtCell == PlayerPiece.EMPTY) {
         return -1;
       }
-      if (player_at_cell == PlayerPiece.EMPTY) {
-        return -1;
-      }
-      if (player == player_at_cell) {
-        return depth;
+      if (player == playerAtCell) {
+        return depth + 1;
       }
-      depth++;
     }
     return -1;
   }
@@ -276,11 +386,54 @@ public class HexReversi implements Reversi {
    * @return True if the given coord is a legal move for the given player
    */
   public boolean isMoveLegal(PlayerPiece player, Coord coord) {
-    if (!this.isCellEmpty(coord)) {
+    this.verifyGameStarted();
+    return this.isLegalCell(player, this.verifyCoordinates(coord));
+  }
+
+  /**
+   * Returns whether the given cell is a legal move for the given player. The answer is looked up
+   * in the legal move sets.
+   *
+   * @param player the player that wants to place the piece
+   * @param cell   the cell index on the board to check
+   * @return True if the given cell is a legal move for the given player
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalArgumentException if the cell index is not on the board
+   */
+  @Override
+  public boolean isMoveLegal(PlayerPiece player, int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    return this.isLegalCell(player, this.verifyCell(cell));
+  }
+
+  // looks up whether a cell is a legal move, without checking the game or the cell index
+  private boolean isLegalCell(PlayerPiece player, int cell) {
+    CellSet moves = this.legalMoveSet(player);
+    return moves != null && moves.containsCell(cell);
+  }
+
+  private CellSet legalMoveSet(PlayerPiece player) {
+    if (player == PlayerPiece.BLACK) {
+      return this.blackMoves;
+    }
+    return (player == PlayerPiece.WHITE) ? this.whiteMoves : null;
+  }
+
+  /**
+   * Checks every direction from the given cell to find out whether it is a legal move for the
+   * given player.
+   *
+   * @param player the player that wants to place the piece
+   * @param cell   the cell index on the board to check
+   * @return True if the given cell is a legal move for the given player
+   */
+  private boolean computeMoveLegal(PlayerPiece player, int cell) {
+    if (this.cells[cell] != PlayerPiece.EMPTY) {
       return false;
     }
-    for (int dir = 0; dir < 6; dir++) {
-      if (samePieceInDirection(player, coord, dir) > 1) {
+    for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+      if (samePieceInDirection(player, cell, dir) > 1) {
         return true;
       }
     }
@@ -299,53 +452,38 @@ public class HexReversi implements Reversi {
    * Helper function for flipping pieces in a direction from the original placement position.
    *
    * @param player the player that placed the piece.
-   * @param coord  the coordinates containing information of the row and col
+   * @param cell   the cell index the piece was placed on
    * @param depth  the number of pieces needed to be flipped in the direction specified
-   * @param dir    the direction on the hex grid to flip pieces in
+   * @param dir    the direction on the hex grid to flip pieces in, starting with 0 for
    *               left and incrementing clockwise.
    */
-  private void flipPiecesInDirection(PlayerPiece player, Coord coord, int depth, int dir) {
-    int current_row = coord.row;
-    int current_col = coord.col;
-    while (depth-- > 0) {
-      // This switch statement aids in navigating our coordinate system since adjacency between
-      //  cells changes after the halfway point.
-      switch (dir) {
-        case 0: // left
-          current_col--;
-          break;
-        case 1: // up left
-          if (current_row <= this.getBoardHeight() / 2) {
-            current_col--;
-          }
-          current_row--;
-          break;
-        case 2: // up right
-          if (current_row > this.getBoardHeight() / 2) {
-            current_col++;
-          }
-          current_row--;
-          break;
-        case 3: // right
-          current_col++;
-          break;
-        case 4: // down right
-          if (current_row < this.getBoardHeight() / 2) {
-            current_col++;
-          }
-          current_row++;
-          break;
-        case 5: // down left
-          if (current_row >= this.getBoardHeight() / 2) {
-            current_col--;
-          }
-          current_row++;
-          break;
-        default:
-          break;
+  private void flipPiecesInDirection(PlayerPiece player, int cell, int depth, int dir) {
+    int[] ray = this.topology.ray(cell, dir);
+    for (int flip = 0; flip < depth; flip++) {
+      this.cells[ray[flip]] = player;
+    }
+  }
+
+  /**
+   * Flips the pieces captured by placing the current player's piece at the given cell, and
+   * records every cell that changed in changedCells, starting with the placed piece.
+   *
+   * @param cell the cell the piece was placed on
+   * @return the number of cells that changed
+   */
+  private int flipCapturedPieces(int cell) {
+    int changed = 0;
+    this.changedCells[changed++] = cell;
+    for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+      int depth = this.samePieceInDirection(this.currentTurn, cell, dir);
+      if (depth > 1) {
+        // the last cell walked is the current player's own piece, which isn't flipped
+        this.flipPiecesInDirection(this.currentTurn, cell, depth - 1, dir);
+        System.arraycopy(this.topology.ray(cell, dir), 0, this.changedCells, changed, depth - 1);
+        changed += depth - 1;
       }
-      this.cellGrid.get(current_row).set(current_col, player);
     }
+    return changed;
   }
 
   /**
@@ -365,31 +503,56 @@ public class HexReversi implements Reversi {
   @Override
   public void makeMove(Coord coord) throws IllegalArgumentException, IllegalStateException {
     this.verifyGameStarted();
-    this.verifyCoordinates(coord);
+    int cell = this.verifyCoordinates(coord);
 
     if (this.consecutivePasses >= 2) {
       throw new IllegalStateException("Game has ended");
     }
 
-    if (!isMoveLegal(this.currentTurn, coord)) {
+    if (!this.isLegalCell(this.currentTurn, cell)) {
       throw new IllegalStateException("Move is not allowed");
     }
 
-    this.cellGrid.get(coord.row).set(coord.col, this.currentTurn);
-
-    for (int dir = 0; dir < 6; dir++) {
-      int depth = this.samePieceInDirection(this.currentTurn, coord, dir);
-      if (depth > 1) {
-        this.flipPiecesInDirection(this.currentTurn, coord, depth, dir);
-      }
+    this.cells[cell] = this.currentTurn;
+    int changed = this.flipCapturedPieces(cell);
+    this.positionHash ^= this.zobrist.pieceKey(this.currentTurn, cell);
+    for (int flip = 1; flip < changed; flip++) {
+      this.positionHash ^= this.zobrist.flipKey(this.changedCells[flip]);
+    }
+    this.updateLegalMovesAround(this.changedCells, changed);
+    // the mover gains the placed piece and every flipped one, which the opponent loses
+    if (this.currentTurn == PlayerPiece.BLACK) {
+      this.blackCount += changed;
+      this.whiteCount -= changed - 1;
+    }
+    else {
+      this.whiteCount += changed;
+      this.blackCount -= changed - 1;
     }
 
     this.currentTurn = (this.currentTurn == PlayerPiece.BLACK)
             ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    this.positionHash ^= this.zobrist.turnKey();
     this.consecutivePasses = 0;
-    for (ModelFeatures listeners: this.features) {
-      listeners.yourTurn();
+    this.snapshot = this.snapshot.afterMove(this.cells[cell], this.changedCells, changed,
+            this.positionHash);
+    this.turns.turnChanged();
+  }
+
+  /**
+   * Gives an immutable snapshot of the position after the last move, pass or start of the game.
+   * A new snapshot is published after every change, made from the previous one by copying only
+   * its packed cells, so this never copies anything and can be called from any thread.
+   *
+   * @return the snapshot of the current position
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  public PositionSnapshot getSnapshot() throws IllegalStateException {
+    PositionSnapshot current = this.snapshot;
+    if (current == null) {
+      throw new IllegalStateException("Game hasn't started yet.");
     }
+    return current;
   }
 
   /**
@@ -404,6 +567,19 @@ public class HexReversi implements Reversi {
     return this.currentTurn;
   }
 
+  /**
+   * Gives the Zobrist hash of the current position, which is kept up to date on every placement,
+   * flip and change of turn, so this does not look at the board.
+   *
+   * @return the 64-bit hash of the pieces on the board and the player to move
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public long getPositionHash() throws IllegalStateException {
+    this.verifyGameStarted();
+    return this.positionHash;
+  }
+
   /**
    * Returns the player occupying the cell or if the cell is empty.
    *
@@ -419,9 +595,22 @@ public class HexReversi implements Reversi {
   public PlayerPiece getPlayerAtCell(Coord coord)
           throws IllegalArgumentException, IllegalStateException {
     this.verifyGameStarted();
-    this.verifyCoordinates(coord);
+    return this.cells[this.verifyCoordinates(coord)];
+  }
 
-    return this.cellGrid.get(coord.row).get(coord.col);
+  /**
+   * Returns the player occupying the cell with the given cell index.
+   *
+   * @param cell the cell index on the board
+   * @return The player in the cell or EMPTY if the cell is empty.
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalArgumentException if the cell index is invalid
+   */
+  @Override
+  public PlayerPiece getPlayerAtCell(int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    this.verifyGameStarted();
+    return this.cells[this.verifyCell(cell)];
   }
 
   /**
@@ -439,13 +628,12 @@ public class HexReversi implements Reversi {
   public boolean isCellEmpty(Coord coord)
           throws IllegalArgumentException, IllegalStateException {
     this.verifyGameStarted();
-    this.verifyCoordinates(coord);
-
-    return getPlayerAtCell(coord) == PlayerPiece.EMPTY;
+    return this.cells[this.verifyCoordinates(coord)] == PlayerPiece.EMPTY;
   }
 
   /**
-   * Signals if the game is over if there are no more moves to make.
+   * Signals if the game is over if there are no more moves to make. This only looks at the sizes
+   * of the legal move sets, so it does not scan the board.
    *
    * @return true is game is over, false is not
    * @throws IllegalStateException if the game hasn't started yet
@@ -457,7 +645,8 @@ public class HexReversi implements Reversi {
   }
 
   /**
-   * Returns whether the current player has a legal move or not.
+   * Returns whether the current player has a legal move or not. This only looks at the size of
+   * the player's legal move set, so it does not scan the board.
    *
    * @param player the player whose move availability is being checked.
    * @return true is player can move, false if player cannot move
@@ -466,14 +655,37 @@ public class HexReversi implements Reversi {
   @Override
   public boolean canPlayerMove(PlayerPiece player) throws IllegalStateException {
     this.verifyGameStarted();
-    for (int row = 0; row < this.getBoardHeight(); row++) {
-      for (int col = 0; col < this.getRowWidth(row); col++) {
-        if (this.isMoveLegal(player, Coord.coordAt(row, col))) {
-          return true;
-        }
-      }
-    }
-    return false;
+    CellSet moves = this.legalMoveSet(player);
+    return moves != null && !moves.isEmpty();
+  }
+
+  /**
+   * Returns the cells where the given player can currently move, in no particular order. The
+   * list is an immutable copy of the legal move set the model keeps up to date, so it stays the
+   * same while the game goes on.
+   *
+   * @param player the player whose legal moves are requested.
+   * @return a copy of the player's legal moves, which is empty for EMPTY or null.
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public List<Coord> legalMoves(PlayerPiece player) throws IllegalStateException {
+    return List.copyOf(this.legalMovesView(player));
+  }
+
+  /**
+   * Returns the cells where the given player can currently move as a read-only view of the legal
+   * move set the model keeps up to date after every move. Nothing is copied, but the view changes
+   * with every move, and must not be iterated while a move is being made.
+   *
+   * @param player the player whose legal moves are requested.
+   * @return a read-only view of the player's legal moves, which is empty for EMPTY or null.
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  public List<Coord> legalMovesView(PlayerPiece player) throws IllegalStateException {
+    this.verifyGameStarted();
+    CellSet moves = this.legalMoveSet(player);
+    return (moves == null) ? Collections.emptyList() : moves;
   }
 
   /**
@@ -484,7 +696,7 @@ public class HexReversi implements Reversi {
    */
   @Override
   public int getBoardHeight() throws IllegalStateException {
-    return this.cellGrid.size();
+    return this.topology.getBoardHeight();
   }
 
   /**
@@ -495,10 +707,7 @@ public class HexReversi implements Reversi {
    */
   @Override
   public int getRowWidth(int row) throws IllegalArgumentException, IllegalStateException {
-    if (row < 0 || row > this.getBoardHeight()) {
-      throw new IllegalArgumentException("Row number out-of-range.");
-    }
-    return this.cellGrid.get(row).size();
+    return this.topology.getRowWidth(row);
   }
 
   @Override
@@ -508,17 +717,21 @@ public class HexReversi implements Reversi {
     if (player == null || player == PlayerPiece.EMPTY) {
       throw new IllegalArgumentException("Invalid player given.");
     }
+    return (player == PlayerPiece.BLACK) ? this.blackCount : this.whiteCount;
+  }
 
-    int score = 0;
-    for (List<PlayerPiece> tiles : this.cellGrid) {
-      for (PlayerPiece value : tiles) {
-        if (value == player) {
-          score += 1;
-        }
-      }
-    }
-
-    return score;
+  /**
+   * Returns the piece counts of both players and the number of empty cells. The counts are kept
+   * up to date as moves are made, so this does not scan the board.
+   *
+   * @return the current score of the board
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public Score getScore() throws IllegalStateException {
+    this.verifyGameStarted();
+    return Score.scoreOf(this.blackCount, this.whiteCount,
+            this.cells.length - this.blackCount - this.whiteCount);
   }
 
   /**
@@ -537,10 +750,10 @@ public class HexReversi implements Reversi {
     }
     this.currentTurn = (this.currentTurn == PlayerPiece.BLACK)
             ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    this.positionHash ^= this.zobrist.turnKey();
     this.consecutivePasses += 1;
-    for (ModelFeatures listeners: this.features) {
-      listeners.yourTurn();
-    }
+    this.snapshot = this.snapshot.afterPass(this.positionHash);
+    this.turns.turnChanged();
   }
 
   /**
@@ -550,7 +763,17 @@ public class HexReversi implements Reversi {
    */
   @Override
   public void addFeatures(ModelFeatures features) {
-    this.features.add(features);
+    this.turns.addListener(features);
+  }
+
+  /**
+   * Gives the dispatcher that delivers this model's turn changes, which measures how long every
+   * turn took.
+   *
+   * @return the turn dispatcher of the model
+   */
+  public TurnDispatcher getTurnDispatcher() {
+    return this.turns;
   }
 
   /**
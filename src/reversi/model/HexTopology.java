@@ -0,0 +1,252 @@
+package reversi.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Describes the shape of a hex-shaped Reversi board of a given size, independent of the pieces on
+ * it. Every cell is given a linear cell index, counting left to right starting from the top row,
+ * so the 0th cell is the left-most cell of the top row and the last cell is the right-most cell of
+ * the bottom row.<br>
+ * For every cell and each of the six directions, the topology holds the ordered array of cell
+ * indices walked when moving away from that cell in that direction until the edge of the board.
+ * Directions start at 0 (directly left) and rotate clockwise, so 1 is up left, 2 is up right,
+ * 3 is right, 4 is down right and 5 is down left.<br>
+ * Topologies never change once built, so one instance is shared for every board of the same size.
+ */
+public final class HexTopology {
+  /** The number of directions a cell has neighbours in. */
+  public static final int DIRECTIONS = 6;
+
+  private static final ConcurrentMap<Integer, HexTopology> CACHE = new ConcurrentHashMap<>();
+
+  private final int boardSize;
+
+  // number of cells in each row, top row first
+  private final int[] rowWidths;
+
+  // cell index of the left-most cell in each row
+  private final int[] rowStarts;
+
+  // row and column of each cell index
+  private final int[] rows;
+  private final int[] cols;
+  private final Coord[] coords;
+
+  // rays[cell][dir] are the cells walked from cell in dir, nearest first, not including cell
+  private final int[][][] rays;
+
+  private HexTopology(int boardSize) {
+    this.boardSize = boardSize;
+    int height = 2 * boardSize - 1;
+    this.rowWidths = new int[height];
+    this.rowStarts = new int[height];
+    int cellCount = 0;
+    for (int row = 0; row < height; row++) {
+      this.rowWidths[row] = height - Math.abs(row - boardSize + 1);
+      this.rowStarts[row] = cellCount;
+      cellCount += this.rowWidths[row];
+    }
+
+    this.rows = new int[cellCount];
+    this.cols = new int[cellCount];
+    this.coords = new Coord[cellCount];
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < this.rowWidths[row]; col++) {
+        int cell = this.rowStarts[row] + col;
+        this.rows[cell] = row;
+        this.cols[cell] = col;
+        this.coords[cell] = Coord.coordAt(row, col);
+      }
+    }
+
+    this.rays = new int[cellCount][DIRECTIONS][];
+    int[] ray = new int[height];
+    for (int cell = 0; cell < cellCount; cell++) {
+      for (int dir = 0; dir < DIRECTIONS; dir++) {
+        int length = 0;
+        int row = this.rows[cell];
+        int col = this.cols[cell];
+        while (true) {
+          // adjacency between rows changes after the halfway point of the board.
+          switch (dir) {
+            case 0: // left
+              col--;
+              break;
+            case 1: // up left
+              if (row <= height / 2) {
+                col--;
+              }
+              row--;
+              break;
+            case 2: // up right
+              if (row > height / 2) {
+                col++;
+              }
+              row--;
+              break;
+            case 3: // right
+              col++;
+              break;
+            case 4: // down right
+              if (row < height / 2) {
+                col++;
+              }
+              row++;
+              break;
+            default: // down left
+              if (row >= height / 2) {
+                col--;
+              }
+              row++;
+              break;
+          }
+          int next = this.cellIndex(row, col);
+          if (next < 0) {
+            break;
+          }
+          ray[length++] = next;
+        }
+        this.rays[cell][dir] = Arrays.copyOf(ray, length);
+      }
+    }
+  }
+
+  /**
+   * Returns the topology of a hex board with the given edge length. Topologies are built once per
+   * board size and shared afterwards.
+   *
+   * @param boardSize The length of an edge of the board.
+   * @return the topology for boards of that size
+   * @throws IllegalArgumentException if the board size is less than 2
+   */
+  public static HexTopology of(int boardSize) throws IllegalArgumentException {
+    if (boardSize < 2) {
+      throw new IllegalArgumentException("Board size is too small.");
+    }
+    return CACHE.computeIfAbsent(boardSize, HexTopology::new);
+  }
+
+  /**
+   * Returns the topology of a hex board with the given number of rows.
+   *
+   * @param boardHeight the number of rows of the board
+   * @return the topology for boards of that height
+   * @throws IllegalArgumentException if the height is not the height of a valid hex board
+   */
+  public static HexTopology ofHeight(int boardHeight) throws IllegalArgumentException {
+    if (boardHeight % 2 == 0) {
+      throw new IllegalArgumentException("Invalid board size");
+    }
+    return of((boardHeight + 1) / 2);
+  }
+
+  /**
+   * Gives the length of an edge of the board.
+   *
+   * @return the board size
+   */
+  public int getBoardSize() {
+    return this.boardSize;
+  }
+
+  /**
+   * Gives the number of rows in the board.
+   *
+   * @return the number of rows
+   */
+  public int getBoardHeight() {
+    return this.rowWidths.length;
+  }
+
+  /**
+   * Gives the number of cells on the board.
+   *
+   * @return the number of cells
+   */
+  public int getCellCount() {
+    return this.rows.length;
+  }
+
+  /**
+   * Returns the number of cells in the row specified.
+   *
+   * @param row the row number
+   * @return the number of cells in the row
+   * @throws IllegalArgumentException if the row is out-of-range
+   */
+  public int getRowWidth(int row) throws IllegalArgumentException {
+    if (row < 0 || row >= this.rowWidths.length) {
+      throw new IllegalArgumentException("Row number out-of-range.");
+    }
+    return this.rowWidths[row];
+  }
+
+  /**
+   * Converts a row and column to a cell index.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the cell index, or -1 if the row and column are not on the board
+   */
+  public int cellIndex(int row, int col) {
+    if (row < 0 || row >= this.rowWidths.length || col < 0 || col >= this.rowWidths[row]) {
+      return -1;
+    }
+    return this.rowStarts[row] + col;
+  }
+
+  /**
+   * Converts coordinates to a cell index.
+   *
+   * @param coord the coordinates containing information of the row and col
+   * @return the cell index, or -1 if the coordinates are not on the board
+   */
+  public int cellIndex(Coord coord) {
+    return this.cellIndex(coord.row, coord.col);
+  }
+
+  /**
+   * Gives the row of a cell index.
+   *
+   * @param cell a cell index on this board
+   * @return the row of the cell
+   */
+  public int rowOf(int cell) {
+    return this.rows[cell];
+  }
+
+  /**
+   * Gives the column of a cell index.
+   *
+   * @param cell a cell index on this board
+   * @return the column of the cell
+   */
+  public int colOf(int cell) {
+    return this.cols[cell];
+  }
+
+  /**
+   * Gives the coordinates of a cell index.
+   *
+   * @param cell a cell index on this board
+   * @return the coordinates of the cell
+   */
+  public Coord coordOf(int cell) {
+    return this.coords[cell];
+  }
+
+  /**
+   * Gives the cells walked when moving away from a cell in a direction, nearest cell first. The
+   * returned array is shared and must not be modified.
+   *
+   * @param cell a cell index on this board
+   * @param dir  a number representing the direction with 0 representing directly left
+   *             and subsequent numbers rotating clockwise.
+   * @return the cell indices along the ray, which is empty if the cell is on that edge.
+   */
+  public int[] ray(int cell, int dir) {
+    return this.rays[cell][dir];
+  }
+}
@@ -50,6 +50,19 @@ public class MockReversi implements ReadonlyReversi {
     return (coord.equals(Coord.coordAt(6, 3)));
   }
 
+  /**
+   * Records and answers whether the cell is a legal move the same way as for its coordinates.
+   *
+   * @param player the player that wants to place the piece
+   * @param cell   the cell index on the board
+   * @return True if the given cell is (6, 3)
+   */
+  @Override
+  public boolean isMoveLegal(PlayerPiece player, int cell) {
+    return this.isMoveLegal(player,
+            HexTopology.ofHeight(this.realModel.getBoardHeight()).coordOf(cell));
+  }
+
   @Override
   public PlayerPiece getPiece(Player player) {
     return null;
@@ -81,6 +94,23 @@ public class MockReversi implements ReadonlyReversi {
     return realModel.getPlayerAtCell(coord);
   }
 
+  @Override
+  public PlayerPiece getPlayerAtCell(int cell)
+          throws IllegalArgumentException, IllegalStateException {
+    return realModel.getPlayerAtCell(cell);
+  }
+
+  /**
+   * Returns whether the given coordinates are a cell on the board.
+   *
+   * @param coord The coordinates containing information of the row and col.
+   * @return true if the coordinates are on the board, false if they are not or are null.
+   */
+  @Override
+  public boolean isOnBoard(Coord coord) {
+    return this.realModel.isOnBoard(coord);
+  }
+
   /**
    * Returns whether the cell at the given row and column is empty or not.
    *
@@ -117,6 +147,18 @@ public class MockReversi implements ReadonlyReversi {
     return this.realModel.canPlayerMove(player);
   }
 
+  /**
+   * Returns the cells where the given player can currently move, in no particular order.
+   *
+   * @param player the player whose legal moves are requested.
+   * @return the player's legal moves, which is empty for EMPTY or null.
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public List<Coord> legalMoves(PlayerPiece player) throws IllegalStateException {
+    return this.realModel.legalMoves(player);
+  }
+
   /**
    * \
    * Gives the number of rows in the board.
@@ -155,6 +197,22 @@ public class MockReversi implements ReadonlyReversi {
     return this.realModel.getPlayerScore(player);
   }
 
+  @Override
+  public Score getScore() throws IllegalStateException {
+    return this.realModel.getScore();
+  }
+
+  /**
+   * Gives a 64-bit hash of the current position.
+   *
+   * @return the hash of the current position
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  @Override
+  public long getPositionHash() throws IllegalStateException {
+    return this.realModel.getPositionHash();
+  }
+
   /**
    * Returns a copy of the current game board of Reversi.
    */
@@ -0,0 +1,97 @@
+package reversi.model;
+
+/**
+ * A compact record of everything a move or pass on a SearchableReversi changed, so that it can be
+ * taken back exactly with unmakeMove(). It holds the cell the piece was placed on, a bit set of
+ * the cells flipped by the move, and the player whose turn it was, the number of consecutive
+ * passes and the position hash before the move.<br>
+ * Records are meant to be reused: a search can allocate one record per ply of its maximum depth
+ * up front, and pass the record for the current ply to every makeMove() call, so making and
+ * taking back moves never allocates.
+ */
+public final class MoveUndo {
+  // cell the piece was placed on, or PASS if the move was a pass
+  int cell;
+
+  // bit set of the cells flipped by the move, using the same layout as the bitboard
+  final long[] flipped;
+
+  // player who made the move
+  PlayerPiece previousTurn;
+
+  // consecutive passes before the move
+  int previousPasses;
+
+  // position hash before the move
+  long previousHash;
+
+  // true when the record holds a move that has not been taken back yet
+  boolean applied;
+
+  /** The cell recorded for a pass. */
+  public static final int PASS = -1;
+
+  /**
+   * Creates an empty undo record for boards with the given number of cells.
+   *
+   * @param cellCount the number of cells of the boards the record will be used on
+   * @throws IllegalArgumentException if the cell count is not positive
+   */
+  public MoveUndo(int cellCount) throws IllegalArgumentException {
+    if (cellCount <= 0) {
+      throw new IllegalArgumentException("Cell count must be positive.");
+    }
+    this.flipped = new long[(cellCount + 63) >>> 6];
+    this.cell = PASS;
+  }
+
+  /**
+   * Gives the cell index the piece was placed on.
+   *
+   * @return the cell index of the move, or PASS if the move was a pass
+   */
+  public int getCell() {
+    return this.cell;
+  }
+
+  /**
+   * Returns whether the recorded move was a pass.
+   *
+   * @return true if the move was a pass
+   */
+  public boolean isPass() {
+    return this.cell == PASS;
+  }
+
+  /**
+   * Gives the player who made the recorded move.
+   *
+   * @return BLACK or WHITE
+   */
+  public PlayerPiece getMover() {
+    return this.previousTurn;
+  }
+
+  /**
+   * Returns whether the given cell was flipped by the recorded move.
+   *
+   * @param cell the cell index to check
+   * @return true if the cell was flipped
+   */
+  public boolean isFlipped(int cell) {
+    return (this.flipped[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Gives the number of pieces flipped by the recorded move.
+   *
+   * @return the number of flipped pieces, which is 0 for a pass
+   */
+  public int getFlipCount() {
+    int count = 0;
+    for (long word : this.flipped) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,230 @@
+package reversi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable picture of a position: the pieces on the board, the player to move, the number of
+ * passes made in a row and the position hash. The pieces are packed into one bit set per color,
+ * indexed by the cell indices of the board's HexTopology, so a snapshot of even a large board is
+ * a few words.<br>
+ * A snapshot never changes once made, so it can be read from any thread without locking while
+ * the game it was taken from moves on. A model publishing snapshots after every move makes the
+ * next one from the last, copying only its bit sets, and a pass shares them outright.
+ */
+public final class PositionSnapshot {
+  private final HexTopology topology;
+
+  // one bit per cell index for each color; the arrays are never written after construction
+  private final long[] blackCells;
+  private final long[] whiteCells;
+
+  private final int blackCount;
+  private final int whiteCount;
+  private final PlayerPiece currentPlayer;
+  private final int consecutivePasses;
+  private final long positionHash;
+
+  private PositionSnapshot(HexTopology topology, long[] blackCells, long[] whiteCells,
+                           int blackCount, int whiteCount, PlayerPiece currentPlayer,
+                           int consecutivePasses, long positionHash) {
+    this.topology = topology;
+    this.blackCells = blackCells;
+    this.whiteCells = whiteCells;
+    this.blackCount = blackCount;
+    this.whiteCount = whiteCount;
+    this.currentPlayer = currentPlayer;
+    this.consecutivePasses = consecutivePasses;
+    this.positionHash = positionHash;
+  }
+
+  /**
+   * Takes a snapshot of the cells of a board indexed by cell index.
+   *
+   * @param topology          the shape of the board
+   * @param cells             the piece in each cell, indexed by the topology's cell index
+   * @param currentPlayer     the player to move
+   * @param consecutivePasses the number of passes made in a row
+   * @param positionHash      the hash of the position
+   * @return the snapshot
+   */
+  static PositionSnapshot of(HexTopology topology, PlayerPiece[] cells, PlayerPiece currentPlayer,
+                             int consecutivePasses, long positionHash) {
+    int words = (cells.length + 63) >>> 6;
+    long[] black = new long[words];
+    long[] white = new long[words];
+    int blackCount = 0;
+    int whiteCount = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (cells[cell] == PlayerPiece.BLACK) {
+        black[cell >>> 6] |= 1L << cell;
+        blackCount++;
+      }
+      else if (cells[cell] == PlayerPiece.WHITE) {
+        white[cell >>> 6] |= 1L << cell;
+        whiteCount++;
+      }
+    }
+    return new PositionSnapshot(topology, black, white, blackCount, whiteCount, currentPlayer,
+            consecutivePasses, positionHash);
+  }
+
+  /**
+   * Takes a snapshot of the current position of any model.
+   *
+   * @param model the model to take the snapshot of
+   * @return the snapshot
+   * @throws IllegalStateException if the game of the model hasn't started yet
+   */
+  public static PositionSnapshot copyOf(ReadonlyReversi model) throws IllegalStateException {
+    HexTopology topology = HexTopology.ofHeight(model.getBoardHeight());
+    PlayerPiece[] cells = new PlayerPiece[topology.getCellCount()];
+    for (int cell = 0; cell < cells.length; cell++) {
+      cells[cell] = model.getPlayerAtCell(cell);
+    }
+    int passes = (model instanceof SearchableReversi)
+            ? ((SearchableReversi) model).getConsecutivePasses() : 0;
+    return of(topology, cells, model.getCurrentPlayer(), passes, model.getPositionHash());
+  }
+
+  /**
+   * Makes the snapshot after a move from this one. Only the bit sets are copied.
+   *
+   * @param mover        the player who made the move
+   * @param changed      the cells that changed, the placed piece first and then the flipped ones
+   * @param count        the number of cells that changed
+   * @param positionHash the hash of the new position
+   * @return the snapshot of the new position, with the opponent of the mover to move
+   */
+  PositionSnapshot afterMove(PlayerPiece mover, int[] changed, int count, long positionHash) {
+    long[] black = this.blackCells.clone();
+    long[] white = this.whiteCells.clone();
+    long[] own = (mover == PlayerPiece.BLACK) ? black : white;
+    long[] opp = (mover == PlayerPiece.BLACK) ? white : black;
+    for (int index = 0; index < count; index++) {
+      int cell = changed[index];
+      own[cell >>> 6] |= 1L << cell;
+      opp[cell >>> 6] &= ~(1L << cell);
+    }
+    // the mover gains the placed piece and every flipped one, which the opponent loses
+    int blackCount = this.blackCount + ((mover == PlayerPiece.BLACK) ? count : 1 - count);
+    int whiteCount = this.whiteCount + ((mover == PlayerPiece.WHITE) ? count : 1 - count);
+    return new PositionSnapshot(this.topology, black, white, blackCount, whiteCount,
+            opponent(mover), 0, positionHash);
+  }
+
+  /**
+   * Makes the snapshot after the player to move passes. The bit sets are shared.
+   *
+   * @param positionHash the hash of the new position
+   * @return the snapshot of the new position
+   */
+  PositionSnapshot afterPass(long positionHash) {
+    return new PositionSnapshot(this.topology, this.blackCells, this.whiteCells, this.blackCount,
+            this.whiteCount, opponent(this.currentPlayer), this.consecutivePasses + 1,
+            positionHash);
+  }
+
+  private static PlayerPiece opponent(PlayerPiece player) {
+    return (player == PlayerPiece.BLACK) ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+  }
+
+  /**
+   * Gives the shape of the board.
+   *
+   * @return the topology of the board
+   */
+  public HexTopology getTopology() {
+    return this.topology;
+  }
+
+  /**
+   * Returns the player occupying the cell or if the cell is empty.
+   *
+   * @param cell the cell index on the board
+   * @return The player in the cell or EMPTY if the cell is empty.
+   * @throws IllegalArgumentException if the cell index is not on the board
+   */
+  public PlayerPiece getPlayerAtCell(int cell) throws IllegalArgumentException {
+    if (cell < 0 || cell >= this.topology.getCellCount()) {
+      throw new IllegalArgumentException("Cell index out-of-range.");
+    }
+    if ((this.blackCells[cell >>> 6] & (1L << cell)) != 0) {
+      return PlayerPiece.BLACK;
+    }
+    return ((this.whiteCells[cell >>> 6] & (1L << cell)) != 0)
+            ? PlayerPiece.WHITE : PlayerPiece.EMPTY;
+  }
+
+  /**
+   * Returns the player occupying the cell or if the cell is empty.
+   *
+   * @param coord The coordinates containing information of the row and col.
+   * @return The player in the cell or EMPTY if the cell is empty.
+   * @throws IllegalArgumentException if the coordinates are not on the board
+   */
+  public PlayerPiece getPlayerAtCell(Coord coord) throws IllegalArgumentException {
+    int cell = this.topology.cellIndex(coord);
+    if (cell < 0) {
+      throw new IllegalArgumentException("Coordinates out-of-range.");
+    }
+    return this.getPlayerAtCell(cell);
+  }
+
+  /**
+   * Gives the player to move.
+   *
+   * @return BLACK or WHITE
+   */
+  public PlayerPiece getCurrentPlayer() {
+    return this.currentPlayer;
+  }
+
+  /**
+   * Gives the number of passes made in a row. Two passes in a row end the game.
+   *
+   * @return the number of consecutive passes
+   */
+  public int getConsecutivePasses() {
+    return this.consecutivePasses;
+  }
+
+  /**
+   * Gives the 64-bit hash of the position, the same one the model gave when the snapshot was
+   * taken.
+   *
+   * @return the hash of the position
+   */
+  public long getPositionHash() {
+    return this.positionHash;
+  }
+
+  /**
+   * Returns the piece counts of both players and the number of empty cells.
+   *
+   * @return the score of the position
+   */
+  public Score getScore() {
+    return Score.scoreOf(this.blackCount, this.whiteCount,
+            this.topology.getCellCount() - this.blackCount - this.whiteCount);
+  }
+
+  /**
+   * Unpacks the snapshot into rows of cells, in the form copyBoard() gives and continueGame()
+   * takes.
+   *
+   * @return a new list of rows, top row first
+   */
+  public List<List<PlayerPiece>> toBoard() {
+    List<List<PlayerPiece>> board = new ArrayList<>(this.topology.getBoardHeight());
+    int cell = 0;
+    for (int row = 0; row < this.topology.getBoardHeight(); row++) {
+      List<PlayerPiece> rowCells = new ArrayList<>(this.topology.getRowWidth(row));
+      for (int col = 0; col < this.topology.getRowWidth(row); col++) {
+        rowCells.add(this.getPlayerAtCell(cell++));
+      }
+      board.add(rowCells);
+    }
+    return board;
+  }
+}
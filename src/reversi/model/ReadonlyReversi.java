@@ -25,6 +25,26 @@ public interface ReadonlyReversi {
    */
   PlayerPiece getPlayerAtCell(Coord coord) throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Returns the player occupying the cell or if the cell is empty, without needing coordinates.
+   * Cells are numbered by the linear cell indices of the board's HexTopology.
+   *
+   * @param cell the cell index on the board
+   * @return The player in the cell or EMPTY if the cell is empty.
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalArgumentException if the cell index is not on the board
+   */
+  PlayerPiece getPlayerAtCell(int cell) throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Returns whether the given coordinates are a cell on the board. Unlike the other cell queries,
+   * this never throws, so it can be used to probe cells before looking them up.
+   *
+   * @param coord The coordinates containing information of the row and col.
+   * @return true if the coordinates are on the board, false if they are not or are null.
+   */
+  boolean isOnBoard(Coord coord);
+
   /**
    * Returns whether the cell at the given row and column is empty or not.
    *
@@ -52,6 +72,16 @@ public interface ReadonlyReversi {
    */
   boolean canPlayerMove(PlayerPiece player) throws IllegalStateException;
 
+  /**
+   * Returns the cells where the given player can currently move, in no particular order.
+   * The returned list cannot be modified, and does not change when moves are made.
+   *
+   * @param player the player whose legal moves are requested.
+   * @return the player's legal moves, which is empty for EMPTY or null.
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  List<Coord> legalMoves(PlayerPiece player) throws IllegalStateException;
+
   /**\
    * Gives the number of rows in the board.
    *
@@ -77,6 +107,23 @@ public interface ReadonlyReversi {
    */
   int getPlayerScore(PlayerPiece player) throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Returns the piece counts of both players and the number of empty cells in a single call.
+   * @return  The current score of the board.
+   * @throws IllegalStateException  If the game hasn't started.
+   */
+  Score getScore() throws IllegalStateException;
+
+  /**
+   * Gives a 64-bit hash of the current position, made of the pieces on the board and the player
+   * to move. Equal positions on boards of the same size always have the same hash, which is
+   * stable across runs of the program.
+   *
+   * @return the hash of the current position
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  long getPositionHash() throws IllegalStateException;
+
   /**
    * Returns a copy of the current game board of Reversi.
    */
@@ -92,6 +139,19 @@ public interface ReadonlyReversi {
    */
   boolean isMoveLegal(PlayerPiece player, Coord coord);
 
+  /**
+   * Returns whether the given cell is a legal move for the given player, without needing
+   * coordinates. Cells are numbered by the linear cell indices of the board's HexTopology.
+   *
+   * @param player the player that wants to place the piece
+   * @param cell   the cell index on the board
+   * @return True if the given cell is a legal move for the given player
+   * @throws IllegalStateException if the game hasn't started yet
+   * @throws IllegalArgumentException if the cell index is not on the board
+   */
+  boolean isMoveLegal(PlayerPiece player, int cell)
+          throws IllegalArgumentException, IllegalStateException;
+
   /**
    * Returns the piece corresponding to the given player.
    * @param player Player that you want to get piece information on
@@ -0,0 +1,85 @@
+package reversi.model;
+
+/**
+ * The piece counts of a board at one moment: the pieces of each player and the cells still
+ * empty. A score is a value that never changes, so it can be kept and passed around after the
+ * game moves on.
+ */
+public final class Score {
+  public final int black;
+  public final int white;
+  public final int empty;
+
+  private Score(int black, int white, int empty) {
+    this.black = black;
+    this.white = white;
+    this.empty = empty;
+  }
+
+  /**
+   * Gives the score with the given counts.
+   *
+   * @param black the number of black pieces
+   * @param white the number of white pieces
+   * @param empty the number of empty cells
+   * @return the score
+   * @throws IllegalArgumentException if a count is negative
+   */
+  public static Score scoreOf(int black, int white, int empty) throws IllegalArgumentException {
+    if (black < 0 || white < 0 || empty < 0) {
+      throw new IllegalArgumentException("Counts can't be negative.");
+    }
+    return new Score(black, white, empty);
+  }
+
+  /**
+   * Gives the number of pieces of a player.
+   *
+   * @param player BLACK or WHITE
+   * @return the player's piece count
+   * @throws IllegalArgumentException if the player is EMPTY or null
+   */
+  public int of(PlayerPiece player) throws IllegalArgumentException {
+    if (player == PlayerPiece.BLACK) {
+      return this.black;
+    }
+    if (player == PlayerPiece.WHITE) {
+      return this.white;
+    }
+    throw new IllegalArgumentException("Invalid player given.");
+  }
+
+  /**
+   * Gives how many more pieces black has than white.
+   *
+   * @return the black piece count minus the white piece count
+   */
+  public int differential() {
+    return this.black - this.white;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+
+    if (obj == null || obj.getClass() != this.getClass()) {
+      return false;
+    }
+
+    Score score = (Score) obj;
+
+    return score.black == this.black && score.white == this.white && score.empty == this.empty;
+  }
+
+  @Override
+  public int hashCode() {
+    return (this.black * 31 + this.white) * 31 + this.empty;
+  }
+
+  @Override
+  public String toString() {
+    return "black: " + this.black + ", white: " + this.white + ", empty: " + this.empty;
+  }
+}
@@ -0,0 +1,70 @@
+package reversi.model;
+
+/**
+ * A read-only Reversi interface extended with moves that can be taken back, meant for strategies
+ * that look ahead by searching through many positions on a single board instead of copying it.
+ * Cells are addressed by the cell indices of the board's HexTopology.<br>
+ * Moves made through this interface do not notify any feature listeners, and must be taken back
+ * in the reverse order they were made.
+ */
+public interface SearchableReversi extends ReadonlyReversi {
+  /**
+   * Gives the shape of the board.
+   *
+   * @return the topology of the board
+   */
+  HexTopology getTopology();
+
+  /**
+   * Writes the cells where the given player can move into the given array, in increasing order.
+   *
+   * @param player the player whose legal moves are requested
+   * @param moves  the array to write the cell indices into, which should be as long as the
+   *               number of cells on the board
+   * @return the number of legal moves written
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  int legalMoves(PlayerPiece player, int[] moves) throws IllegalStateException;
+
+  /**
+   * Gives the number of passes made in a row. Two passes in a row end the game.
+   *
+   * @return the number of consecutive passes
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  int getConsecutivePasses() throws IllegalStateException;
+
+  /**
+   * Places the current player's piece on the given cell and records what changed in the given
+   * undo record, which is overwritten.
+   *
+   * @param cell the cell index of a legal move for the current player
+   * @param undo the record to fill in
+   * @return the filled in undo record
+   * @throws IllegalArgumentException if the cell index is not on the board
+   * @throws IllegalStateException    if the game hasn't started, is over, or the move is not
+   *                                  legal, or the undo record is for boards of another size
+   */
+  MoveUndo makeMove(int cell, MoveUndo undo) throws IllegalArgumentException,
+          IllegalStateException;
+
+  /**
+   * Passes the current player's turn and records what changed in the given undo record, which is
+   * overwritten.
+   *
+   * @param undo the record to fill in
+   * @return the filled in undo record
+   * @throws IllegalStateException if the game hasn't started, two passes were already made, or
+   *                               the undo record is for boards of another size
+   */
+  MoveUndo makePass(MoveUndo undo) throws IllegalStateException;
+
+  /**
+   * Takes back the move or pass recorded in the given undo record, restoring the board, the
+   * current player and the number of consecutive passes exactly.
+   *
+   * @param undo the record filled in by the last move or pass that was not taken back yet
+   * @throws IllegalStateException if the record does not hold a move that can be taken back
+   */
+  void unmakeMove(MoveUndo undo) throws IllegalStateException;
+}
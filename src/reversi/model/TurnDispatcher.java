@@ -0,0 +1,117 @@
+package reversi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delivers the turn changes of a model to its feature listeners without nesting them. When a
+ * listener plays a move from inside yourTurn(), as a machine player does, the model reports the
+ * new turn to the dispatcher, which only marks it pending and returns, so the move returns as
+ * well. The dispatcher then notifies the listeners of the new turn from its own loop. However
+ * long the game is, the stack never holds more than one notification.<br>
+ * The dispatcher also measures every turn, from the moment its notification starts until the
+ * turn changes again or every listener has returned, so the time each move took can be read
+ * after a game between machine players.
+ */
+public final class TurnDispatcher {
+  private final List<ModelFeatures> listeners;
+
+  // true while the listeners are being notified
+  private boolean dispatching;
+
+  // true if the turn changed again while the listeners were being notified
+  private boolean pending;
+
+  // when the notification of the current turn started
+  private long turnStart;
+
+  private long turns;
+  private long totalTurnNanos;
+  private long maxTurnNanos;
+
+  /**
+   * Creates a dispatcher with no listeners.
+   */
+  TurnDispatcher() {
+    this.listeners = new ArrayList<>();
+  }
+
+  /**
+   * Adds a listener to be notified of every turn change.
+   *
+   * @param listener the listener to add
+   */
+  void addListener(ModelFeatures listener) {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Reports that the turn changed. If the listeners are already being notified, this only marks
+   * the new turn as pending, and the listeners that were not reached yet are notified of the new
+   * turn instead of the old one. Otherwise, the listeners are notified right away, and again for
+   * every turn change they cause, until a round of notifications causes none.
+   */
+  void turnChanged() {
+    if (this.dispatching) {
+      this.finishTurn();
+      this.pending = true;
+      return;
+    }
+    this.dispatching = true;
+    try {
+      do {
+        this.pending = false;
+        this.turnStart = System.nanoTime();
+        // the list is read by index so that listeners can be added while notifying
+        for (int i = 0; i < this.listeners.size() && !this.pending; i++) {
+          this.listeners.get(i).yourTurn();
+        }
+        if (!this.pending) {
+          this.finishTurn();
+        }
+      }
+      while (this.pending);
+    }
+    finally {
+      this.dispatching = false;
+      this.pending = false;
+    }
+  }
+
+  // adds the time since the current turn started to the statistics
+  private void finishTurn() {
+    long elapsed = System.nanoTime() - this.turnStart;
+    this.turns++;
+    this.totalTurnNanos += elapsed;
+    this.maxTurnNanos = Math.max(this.maxTurnNanos, elapsed);
+  }
+
+  /**
+   * Gives the number of turns whose notifications were delivered.
+   *
+   * @return the turn count
+   */
+  public long getTurnCount() {
+    return this.turns;
+  }
+
+  /**
+   * Gives the average time of a turn, from the start of its notification until the turn changed
+   * again or every listener returned.
+   *
+   * @return the average turn time in nanoseconds, or 0 if no turns were delivered
+   */
+  public double getAverageTurnNanos() {
+    return (this.turns == 0) ? 0 : (double) this.totalTurnNanos / this.turns;
+  }
+
+  /**
+   * Gives the longest time of a turn, from the start of its notification until the turn changed
+   * again or every listener returned.
+   *
+   * @return the longest turn time in nanoseconds, or 0 if no turns were delivered
+   */
+  public long getMaxTurnNanos() {
+    return this.maxTurnNanos;
+  }
+}
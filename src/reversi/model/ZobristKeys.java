@@ -0,0 +1,110 @@
+package reversi.model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The random 64-bit keys used to hash positions on hex boards of one size. The hash of a position
+ * is the XOR of the key of every piece on the board, combined with the side-to-move key when it is
+ * white's turn. Since XOR undoes itself, models can keep the hash up to date while playing by
+ * XOR-ing in only the keys of the cells that changed.<br>
+ * The keys are generated from a fixed seed, so the hash of a position is the same in every run of
+ * the program, and can be stored in files such as opening books.
+ */
+public final class ZobristKeys {
+  private static final ConcurrentMap<Integer, ZobristKeys> CACHE = new ConcurrentHashMap<>();
+
+  private static final long SEED = 0x5DEECE66DL;
+
+  private final HexTopology topology;
+  private final long[] blackKeys;
+  private final long[] whiteKeys;
+  private final long whiteToMoveKey;
+
+  private ZobristKeys(HexTopology topology) {
+    this.topology = topology;
+    SplittableRandom random = new SplittableRandom(SEED * 31 + topology.getBoardSize());
+    this.blackKeys = new long[topology.getCellCount()];
+    this.whiteKeys = new long[topology.getCellCount()];
+    for (int cell = 0; cell < topology.getCellCount(); cell++) {
+      this.blackKeys[cell] = random.nextLong();
+      this.whiteKeys[cell] = random.nextLong();
+    }
+    this.whiteToMoveKey = random.nextLong();
+  }
+
+  /**
+   * Returns the keys for boards with the given topology. Keys are built once per board size and
+   * shared afterwards.
+   *
+   * @param topology the shape of the board
+   * @return the keys for boards of that shape
+   */
+  public static ZobristKeys of(HexTopology topology) {
+    return CACHE.computeIfAbsent(topology.getBoardSize(), size -> new ZobristKeys(topology));
+  }
+
+  /**
+   * Gives the key of a piece in a cell.
+   *
+   * @param piece the piece in the cell
+   * @param cell  the cell index on the board
+   * @return the key of the piece in the cell, which is 0 for EMPTY
+   */
+  public long pieceKey(PlayerPiece piece, int cell) {
+    if (piece == PlayerPiece.BLACK) {
+      return this.blackKeys[cell];
+    }
+    return (piece == PlayerPiece.WHITE) ? this.whiteKeys[cell] : 0L;
+  }
+
+  /**
+   * Gives the value to XOR into a hash when the piece in a cell is flipped to the other color.
+   *
+   * @param cell the cell index on the board
+   * @return the key change of flipping the piece in the cell
+   */
+  public long flipKey(int cell) {
+    return this.blackKeys[cell] ^ this.whiteKeys[cell];
+  }
+
+  /**
+   * Gives the value to XOR into a hash whenever the turn changes.
+   *
+   * @return the side-to-move key
+   */
+  public long turnKey() {
+    return this.whiteToMoveKey;
+  }
+
+  /**
+   * Computes the hash of a position from scratch.
+   *
+   * @param cells       the piece in each cell, indexed by cell index
+   * @param currentTurn the player to move
+   * @return the hash of the position
+   */
+  public long hash(PlayerPiece[] cells, PlayerPiece currentTurn) {
+    long hash = (currentTurn == PlayerPiece.WHITE) ? this.whiteToMoveKey : 0L;
+    for (int cell = 0; cell < cells.length; cell++) {
+      hash ^= this.pieceKey(cells[cell], cell);
+    }
+    return hash;
+  }
+
+  /**
+   * Computes the hash of the position of a model from scratch, by looking at every cell.
+   *
+   * @param model a started model on a board with this key set's shape
+   * @return the hash of the model's position
+   * @throws IllegalStateException if the model's game hasn't started yet
+   */
+  public long hash(ReadonlyReversi model) throws IllegalStateException {
+    PlayerPiece[] cells = new PlayerPiece[this.topology.getCellCount()];
+    for (int cell = 0; cell < cells.length; cell++) {
+      cells[cell] = model.getPlayerAtCell(this.topology.coordOf(cell));
+    }
+    return this.hash(cells, model.getCurrentPlayer());
+  }
+}
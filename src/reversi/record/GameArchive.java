@@ -0,0 +1,216 @@
+package reversi.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import reversi.model.BitboardHexReversi;
+
+/**
+ * The games of a record file, memory-mapped instead of read, so an archive takes no heap space
+ * besides the offset of every game, and any game can be read directly by its game id, which is
+ * its position in the file counting from 0.<br>
+ * The file is mapped in segments of up to a gigabyte, each starting at a record, since a single
+ * mapping can't be larger than two gigabytes. Opening an archive walks the length prefixes of
+ * the records once to find where every game starts, without decoding them. An archive never
+ * changes once opened, so it can be read from any number of threads.
+ */
+public final class GameArchive {
+  /** The largest size of a mapped segment. */
+  public static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+  private final Path file;
+
+  // the mapped segments of the file, and the file offset each of them starts at
+  private final ByteBuffer[] segments;
+  private final long[] segmentStarts;
+
+  // the segment and the position in it of the record of every game, by game id
+  private final int[] gameSegments;
+  private final int[] gamePositions;
+
+  private GameArchive(Path file, ByteBuffer[] segments, long[] segmentStarts, int[] gameSegments,
+                      int[] gamePositions) {
+    this.file = file;
+    this.segments = segments;
+    this.segmentStarts = segmentStarts;
+    this.gameSegments = gameSegments;
+    this.gamePositions = gamePositions;
+  }
+
+  /**
+   * Maps a record file into memory.
+   *
+   * @param file the record file
+   * @return the archive of the games in the file
+   * @throws IOException if the file can't be read, is not a record file, or ends inside a record
+   */
+  public static GameArchive open(Path file) throws IOException {
+    return open(file, MAX_SEGMENT_BYTES);
+  }
+
+  /**
+   * Maps a record file into memory in segments of at most the given size.
+   *
+   * @param file         the record file
+   * @param segmentBytes the largest size of a mapped segment, up to MAX_SEGMENT_BYTES
+   * @return the archive of the games in the file
+   * @throws IOException              if the file can't be read, is not a record file, ends inside
+   *                                  a record, or has a record larger than a segment
+   * @throws IllegalArgumentException if the segment size is out of range
+   */
+  public static GameArchive open(Path file, long segmentBytes)
+          throws IOException, IllegalArgumentException {
+    if (segmentBytes <= 0 || segmentBytes > MAX_SEGMENT_BYTES) {
+      throw new IllegalArgumentException("Segment size out-of-range.");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      ByteBuffer magic = ByteBuffer.allocate(4);
+      int read = 0;
+      while (magic.hasRemaining() && read >= 0) {
+        read = channel.read(magic, magic.position());
+      }
+      if (magic.hasRemaining() || magic.getInt(0) != GameRecordWriter.MAGIC) {
+        throw new IOException("Not a game record file: " + file);
+      }
+
+      List<ByteBuffer> segments = new ArrayList<>();
+      List<Long> segmentStarts = new ArrayList<>();
+      int[] gameSegments = new int[1024];
+      int[] gamePositions = new int[1024];
+      int games = 0;
+      long start = 4;
+      while (start < fileSize) {
+        long length = Math.min(segmentBytes, fileSize - start);
+        // the mapping stays valid after the channel is closed
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        int position = 0;
+        int end;
+        while ((end = recordEnd(mapped, position)) >= 0) {
+          if (games == gameSegments.length) {
+            gameSegments = Arrays.copyOf(gameSegments, 2 * games);
+            gamePositions = Arrays.copyOf(gamePositions, 2 * games);
+          }
+          gameSegments[games] = segments.size();
+          gamePositions[games] = position;
+          games++;
+          position = end;
+        }
+        if (position == 0) {
+          throw new IOException(((start + length == fileSize) ? "Truncated" : "Oversized")
+                  + " record at offset " + start + " of " + file);
+        }
+        segments.add(mapped.limit(position).slice());
+        segmentStarts.add(start);
+        start += position;
+      }
+
+      long[] starts = new long[segmentStarts.size()];
+      for (int segment = 0; segment < starts.length; segment++) {
+        starts[segment] = segmentStarts.get(segment);
+      }
+      return new GameArchive(file, segments.toArray(new ByteBuffer[0]), starts,
+              Arrays.copyOf(gameSegments, games), Arrays.copyOf(gamePositions, games));
+    }
+  }
+
+  // the position after the record starting at the given position, or -1 if it doesn't fit
+  private static int recordEnd(ByteBuffer segment, int position) throws IOException {
+    int length = 0;
+    for (int prefix = 0; prefix < Varints.MAX_BYTES; prefix++) {
+      if (position + prefix >= segment.limit()) {
+        return -1;
+      }
+      byte next = segment.get(position + prefix);
+      length |= (next & 0x7F) << (7 * prefix);
+      if (next >= 0) {
+        if (length < 0) {
+          throw new IOException("Corrupt record length.");
+        }
+        long end = (long) position + prefix + 1 + length;
+        return (end <= segment.limit()) ? (int) end : -1;
+      }
+    }
+    throw new IOException("Corrupt record length.");
+  }
+
+  /**
+   * Gives the record file of the archive.
+   *
+   * @return the path of the file
+   */
+  public Path getFile() {
+    return this.file;
+  }
+
+  /**
+   * Gives the number of games in the archive.
+   *
+   * @return the game count
+   */
+  public int size() {
+    return this.gamePositions.length;
+  }
+
+  /**
+   * Gives the offset in the record file of a game's record.
+   *
+   * @param gameId the game id, from 0 to size() - 1
+   * @return the offset of the record in bytes
+   * @throws IllegalArgumentException if there is no game with that id
+   */
+  public long getOffset(int gameId) throws IllegalArgumentException {
+    this.checkGameId(gameId);
+    return this.segmentStarts[this.gameSegments[gameId]] + this.gamePositions[gameId];
+  }
+
+  /**
+   * Reads a game from the mapped file.
+   *
+   * @param gameId the game id, from 0 to size() - 1
+   * @return the record of the game
+   * @throws IllegalArgumentException if there is no game with that id
+   * @throws IllegalStateException    if the record of the game is corrupt
+   */
+  public GameRecord getGame(int gameId) throws IllegalArgumentException, IllegalStateException {
+    this.checkGameId(gameId);
+    // a duplicate has its own position, so threads never disturb each other's reads
+    ByteBuffer record = this.segments[this.gameSegments[gameId]].duplicate();
+    record.position(this.gamePositions[gameId]);
+    int length = Varints.get(record);
+    record.limit(record.position() + length);
+    try {
+      return GameRecord.decode(record);
+    }
+    catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Corrupt record of game " + gameId + " in " + this.file, e);
+    }
+  }
+
+  /**
+   * Replays a game up to a ply.
+   *
+   * @param gameId the game id, from 0 to size() - 1
+   * @param ply    the number of moves to play
+   * @return a board in the position after those moves
+   * @throws IllegalArgumentException if there is no game with that id or the ply is out of range
+   * @throws IllegalStateException    if the record is corrupt or has an illegal move
+   */
+  public BitboardHexReversi positionAt(int gameId, int ply)
+          throws IllegalArgumentException, IllegalStateException {
+    return this.getGame(gameId).positionAfter(ply);
+  }
+
+  private void checkGameId(int gameId) throws IllegalArgumentException {
+    if (gameId < 0 || gameId >= this.gamePositions.length) {
+      throw new IllegalArgumentException("Game id out-of-range.");
+    }
+  }
+}
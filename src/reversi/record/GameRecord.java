@@ -0,0 +1,239 @@
+package reversi.record;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.HexTopology;
+import reversi.model.Score;
+
+/**
+ * A finished game: the size of its board, every move played in order, and the final score. Moves
+ * are cell indices of the board's HexTopology, or PASS for a pass. A record never changes once
+ * made.<br>
+ * In a record file, a record takes a varint of the length of the rest of the record, then the
+ * board size, the number of moves, each move as its cell index plus one with 0 for a pass, and
+ * the black and white piece counts, all as varints. A game on a board of size 7 or less takes
+ * one byte per move and a handful of bytes besides.
+ */
+public final class GameRecord {
+  /** The move of a player who passed. */
+  public static final int PASS = -1;
+
+  /** The largest board size a record can be made for. */
+  public static final int MAX_BOARD_SIZE = 256;
+
+  private final int boardSize;
+  private final int[] moves;
+  private final Score result;
+
+  private GameRecord(int boardSize, int[] moves, Score result) {
+    this.boardSize = boardSize;
+    this.moves = moves;
+    this.result = result;
+  }
+
+  /**
+   * Makes a record of a game.
+   *
+   * @param boardSize the size of the board the game was played on
+   * @param moves     the cell index of every move played in order, or PASS for a pass
+   * @param result    the score at the end of the game
+   * @return the record, which keeps a copy of the moves
+   * @throws IllegalArgumentException if the board size is not from 2 to MAX_BOARD_SIZE, the moves
+   *                                  or result are null, a move is not on the board, or the
+   *                                  result doesn't add up to the cells of the board
+   */
+  public static GameRecord of(int boardSize, int[] moves, Score result)
+          throws IllegalArgumentException {
+    if (moves == null || result == null) {
+      throw new IllegalArgumentException("Moves and result can't be null.");
+    }
+    if (boardSize > MAX_BOARD_SIZE) {
+      throw new IllegalArgumentException("Board size is too large.");
+    }
+    int cellCount = HexTopology.of(boardSize).getCellCount();
+    for (int move : moves) {
+      if (move < PASS || move >= cellCount) {
+        throw new IllegalArgumentException("Move out-of-range: " + move);
+      }
+    }
+    if (result.black + result.white + result.empty != cellCount) {
+      throw new IllegalArgumentException("Result doesn't fit the board.");
+    }
+    return new GameRecord(boardSize, moves.clone(), result);
+  }
+
+  /**
+   * Gives the size of the board the game was played on.
+   *
+   * @return the board size, as given to HexReversi
+   */
+  public int getBoardSize() {
+    return this.boardSize;
+  }
+
+  /**
+   * Gives the number of moves played, counting passes.
+   *
+   * @return the move count
+   */
+  public int getMoveCount() {
+    return this.moves.length;
+  }
+
+  /**
+   * Gives one move of the game.
+   *
+   * @param ply the number of moves played before it
+   * @return the cell index of the move, or PASS
+   * @throws IllegalArgumentException if there is no move with that number
+   */
+  public int getMove(int ply) throws IllegalArgumentException {
+    if (ply < 0 || ply >= this.moves.length) {
+      throw new IllegalArgumentException("Ply out-of-range.");
+    }
+    return this.moves[ply];
+  }
+
+  /**
+   * Gives every move of the game in order.
+   *
+   * @return a copy of the moves
+   */
+  public int[] getMoves() {
+    return this.moves.clone();
+  }
+
+  /**
+   * Gives the score at the end of the game.
+   *
+   * @return the final score
+   */
+  public Score getResult() {
+    return this.result;
+  }
+
+  /**
+   * Replays the start of the game on a new board.
+   *
+   * @param plies the number of moves to play
+   * @return a started board in the position after those moves
+   * @throws IllegalArgumentException if the number of moves is negative or more than the game has
+   * @throws IllegalStateException    if a move of the record is not legal
+   */
+  public BitboardHexReversi positionAfter(int plies)
+          throws IllegalArgumentException, IllegalStateException {
+    if (plies < 0 || plies > this.moves.length) {
+      throw new IllegalArgumentException("Ply out-of-range.");
+    }
+    BitboardHexReversi board = new BitboardHexReversi(this.boardSize);
+    board.startGame();
+    HexTopology topology = board.getTopology();
+    for (int ply = 0; ply < plies; ply++) {
+      if (this.moves[ply] == PASS) {
+        board.passTurn();
+      }
+      else {
+        board.makeMove(topology.coordOf(this.moves[ply]));
+      }
+    }
+    return board;
+  }
+
+  /**
+   * Gives the number of bytes the record takes in a record file, including its length prefix.
+   *
+   * @return the encoded length in bytes
+   */
+  int encodedLength() {
+    int body = this.bodyLength();
+    return Varints.length(body) + body;
+  }
+
+  // number of bytes of the record after its length prefix
+  private int bodyLength() {
+    int length = Varints.length(this.boardSize) + Varints.length(this.moves.length)
+            + Varints.length(this.result.black) + Varints.length(this.result.white);
+    for (int move : this.moves) {
+      length += Varints.length(move + 1);
+    }
+    return length;
+  }
+
+  /**
+   * Writes the record with its length prefix at the position of a buffer.
+   *
+   * @param buffer the buffer to write to, which must have encodedLength() bytes remaining
+   */
+  void encode(ByteBuffer buffer) {
+    Varints.put(buffer, this.bodyLength());
+    Varints.put(buffer, this.boardSize);
+    Varints.put(buffer, this.moves.length);
+    for (int move : this.moves) {
+      Varints.put(buffer, move + 1);
+    }
+    Varints.put(buffer, this.result.black);
+    Varints.put(buffer, this.result.white);
+  }
+
+  /**
+   * Reads the record after a length prefix, from the position of a buffer to its limit.
+   *
+   * @param body the bytes of the record after its length prefix
+   * @return the record
+   * @throws IllegalArgumentException if the bytes are not a valid record
+   */
+  static GameRecord decode(ByteBuffer body) throws IllegalArgumentException {
+    try {
+      int boardSize = Varints.get(body);
+      if (boardSize > MAX_BOARD_SIZE) {
+        throw new IllegalArgumentException("Board size is too large.");
+      }
+      int moveCount = Varints.get(body);
+      // every move takes at least one byte, which bounds the count of a corrupt record
+      if (moveCount > body.remaining()) {
+        throw new IllegalArgumentException("Move count is too large.");
+      }
+      int[] moves = new int[moveCount];
+      for (int ply = 0; ply < moveCount; ply++) {
+        moves[ply] = Varints.get(body) - 1;
+      }
+      int black = Varints.get(body);
+      int white = Varints.get(body);
+      if (body.hasRemaining()) {
+        throw new IllegalArgumentException("Record has trailing bytes.");
+      }
+      int cellCount = HexTopology.of(boardSize).getCellCount();
+      return of(boardSize, moves, Score.scoreOf(black, white, cellCount - black - white));
+    }
+    catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Record is truncated.", e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || obj.getClass() != this.getClass()) {
+      return false;
+    }
+    GameRecord other = (GameRecord) obj;
+    return this.boardSize == other.boardSize && Arrays.equals(this.moves, other.moves)
+            && this.result.equals(other.result);
+  }
+
+  @Override
+  public int hashCode() {
+    return (31 * this.boardSize + Arrays.hashCode(this.moves)) * 31 + this.result.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "board size: " + this.boardSize + ", moves: " + this.moves.length + ", result: "
+            + this.result;
+  }
+}
@@ -0,0 +1,180 @@
+package reversi.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records of a record file one at a time, in the order they were written. The file is
+ * read through a buffer of a fixed size, refilled from the file channel as records are read, so
+ * reading a file of any size holds only the buffer and the record being read in memory.<br>
+ * A reader can be used as an Iterable to read the records in a for loop, in which case errors
+ * reading the file are thrown as UncheckedIOException. A reader is meant to be used by one
+ * thread.
+ */
+public final class GameRecordReader implements Closeable, Iterable<GameRecord> {
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final Path file;
+  private final FileChannel channel;
+
+  // bytes read from the file and not decoded yet, between the position and the limit
+  private ByteBuffer buffer;
+
+  // offset in the file of the next record
+  private long offset;
+
+  private GameRecordReader(Path file, FileChannel channel) {
+    this.file = file;
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    this.buffer.flip();
+  }
+
+  /**
+   * Opens a record file to read its records from the start.
+   *
+   * @param file the record file
+   * @return a reader positioned at the first record
+   * @throws IOException if the file can't be opened or is not a record file
+   */
+  public static GameRecordReader open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    GameRecordReader reader = new GameRecordReader(file, channel);
+    try {
+      if (!reader.fill(4) || reader.buffer.getInt() != GameRecordWriter.MAGIC) {
+        throw new IOException("Not a game record file: " + file);
+      }
+      reader.offset = 4;
+      return reader;
+    }
+    catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gives the offset in the file of the record the next call of read() returns.
+   *
+   * @return the offset of the next record in bytes
+   */
+  public long getOffset() {
+    return this.offset;
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the record, or null if every record was read
+   * @throws IOException if the file can't be read, or ends or is corrupt inside a record
+   */
+  public GameRecord read() throws IOException {
+    if (!this.fill(1)) {
+      return null;
+    }
+    int prefix = 0;
+    int length = 0;
+    boolean more = true;
+    while (more) {
+      if (prefix == Varints.MAX_BYTES || !this.fill(prefix + 1)) {
+        throw new IOException("Corrupt record at offset " + this.offset + " of " + this.file);
+      }
+      byte next = this.buffer.get(this.buffer.position() + prefix);
+      length |= (next & 0x7F) << (7 * prefix);
+      more = next < 0;
+      prefix++;
+    }
+    if (length < 0 || length > Integer.MAX_VALUE - prefix) {
+      throw new IOException("Corrupt record at offset " + this.offset + " of " + this.file);
+    }
+    // a corrupt length must not make the buffer grow past what is left of the file
+    if (this.offset + prefix + length > this.channel.size() || !this.fill(prefix + length)) {
+      throw new IOException("Truncated record at offset " + this.offset + " of " + this.file);
+    }
+
+    int start = this.buffer.position() + prefix;
+    ByteBuffer body = this.buffer.duplicate();
+    body.position(start).limit(start + length);
+    GameRecord record;
+    try {
+      record = GameRecord.decode(body);
+    }
+    catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt record at offset " + this.offset + " of " + this.file, e);
+    }
+    this.buffer.position(start + length);
+    this.offset += prefix + length;
+    return record;
+  }
+
+  // reads from the file until the buffer holds the given number of bytes, or false at its end
+  private boolean fill(int needed) throws IOException {
+    if (needed > this.buffer.capacity()) {
+      ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(needed, 2 * this.buffer.capacity()));
+      larger.put(this.buffer).flip();
+      this.buffer = larger;
+    }
+    while (this.buffer.remaining() < needed) {
+      this.buffer.compact();
+      int read = this.channel.read(this.buffer);
+      this.buffer.flip();
+      if (read < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gives an iterator over the records not read yet. Errors reading the file are thrown as
+   * UncheckedIOException.
+   *
+   * @return an iterator reading the remaining records lazily
+   */
+  @Override
+  public Iterator<GameRecord> iterator() {
+    return new Iterator<GameRecord>() {
+      private GameRecord next;
+
+      @Override
+      public boolean hasNext() {
+        if (this.next == null) {
+          try {
+            this.next = GameRecordReader.this.read();
+          }
+          catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        return this.next != null;
+      }
+
+      @Override
+      public GameRecord next() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        GameRecord record = this.next;
+        this.next = null;
+        return record;
+      }
+    };
+  }
+
+  /**
+   * Closes the file.
+   *
+   * @throws IOException if the file can't be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
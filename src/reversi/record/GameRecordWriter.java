@@ -0,0 +1,147 @@
+package reversi.record;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends game records to a record file. A record file starts with the 4 byte magic number,
+ * followed by the records one after the other, each encoded as described in GameRecord.<br>
+ * Records are gathered in a buffer and written to the file channel whenever it fills up, so
+ * writing a record is usually just a few puts into memory. Records only reach the file once the
+ * writer is flushed or closed. A writer is meant to be used by one thread.
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+  /** The first int of every record file. */
+  public static final int MAGIC = 0x48584731;
+
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+
+  private long records;
+
+  private GameRecordWriter(FileChannel channel) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+  }
+
+  /**
+   * Opens a record file to append records to, and creates it if it doesn't exist.
+   *
+   * @param file the record file
+   * @return a writer appending to the end of the file
+   * @throws IOException if the file can't be opened, or exists but is not a record file
+   */
+  public static GameRecordWriter open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+    try {
+      ByteBuffer magic = ByteBuffer.allocate(4);
+      if (channel.size() == 0) {
+        magic.putInt(MAGIC).flip();
+        while (magic.hasRemaining()) {
+          channel.write(magic);
+        }
+      }
+      else {
+        int read = 0;
+        while (magic.hasRemaining() && read >= 0) {
+          read = channel.read(magic, magic.position());
+        }
+        if (magic.hasRemaining() || magic.getInt(0) != MAGIC) {
+          throw new IOException("Not a game record file: " + file);
+        }
+        channel.position(channel.size());
+      }
+      return new GameRecordWriter(channel);
+    }
+    catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Appends a record to the file.
+   *
+   * @param record the record to append
+   * @throws IOException              if the buffered records can't be written
+   * @throws IllegalArgumentException if the record is null
+   */
+  public void write(GameRecord record) throws IOException, IllegalArgumentException {
+    if (record == null) {
+      throw new IllegalArgumentException("Record can't be null.");
+    }
+    int length = record.encodedLength();
+    if (length > this.buffer.remaining()) {
+      this.flush();
+    }
+    if (length > this.buffer.capacity()) {
+      // a record larger than the buffer is written on its own
+      ByteBuffer large = ByteBuffer.allocate(length);
+      record.encode(large);
+      large.flip();
+      this.writeFully(large);
+    }
+    else {
+      record.encode(this.buffer);
+    }
+    this.records++;
+  }
+
+  /**
+   * Gives the number of records appended by this writer.
+   *
+   * @return the record count
+   */
+  public long getRecordCount() {
+    return this.records;
+  }
+
+  /**
+   * Writes the buffered records to the file. If writing fails, the bytes that didn't reach the
+   * file stay buffered, so a later flush or close tries them again.
+   *
+   * @throws IOException if the records can't be written
+   */
+  @Override
+  public void flush() throws IOException {
+    this.buffer.flip();
+    try {
+      this.writeFully(this.buffer);
+    }
+    catch (IOException | RuntimeException e) {
+      // keeps the unwritten bytes at the front of the buffer, ready for more records after them
+      this.buffer.compact();
+      throw e;
+    }
+    this.buffer.clear();
+  }
+
+  private void writeFully(ByteBuffer bytes) throws IOException {
+    while (bytes.hasRemaining()) {
+      this.channel.write(bytes);
+    }
+  }
+
+  /**
+   * Writes the buffered records and closes the file.
+   *
+   * @throws IOException if the records can't be written or the file can't be closed
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    }
+    finally {
+      this.channel.close();
+    }
+  }
+}
@@ -0,0 +1,433 @@
+package reversi.record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.MoveUndo;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * An index of every position reached in the games of an archive, kept in a file that is
+ * memory-mapped instead of loaded, so finding the games that reached a position is a binary
+ * search rather than a scan of the archive.<br>
+ * An index file starts with a 16 byte header: the magic number, a reserved int, and the number of
+ * entries as a long. It is followed by the entries, sorted by position hash and then by game and
+ * ply, each made of the 8 byte hash of a position, the 4 byte id of a game that reached it, and
+ * the 4 byte number of moves played in that game before it. The start position of every game is
+ * included, at ply 0.<br>
+ * Building an index splits the archive into segments of consecutive games, which are replayed on
+ * a bitboard and sorted in parallel, each into a run file of its own. The runs are then merged
+ * into the index file and deleted.
+ */
+public final class PositionIndex {
+  /** The first int of every index file. */
+  public static final int MAGIC = 0x48584931;
+
+  private static final int HEADER_BYTES = 16;
+  private static final int ENTRY_BYTES = 16;
+
+  // entries per mapped piece of the file, so no mapping is larger than a gigabyte
+  private static final int ENTRIES_PER_MAPPING = 1 << 26;
+
+  // bytes of records replayed into one run, which bounds the memory of every build thread
+  private static final long DEFAULT_SEGMENT_BYTES = 1L << 20;
+
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final ByteBuffer[] mappings;
+  private final long size;
+
+  private PositionIndex(ByteBuffer[] mappings, long size) {
+    this.mappings = mappings;
+    this.size = size;
+  }
+
+  /**
+   * Maps an index file into memory.
+   *
+   * @param file the index file
+   * @return the index in the file
+   * @throws IOException if the file can't be read or is not a valid index
+   */
+  public static PositionIndex open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES) {
+        throw new IOException("Not a position index: " + file);
+      }
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      long size = header.getLong(8);
+      if (header.getInt(0) != MAGIC || size < 0 || (length - HEADER_BYTES) / ENTRY_BYTES != size
+              || (length - HEADER_BYTES) % ENTRY_BYTES != 0) {
+        throw new IOException("Not a position index: " + file);
+      }
+      // the mappings stay valid after the channel is closed
+      ByteBuffer[] mappings = new ByteBuffer[(int) ((size + ENTRIES_PER_MAPPING - 1)
+              / ENTRIES_PER_MAPPING)];
+      for (int piece = 0; piece < mappings.length; piece++) {
+        long first = (long) piece * ENTRIES_PER_MAPPING;
+        long entries = Math.min(ENTRIES_PER_MAPPING, size - first);
+        mappings[piece] = channel.map(FileChannel.MapMode.READ_ONLY,
+                HEADER_BYTES + first * ENTRY_BYTES, entries * ENTRY_BYTES);
+      }
+      return new PositionIndex(mappings, size);
+    }
+  }
+
+  /**
+   * Builds the index of an archive, replaying its games on the given number of threads.
+   *
+   * @param archive the archive to index
+   * @param file    the index file to write, which is replaced if it exists
+   * @param threads the number of threads replaying games at the same time
+   * @return the new index
+   * @throws IOException              if the index can't be written, or a game can't be replayed
+   * @throws IllegalArgumentException if the thread count is not positive
+   */
+  public static PositionIndex build(GameArchive archive, Path file, int threads)
+          throws IOException, IllegalArgumentException {
+    return build(archive, file, threads, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Builds the index of an archive, replaying segments of about the given size in parallel.
+   *
+   * @param archive      the archive to index
+   * @param file         the index file to write, which is replaced if it exists
+   * @param threads      the number of threads replaying games at the same time
+   * @param segmentBytes about the number of bytes of records replayed into one run
+   * @return the new index
+   * @throws IOException              if the index can't be written, or a game can't be replayed
+   * @throws IllegalArgumentException if the thread count or segment size is not positive
+   */
+  public static PositionIndex build(GameArchive archive, Path file, int threads, long segmentBytes)
+          throws IOException, IllegalArgumentException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+    if (segmentBytes <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive.");
+    }
+    Path directory = file.toAbsolutePath().getParent();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<Path>> sorting = new ArrayList<>();
+    List<Path> runs = new ArrayList<>();
+    try {
+      int first = 0;
+      while (first < archive.size()) {
+        int end = first + 1;
+        while (end < archive.size()
+                && archive.getOffset(end) - archive.getOffset(first) < segmentBytes) {
+          end++;
+        }
+        int segmentFirst = first;
+        int segmentEnd = end;
+        sorting.add(pool.submit(() -> sortRun(archive, segmentFirst, segmentEnd, directory)));
+        first = end;
+      }
+      for (Future<Path> run : sorting) {
+        runs.add(run.get());
+      }
+      merge(runs, file);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while building the index.", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Building the index failed.", e.getCause());
+    }
+    finally {
+      pool.shutdownNow();
+      deleteRuns(pool, sorting);
+    }
+    return open(file);
+  }
+
+  // waits for the segments still sorting, which a failed build leaves behind, and deletes every
+  // run that was written, so no run outlives the build next to the index file
+  private static void deleteRuns(ExecutorService pool, List<Future<Path>> sorting)
+          throws IOException {
+    boolean interrupted = false;
+    while (!pool.isTerminated()) {
+      try {
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    try {
+      for (Future<Path> run : sorting) {
+        // segments that never started were dropped by shutdownNow(), and wrote no run
+        if (run.isDone() && !run.isCancelled()) {
+          try {
+            Files.deleteIfExists(run.get());
+          }
+          catch (ExecutionException | InterruptedException e) {
+            // a segment that failed deleted its own run
+          }
+        }
+      }
+    }
+    finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // replays a segment of games, and writes the positions they reached to a sorted run file
+  private static Path sortRun(GameArchive archive, int firstGame, int endGame, Path directory)
+          throws IOException {
+    long[] hashes = new long[1024];
+    long[] places = new long[1024];
+    int count = 0;
+    MoveUndo undo = null;
+    int undoCells = 0;
+    for (int gameId = firstGame; gameId < endGame; gameId++) {
+      GameRecord game = archive.getGame(gameId);
+      if (count + game.getMoveCount() + 1 > hashes.length) {
+        int capacity = Math.max(2 * hashes.length, count + game.getMoveCount() + 1);
+        hashes = Arrays.copyOf(hashes, capacity);
+        places = Arrays.copyOf(places, capacity);
+      }
+      BitboardHexReversi board = new BitboardHexReversi(game.getBoardSize());
+      board.startGame();
+      int cellCount = board.getTopology().getCellCount();
+      if (cellCount != undoCells) {
+        undo = new MoveUndo(cellCount);
+        undoCells = cellCount;
+      }
+      hashes[count] = board.getPositionHash();
+      places[count++] = place(gameId, 0);
+      try {
+        for (int ply = 0; ply < game.getMoveCount(); ply++) {
+          int move = game.getMove(ply);
+          if (move == GameRecord.PASS) {
+            board.makePass(undo);
+          }
+          else {
+            board.makeMove(move, undo);
+          }
+          hashes[count] = board.getPositionHash();
+          places[count++] = place(gameId, ply + 1);
+        }
+      }
+      catch (IllegalArgumentException | IllegalStateException e) {
+        throw new IOException("Game " + gameId + " of " + archive.getFile()
+                + " can't be replayed.", e);
+      }
+    }
+    sortByHash(hashes, places, count);
+
+    Path run = Files.createTempFile(directory, "positions", ".run");
+    try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+      for (int entry = 0; entry < count; entry++) {
+        if (buffer.remaining() < ENTRY_BYTES) {
+          writeFully(channel, buffer);
+        }
+        buffer.putLong(hashes[entry]).putLong(places[entry]);
+      }
+      writeFully(channel, buffer);
+    }
+    catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(run);
+      throw e;
+    }
+    return run;
+  }
+
+  // packs a game id and ply into one long, in the order they are written to an entry
+  private static long place(int gameId, int ply) {
+    return ((long) gameId << 32) | (ply & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Sorts entries by hash with a radix sort, a byte at a time from the lowest. The sort is
+   * stable, so entries with the same hash keep the order of their games and plies.
+   *
+   * @param hashes the hash of every entry
+   * @param places the game id and ply of every entry, packed by place()
+   * @param count  the number of entries, at the front of the arrays
+   */
+  private static void sortByHash(long[] hashes, long[] places, int count) {
+    long[] sortedHashes = new long[count];
+    long[] sortedPlaces = new long[count];
+    int[] starts = new int[257];
+    for (int shift = 0; shift < 64; shift += 8) {
+      Arrays.fill(starts, 0);
+      for (int entry = 0; entry < count; entry++) {
+        starts[digit(hashes[entry], shift) + 1]++;
+      }
+      if (starts[digit(hashes[0], shift) + 1] == count) {
+        // every entry has the same byte here, so this pass wouldn't move anything
+        continue;
+      }
+      for (int value = 0; value < 256; value++) {
+        starts[value + 1] += starts[value];
+      }
+      for (int entry = 0; entry < count; entry++) {
+        int target = starts[digit(hashes[entry], shift)]++;
+        sortedHashes[target] = hashes[entry];
+        sortedPlaces[target] = places[entry];
+      }
+      System.arraycopy(sortedHashes, 0, hashes, 0, count);
+      System.arraycopy(sortedPlaces, 0, places, 0, count);
+    }
+  }
+
+  // a byte of a hash, with the sign bit flipped so bytes sort in the signed order of the hashes
+  private static int digit(long hash, int shift) {
+    return (int) (((hash ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+  }
+
+  // merges sorted runs into the index file, taking equal hashes from earlier runs first
+  private static void merge(List<Path> runs, Path file) throws IOException {
+    PriorityQueue<RunCursor> cursors = new PriorityQueue<>();
+    for (int run = 0; run < runs.size(); run++) {
+      try (FileChannel channel = FileChannel.open(runs.get(run), StandardOpenOption.READ)) {
+        ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (entries.hasRemaining()) {
+          cursors.add(new RunCursor(entries, run));
+        }
+      }
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+      buffer.position(HEADER_BYTES);
+      long size = 0;
+      while (!cursors.isEmpty()) {
+        RunCursor cursor = cursors.poll();
+        if (buffer.remaining() < ENTRY_BYTES) {
+          writeFully(channel, buffer);
+        }
+        buffer.putLong(cursor.hash).putLong(cursor.entries.getLong());
+        size++;
+        if (cursor.advance()) {
+          cursors.add(cursor);
+        }
+      }
+      writeFully(channel, buffer);
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(0).putLong(size);
+      channel.position(0);
+      writeFully(channel, header);
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Gives the number of positions in the index, counting a position once for every time it was
+   * reached.
+   *
+   * @return the entry count
+   */
+  public long size() {
+    return this.size;
+  }
+
+  /**
+   * Finds every place in the archive where the position with the given hash was reached.
+   *
+   * @param positionHash the hash of the position
+   * @return the games and plies where the position was reached, by game and then ply, which is
+   *         empty if it never was
+   */
+  public List<PositionMatch> lookup(long positionHash) {
+    // binary search for the first entry with a hash at least the one looked for
+    long low = 0;
+    long high = this.size;
+    while (low < high) {
+      long middle = (low + high) >>> 1;
+      if (this.hashAt(middle) < positionHash) {
+        low = middle + 1;
+      }
+      else {
+        high = middle;
+      }
+    }
+    List<PositionMatch> matches = new ArrayList<>();
+    for (long entry = low; entry < this.size && this.hashAt(entry) == positionHash; entry++) {
+      ByteBuffer mapping = this.mappings[(int) (entry / ENTRIES_PER_MAPPING)];
+      int offset = (int) (entry % ENTRIES_PER_MAPPING) * ENTRY_BYTES;
+      matches.add(new PositionMatch(mapping.getInt(offset + 8), mapping.getInt(offset + 12)));
+    }
+    return matches;
+  }
+
+  /**
+   * Finds every place in the archive where the current position of a game was reached.
+   *
+   * @param position a started game in the position to look for
+   * @return the games and plies where the position was reached, by game and then ply
+   * @throws IllegalStateException if the game hasn't started yet
+   */
+  public List<PositionMatch> lookup(ReadonlyReversi position) throws IllegalStateException {
+    return this.lookup(position.getPositionHash());
+  }
+
+  private long hashAt(long entry) {
+    return this.mappings[(int) (entry / ENTRIES_PER_MAPPING)]
+            .getLong((int) (entry % ENTRIES_PER_MAPPING) * ENTRY_BYTES);
+  }
+
+  /**
+   * The next entry of a run being merged.
+   */
+  private static final class RunCursor implements Comparable<RunCursor> {
+    // the entries of the run, positioned after the hash of the current entry
+    private final ByteBuffer entries;
+    private final int run;
+    private long hash;
+
+    RunCursor(ByteBuffer entries, int run) {
+      this.entries = entries;
+      this.run = run;
+      this.hash = entries.getLong();
+    }
+
+    // moves to the next entry once the place of the current one was read, or false at the end
+    boolean advance() {
+      if (!this.entries.hasRemaining()) {
+        return false;
+      }
+      this.hash = this.entries.getLong();
+      return true;
+    }
+
+    @Override
+    public int compareTo(RunCursor other) {
+      int order = Long.compare(this.hash, other.hash);
+      return (order != 0) ? order : Integer.compare(this.run, other.run);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package reversi.record;
+
+/**
+ * A place in an archive where a position was reached: the game, and the number of moves played
+ * in it before the position.
+ */
+public final class PositionMatch {
+  public final int gameId;
+  public final int ply;
+
+  /**
+   * Creates a match.
+   *
+   * @param gameId the id of the game in its archive
+   * @param ply    the number of moves played before the position, counting passes
+   */
+  public PositionMatch(int gameId, int ply) {
+    this.gameId = gameId;
+    this.ply = ply;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || obj.getClass() != this.getClass()) {
+      return false;
+    }
+    PositionMatch other = (PositionMatch) obj;
+    return this.gameId == other.gameId && this.ply == other.ply;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.gameId + this.ply;
+  }
+
+  @Override
+  public String toString() {
+    return "game: " + this.gameId + ", ply: " + this.ply;
+  }
+}
@@ -0,0 +1,68 @@
+package reversi.record;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads non-negative ints as variable-length quantities: seven bits per byte, least
+ * significant first, with the high bit of every byte but the last set. Numbers below 128 take a
+ * single byte, which is every cell index of boards up to size 7.
+ */
+final class Varints {
+  /** The most bytes a varint of an int can take. */
+  static final int MAX_BYTES = 5;
+
+  private Varints() {
+  }
+
+  /**
+   * Gives the number of bytes a value takes.
+   *
+   * @param value a non-negative value
+   * @return the length of its varint, from 1 to MAX_BYTES
+   */
+  static int length(int value) {
+    int length = 1;
+    while ((value >>>= 7) != 0) {
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * Writes a value at the position of a buffer and moves the position past it.
+   *
+   * @param buffer the buffer to write to
+   * @param value  a non-negative value
+   */
+  static void put(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Reads a value at the position of a buffer and moves the position past it.
+   *
+   * @param buffer the buffer to read from
+   * @return the value read
+   * @throws IllegalArgumentException if the bytes are not a varint of an int
+   * @throws BufferUnderflowException if the buffer ends inside the varint
+   */
+  static int get(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+    int value = 0;
+    for (int shift = 0; shift < 7 * MAX_BYTES; shift += 7) {
+      byte next = buffer.get();
+      value |= (next & 0x7F) << shift;
+      if (next >= 0) {
+        if (value < 0) {
+          throw new IllegalArgumentException("Varint out of range.");
+        }
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Varint is too long.");
+  }
+}
@@ -0,0 +1,285 @@
+package reversi.strategy;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+
+/**
+ * One alpha-beta (negamax) search over a single board, which is changed by making and taking
+ * back moves so no positions are copied. Every buffer the search needs is allocated when the
+ * search is created, so searching itself does not allocate. A search is used by one thread only.
+ * <br>
+ * When given a transposition table, the search stores the result of every position it finishes,
+ * and uses stored results to cut off positions it reaches again and to search their best move
+ * first. A result whose subtree was searched to the end of every line is stored with the largest
+ * depth, since searching it deeper could not change it.
+ */
+final class AlphaBetaSearch {
+  // how many nodes are visited between checks of the clock
+  private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+  // depth stored for results that are exact to the end of the game
+  private static final int EXHAUSTIVE_DEPTH = 255;
+
+  private final BitboardHexReversi board;
+  private final Evaluation evaluation;
+  private final TranspositionTable table;
+  private final long deadlineNanos;
+
+  // one move buffer and undo record for each ply
+  private final int[][] moveBuffers;
+  private final MoveUndo[] undos;
+
+  private long nodes;
+  private boolean aborted;
+
+  // set by another thread to abandon the search before its deadline
+  private volatile boolean stopRequested;
+
+  // true if the last iteration reached a position cut off by the depth limit
+  private boolean hitDepthLimit;
+
+  /**
+   * Creates a search over the given board.
+   *
+   * @param board         the board to search, which is changed during the search but restored
+   *                      afterwards
+   * @param table         the table to share results through, or null to search without one
+   * @param deadlineNanos the System.nanoTime() value at which the search is abandoned, which it
+   *                      also is if the thread running it is interrupted
+   */
+  AlphaBetaSearch(BitboardHexReversi board, TranspositionTable table, long deadlineNanos) {
+    this.board = board;
+    this.evaluation = new Evaluation(board.getTopology());
+    this.table = table;
+    this.deadlineNanos = deadlineNanos;
+    int cellCount = board.getTopology().getCellCount();
+    // every ply either fills a cell or passes, and two passes in a row end the game
+    int maxPly = 2 * cellCount + 2;
+    this.moveBuffers = new int[maxPly][cellCount];
+    this.undos = new MoveUndo[maxPly];
+    for (int ply = 0; ply < maxPly; ply++) {
+      this.undos[ply] = new MoveUndo(cellCount);
+    }
+  }
+
+  /**
+   * Gives the board being searched.
+   *
+   * @return the board, which is only in its starting position between iterations
+   */
+  BitboardHexReversi getBoard() {
+    return this.board;
+  }
+
+  /**
+   * Gives the number of positions visited so far.
+   *
+   * @return the node count
+   */
+  long getNodes() {
+    return this.nodes;
+  }
+
+  /**
+   * Asks the search to abandon its current iteration as if its deadline had passed. Can be
+   * called from any thread. Interrupting the thread running the search does the same.
+   */
+  void stop() {
+    this.stopRequested = true;
+  }
+
+  /**
+   * Returns whether the last iteration was abandoned because time ran out or it was stopped.
+   *
+   * @return true if the search was aborted
+   */
+  boolean isAborted() {
+    return this.aborted;
+  }
+
+  /**
+   * Returns whether the last completed iteration saw the end of every line, in which case
+   * searching deeper cannot change the result.
+   *
+   * @return true if no line was cut off by the depth limit
+   */
+  boolean isExhaustive() {
+    return !this.hitDepthLimit;
+  }
+
+  /**
+   * Sorts moves so the most valuable cells are searched first, which makes cutoffs more likely.
+   *
+   * @param moves the cells to sort
+   * @param count the number of moves in the array
+   */
+  void orderMoves(int[] moves, int count) {
+    for (int index = 1; index < count; index++) {
+      int move = moves[index];
+      int weight = this.evaluation.weight(move);
+      int slot = index - 1;
+      while (slot >= 0 && this.evaluation.weight(moves[slot]) < weight) {
+        moves[slot + 1] = moves[slot];
+        slot--;
+      }
+      moves[slot + 1] = move;
+    }
+  }
+
+  /**
+   * Searches every root move to the given depth. The root moves are reordered so the best move
+   * found is first, which makes it the first move searched by the next deeper iteration.
+   *
+   * @param depth     the number of plies to search
+   * @param rootMoves the legal moves of the player to move, at least one
+   * @param count     the number of root moves
+   * @param checkTime false to always complete the iteration, regardless of the deadline
+   * @return the score of the best move, which is only meaningful if the search was not aborted
+   */
+  int searchRoot(int depth, int[] rootMoves, int count, boolean checkTime) {
+    this.aborted = false;
+    this.hitDepthLimit = false;
+    int alpha = -Integer.MAX_VALUE;
+    int bestIndex = 0;
+    for (int index = 0; index < count; index++) {
+      this.board.makeMove(rootMoves[index], this.undos[0]);
+      int score = -this.search(depth - 1, -Integer.MAX_VALUE, -alpha, 1, checkTime);
+      this.board.unmakeMove(this.undos[0]);
+      if (this.aborted) {
+        return alpha;
+      }
+      if (score > alpha) {
+        alpha = score;
+        bestIndex = index;
+      }
+    }
+    int best = rootMoves[bestIndex];
+    System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+    rootMoves[0] = best;
+    if (this.table != null) {
+      this.table.store(this.board.getPositionHash(), this.storedDepth(depth),
+              TranspositionTable.EXACT, alpha, best);
+    }
+    return alpha;
+  }
+
+  private int search(int depth, int alpha, int beta, int ply, boolean checkTime) {
+    this.nodes++;
+    if (checkTime && (this.nodes % CLOCK_CHECK_INTERVAL) == 0
+            && (this.stopRequested || System.nanoTime() - this.deadlineNanos > 0
+            || Thread.currentThread().isInterrupted())) {
+      this.aborted = true;
+    }
+    if (this.aborted) {
+      return 0;
+    }
+
+    PlayerPiece player = this.board.getCurrentPlayer();
+    int[] moves = this.moveBuffers[ply];
+    int count = this.board.legalMoves(player, moves);
+    if (count == 0) {
+      // two passes in a row, or neither player having a move, ends the game
+      if (this.board.getConsecutivePasses() > 0
+              || !this.board.canPlayerMove(Evaluation.opponent(player))) {
+        return Evaluation.finalScore(this.board, player);
+      }
+      if (depth <= 0) {
+        this.hitDepthLimit = true;
+        return this.evaluation.evaluate(this.board, player);
+      }
+      this.board.makePass(this.undos[ply]);
+      int score = -this.search(depth - 1, -beta, -alpha, ply + 1, checkTime);
+      this.board.unmakeMove(this.undos[ply]);
+      return score;
+    }
+    if (depth <= 0) {
+      this.hitDepthLimit = true;
+      return this.evaluation.evaluate(this.board, player);
+    }
+
+    long key = this.board.getPositionHash();
+    int tableMove = TranspositionTable.NO_MOVE;
+    if (this.table != null) {
+      long entry = this.table.probe(key);
+      if (entry != TranspositionTable.MISS) {
+        tableMove = TranspositionTable.bestMove(entry);
+        int entryDepth = TranspositionTable.depth(entry);
+        if (entryDepth >= depth || entryDepth == EXHAUSTIVE_DEPTH) {
+          int score = TranspositionTable.score(entry);
+          int bound = TranspositionTable.bound(entry);
+          if (bound == TranspositionTable.LOWER_BOUND) {
+            alpha = Math.max(alpha, score);
+          }
+          else if (bound == TranspositionTable.UPPER_BOUND) {
+            beta = Math.min(beta, score);
+          }
+          if (bound == TranspositionTable.EXACT || alpha >= beta) {
+            if (entryDepth < EXHAUSTIVE_DEPTH) {
+              this.hitDepthLimit = true;
+            }
+            return score;
+          }
+        }
+      }
+    }
+
+    this.orderMoves(moves, count);
+    if (tableMove != TranspositionTable.NO_MOVE) {
+      moveToFront(moves, count, tableMove);
+    }
+    // track whether this subtree alone hit the depth limit, to know the depth of its result
+    boolean outerHitDepthLimit = this.hitDepthLimit;
+    this.hitDepthLimit = false;
+    int alphaBefore = alpha;
+    int best = -Integer.MAX_VALUE;
+    int bestMove = moves[0];
+    for (int index = 0; index < count; index++) {
+      this.board.makeMove(moves[index], this.undos[ply]);
+      int score = -this.search(depth - 1, -beta, -alpha, ply + 1, checkTime);
+      this.board.unmakeMove(this.undos[ply]);
+      if (this.aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = moves[index];
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+      if (alpha >= beta) {
+        break;
+      }
+    }
+
+    if (this.table != null) {
+      int bound = TranspositionTable.EXACT;
+      if (best <= alphaBefore) {
+        bound = TranspositionTable.UPPER_BOUND;
+      }
+      else if (best >= beta) {
+        bound = TranspositionTable.LOWER_BOUND;
+      }
+      this.table.store(key, this.storedDepth(depth), bound, best, bestMove);
+    }
+    this.hitDepthLimit |= outerHitDepthLimit;
+    return best;
+  }
+
+  // depth to store a result with, given whether its subtree hit the depth limit
+  private int storedDepth(int depth) {
+    return this.hitDepthLimit ? Math.min(depth, EXHAUSTIVE_DEPTH - 1) : EXHAUSTIVE_DEPTH;
+  }
+
+  // moves a cell to the front of the moves, keeping the order of the others
+  private static void moveToFront(int[] moves, int count, int move) {
+    for (int index = 0; index < count; index++) {
+      if (moves[index] == move) {
+        System.arraycopy(moves, 0, moves, 1, index);
+        moves[0] = move;
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package reversi.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * Strategy that looks ahead with an alpha-beta search, using iterative deepening under a
+ * wall-clock budget per move. The search first looks one move ahead, then two, and so on, and
+ * when the budget runs out it returns the best move of the deepest search that was completed.
+ * Interrupting the thread that asked for the move ends the search the same way.
+ * Positions are scored by the piece and mobility heuristic of Evaluation, or by the final score
+ * when the search reaches the end of the game.<br>
+ * The search runs on a bit set copy of the model's board, so the model itself is never changed.
+ * It can be given a TranspositionTable, which it keeps between moves so results from the search
+ * for one move help the searches for later ones. The statistics of the last search are available
+ * through getLastSearchStats().<br>
+ * With more than one thread the strategy searches in parallel the "lazy SMP" way: every thread
+ * searches the whole position on its own board copy, and the threads only cooperate through the
+ * shared transposition table. Every other helper thread starts one ply deeper, and helpers try
+ * the root moves in a rotated order, so they fill the table with results the other threads have
+ * not reached yet. The move played is the one from the deepest search any thread completed.<br>
+ * A strategy with a transposition table can ponder: while the opponent decides, one background
+ * thread searches the opponent's position into the table with no deadline. That search fills
+ * the table with results for the replies to every opponent move, deepest for the moves it
+ * expects, so the search for the next move starts from those results instead of from scratch.
+ * Asking for a move stops pondering first.
+ */
+public class AlphaBetaStrategy implements PonderingStrategy, TimedStrategy {
+  // how long pondering may go on, which in practice is until it is stopped
+  private static final long PONDER_NANOS = Long.MAX_VALUE / 2;
+
+  private final long timeBudgetMillis;
+  private final int maxDepth;
+  private final TranspositionTable table;
+  private final int threads;
+
+  // runs the helper searches, created on the first parallel search
+  private ExecutorService helperPool;
+
+  // runs the pondering search, created on the first call to ponder()
+  private ExecutorService ponderPool;
+
+  // the pondering search and its run, or null while the strategy isn't pondering
+  private AlphaBetaSearch ponderSearch;
+  private Future<?> ponderRun;
+
+  private volatile SearchStats lastSearchStats;
+  private volatile SearchStats lastPonderStats;
+
+  /**
+   * Creates an alpha-beta strategy that searches as deep as it can within the time budget.
+   *
+   * @param timeBudgetMillis the wall-clock time each move may take, in milliseconds
+   * @throws IllegalArgumentException if the budget is not positive
+   */
+  public AlphaBetaStrategy(long timeBudgetMillis) throws IllegalArgumentException {
+    this(timeBudgetMillis, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates an alpha-beta strategy that searches at most maxDepth plies deep within the time
+   * budget.
+   *
+   * @param timeBudgetMillis the wall-clock time each move may take, in milliseconds
+   * @param maxDepth         the deepest search depth in plies
+   * @throws IllegalArgumentException if the budget or the depth is not positive
+   */
+  public AlphaBetaStrategy(long timeBudgetMillis, int maxDepth) throws IllegalArgumentException {
+    this(timeBudgetMillis, maxDepth, null);
+  }
+
+  /**
+   * Creates an alpha-beta strategy that searches at most maxDepth plies deep within the time
+   * budget, and remembers the positions it searched in the given table.
+   *
+   * @param timeBudgetMillis the wall-clock time each move may take, in milliseconds
+   * @param maxDepth         the deepest search depth in plies
+   * @param table            the transposition table to use, or null to search without one
+   * @throws IllegalArgumentException if the budget or the depth is not positive
+   */
+  public AlphaBetaStrategy(long timeBudgetMillis, int maxDepth, TranspositionTable table)
+          throws IllegalArgumentException {
+    this(timeBudgetMillis, maxDepth, table, 1);
+  }
+
+  /**
+   * Creates an alpha-beta strategy that searches each move with the given number of threads,
+   * which share the given table.
+   *
+   * @param timeBudgetMillis the wall-clock time each move may take, in milliseconds
+   * @param maxDepth         the deepest search depth in plies
+   * @param table            the transposition table to use, or null to search without one
+   * @param threads          the number of threads searching each move
+   * @throws IllegalArgumentException if the budget, depth or thread count is not positive, or if
+   *                                  several threads are asked for without a table to share
+   */
+  public AlphaBetaStrategy(long timeBudgetMillis, int maxDepth, TranspositionTable table,
+                           int threads) throws IllegalArgumentException {
+    if (timeBudgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive.");
+    }
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+    if (threads > 1 && table == null) {
+      throw new IllegalArgumentException("Parallel search needs a transposition table.");
+    }
+    this.timeBudgetMillis = timeBudgetMillis;
+    this.maxDepth = maxDepth;
+    this.table = table;
+    this.threads = threads;
+  }
+
+  @Override
+  public long getTimeBudgetMillis() {
+    return this.timeBudgetMillis;
+  }
+
+  /**
+   * Searches for the best move for the given player within the time budget. At least a one ply
+   * search is always completed, even if it takes longer than the budget.
+   *
+   * @param model   the model in which the move will be made.
+   * @param forWhom the player in the model whose is moving.
+   * @return the best move found, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom) {
+    return this.chooseMove(model, forWhom, System.nanoTime() + this.timeBudgetMillis * 1_000_000);
+  }
+
+  /**
+   * Searches for the best move for the given player until the deadline. At least a one ply
+   * search is always completed, even if it ends after the deadline.
+   *
+   * @param model         the model in which the move will be made.
+   * @param forWhom       the player in the model whose is moving.
+   * @param deadlineNanos the System.nanoTime() value by which the move should be chosen
+   * @return the best move found, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom, long deadlineNanos) {
+    this.stopPondering();
+    long start = System.nanoTime();
+    if (!model.canPlayerMove(forWhom)) {
+      return null;
+    }
+    BitboardHexReversi board = BitboardHexReversi.copyOf(model, forWhom);
+    int depthLimit = Math.min(this.maxDepth, 2 * board.getTopology().getCellCount());
+    BestResult result = new BestResult();
+
+    List<AlphaBetaSearch> helpers = new ArrayList<>();
+    List<Future<?>> helperRuns = new ArrayList<>();
+    for (int worker = 1; worker < this.threads; worker++) {
+      AlphaBetaSearch helper = new AlphaBetaSearch(BitboardHexReversi.copyOf(model, forWhom),
+              this.table, deadlineNanos);
+      int helperWorker = worker;
+      helpers.add(helper);
+      helperRuns.add(this.helperPool().submit(
+          () -> iterate(helper, helperWorker, depthLimit, result)));
+    }
+
+    AlphaBetaSearch main = new AlphaBetaSearch(board, this.table, deadlineNanos);
+    try {
+      iterate(main, 0, depthLimit, result);
+    }
+    finally {
+      // the main search decides when the move is done, whatever the helpers are doing
+      for (AlphaBetaSearch helper : helpers) {
+        helper.stop();
+      }
+      for (Future<?> run : helperRuns) {
+        HelperThreads.await(run);
+      }
+    }
+    long nodes = main.getNodes();
+    for (AlphaBetaSearch helper : helpers) {
+      nodes += helper.getNodes();
+    }
+
+    this.lastSearchStats = new SearchStats(nodes, result.getDepth(), System.nanoTime() - start);
+    return board.getTopology().coordOf(result.getMove());
+  }
+
+  /**
+   * Starts searching the position the opponent is to move in on a background thread, storing
+   * everything it finds in the transposition table. Does nothing without a table, since nothing
+   * found would be kept, or if the opponent can't move.
+   *
+   * @param model    the model in which the opponent is about to move
+   * @param opponent the player whose turn it is in the model
+   */
+  @Override
+  public synchronized void ponder(ReadonlyReversi model, PlayerPiece opponent) {
+    this.stopPondering();
+    if (this.table == null || model.isGameOver() || !model.canPlayerMove(opponent)) {
+      return;
+    }
+    long start = System.nanoTime();
+    BitboardHexReversi board = BitboardHexReversi.copyOf(model, opponent);
+    int depthLimit = Math.min(this.maxDepth, 2 * board.getTopology().getCellCount());
+    AlphaBetaSearch search = new AlphaBetaSearch(board, this.table, start + PONDER_NANOS);
+    this.ponderSearch = search;
+    this.ponderRun = this.ponderPool().submit(() -> {
+      BestResult result = new BestResult();
+      iterate(search, 0, depthLimit, result);
+      this.lastPonderStats = new SearchStats(search.getNodes(), result.getDepth(),
+              System.nanoTime() - start);
+    });
+  }
+
+  @Override
+  public synchronized void stopPondering() {
+    if (this.ponderRun == null) {
+      return;
+    }
+    this.ponderSearch.stop();
+    HelperThreads.await(this.ponderRun);
+    this.ponderSearch = null;
+    this.ponderRun = null;
+  }
+
+  /**
+   * Runs iterative deepening on one search until its time runs out, it is stopped, or searching
+   * deeper cannot change the result, and offers the best move of every completed iteration to
+   * the result. Worker 0 always completes its first iteration, so some move is always found.
+   */
+  private static void iterate(AlphaBetaSearch search, int worker, int depthLimit,
+                              BestResult result) {
+    BitboardHexReversi board = search.getBoard();
+    int[] rootMoves = new int[board.getTopology().getCellCount()];
+    int count = board.legalMoves(board.getCurrentPlayer(), rootMoves);
+    search.orderMoves(rootMoves, count);
+    if (worker > 0 && count > 2) {
+      // keep the most promising move first, and spread the helpers over the others
+      rotate(rootMoves, 1, count, worker % (count - 1));
+    }
+
+    int firstDepth = Math.min(depthLimit, 1 + worker % 2);
+    for (int depth = firstDepth; depth <= depthLimit; depth++) {
+      search.searchRoot(depth, rootMoves, count, worker > 0 || depth > 1);
+      if (search.isAborted()) {
+        return;
+      }
+      result.offer(depth, rootMoves[0]);
+      if (count == 1 || search.isExhaustive()) {
+        return;
+      }
+    }
+  }
+
+  // rotates moves[from, to) left by the given distance
+  private static void rotate(int[] moves, int from, int to, int distance) {
+    for (int step = 0; step < distance; step++) {
+      int first = moves[from];
+      System.arraycopy(moves, from + 1, moves, from, to - from - 1);
+      moves[to - 1] = first;
+    }
+  }
+
+  private synchronized ExecutorService ponderPool() {
+    if (this.ponderPool == null) {
+      this.ponderPool = HelperThreads.newPool("alpha-beta-ponder", 1);
+    }
+    return this.ponderPool;
+  }
+
+  private synchronized ExecutorService helperPool() {
+    if (this.helperPool == null) {
+      this.helperPool = HelperThreads.newPool("alpha-beta", this.threads - 1);
+    }
+    return this.helperPool;
+  }
+
+  /**
+   * Gives the statistics of the last completed call to chooseMove().
+   *
+   * @return the last search's statistics, or null if no search was made yet
+   */
+  public SearchStats getLastSearchStats() {
+    return this.lastSearchStats;
+  }
+
+  /**
+   * Gives the statistics of the last pondering search that was stopped or ran out of work, where
+   * the depth is the deepest iteration it completed.
+   *
+   * @return the last pondering search's statistics, or null if the strategy never pondered
+   */
+  public SearchStats getLastPonderStats() {
+    return this.lastPonderStats;
+  }
+
+  /**
+   * The best move of the deepest iteration completed by any of the threads searching a move.
+   */
+  private static final class BestResult {
+    private int depth;
+    private int move;
+
+    synchronized void offer(int depth, int move) {
+      if (depth > this.depth) {
+        this.depth = depth;
+        this.move = move;
+      }
+    }
+
+    synchronized int getDepth() {
+      return this.depth;
+    }
+
+    synchronized int getMove() {
+      return this.move;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package reversi.strategy;
+
+import reversi.model.Coord;
+import reversi.model.HexTopology;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * Strategy that plays the move from an opening book while the game is still in the book, and
+ * asks the strategy it wraps for the move once it is not. Looking up a move takes a binary search
+ * of the book, so book moves are played almost instantly. Pondering and deadlines are passed on
+ * to the wrapped strategy.
+ */
+public class BookStrategy implements PonderingStrategy, TimedStrategy {
+  private final OpeningBook book;
+  private final ReversiStrategy fallback;
+
+  /**
+   * Creates a book strategy around another strategy.
+   *
+   * @param book     the opening book to play from
+   * @param fallback the strategy that chooses moves outside the book
+   * @throws IllegalArgumentException if the book or the fallback is null
+   */
+  public BookStrategy(OpeningBook book, ReversiStrategy fallback)
+          throws IllegalArgumentException {
+    if (book == null || fallback == null) {
+      throw new IllegalArgumentException("Book and fallback strategy can't be null.");
+    }
+    this.book = book;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Chooses the book move if the position is in the book, or the fallback strategy's move.
+   *
+   * @param model   the model in which the move will be made.
+   * @param forWhom the player in the model whose is moving.
+   * @return the chosen move, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom) {
+    Coord move = this.bookMove(model, forWhom);
+    return (move != null) ? move : this.fallback.chooseMove(model, forWhom);
+  }
+
+  /**
+   * Gives the fallback's time budget, since book moves take no time worth counting.
+   *
+   * @return the fallback's budget if it is a TimedStrategy, or 0 otherwise
+   */
+  @Override
+  public long getTimeBudgetMillis() {
+    if (this.fallback instanceof TimedStrategy) {
+      return ((TimedStrategy) this.fallback).getTimeBudgetMillis();
+    }
+    return 0;
+  }
+
+  /**
+   * Chooses the book move if the position is in the book, or the fallback strategy's move, chosen
+   * by the deadline if the fallback is a TimedStrategy.
+   *
+   * @param model         the model in which the move will be made.
+   * @param forWhom       the player in the model whose is moving.
+   * @param deadlineNanos the System.nanoTime() value by which the move should be chosen
+   * @return the chosen move, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom, long deadlineNanos) {
+    Coord move = this.bookMove(model, forWhom);
+    if (move != null) {
+      return move;
+    }
+    if (this.fallback instanceof TimedStrategy) {
+      return ((TimedStrategy) this.fallback).chooseMove(model, forWhom, deadlineNanos);
+    }
+    return this.fallback.chooseMove(model, forWhom);
+  }
+
+  // the legal book move for the position, or null if it is not in the book
+  private Coord bookMove(ReadonlyReversi model, PlayerPiece forWhom) {
+    this.stopPondering();
+    HexTopology topology = HexTopology.ofHeight(model.getBoardHeight());
+    if (topology.getBoardSize() == this.book.getBoardSize()
+            && model.getCurrentPlayer() == forWhom) {
+      int cell = this.book.lookup(model.getPositionHash());
+      if (cell >= 0 && cell < topology.getCellCount()) {
+        Coord move = topology.coordOf(cell);
+        // a hash collision can't make the book play an illegal move
+        if (model.isMoveLegal(forWhom, move)) {
+          return move;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Passes pondering on to the wrapped strategy, if it can ponder.
+   *
+   * @param model    the model in which the opponent is about to move
+   * @param opponent the player whose turn it is in the model
+   */
+  @Override
+  public void ponder(ReadonlyReversi model, PlayerPiece opponent) {
+    if (this.fallback instanceof PonderingStrategy) {
+      ((PonderingStrategy) this.fallback).ponder(model, opponent);
+    }
+  }
+
+  @Override
+  public void stopPondering() {
+    if (this.fallback instanceof PonderingStrategy) {
+      ((PonderingStrategy) this.fallback).stopPondering();
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package reversi.strategy;
+
+import java.util.Arrays;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.HexTopology;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+
+/**
+ * An exact search of the rest of a game, which finds the final disc differential both players
+ * can force from a position. It searches every line to the end of the game with alpha-beta
+ * pruning, so it is only feasible when few cells are empty.<br>
+ * Two move ordering rules make the pruning effective. Moves into regions of the board with an
+ * odd number of empty cells are searched first, since the player who moves last in a region
+ * usually keeps its cells (parity). Among those, moves that leave the opponent the fewest replies
+ * are searched first, since they lead to the smallest subtrees (fastest-first). Fastest-first is
+ * only used with enough empty cells to pay for counting the replies.<br>
+ * A game ends when both players pass in a row, as in the models, and a player without moves
+ * passes. Like AlphaBetaSearch, the solver changes a single board by making and taking back
+ * moves, allocates its buffers up front, and is used by one thread only.
+ */
+final class EndgameSolver {
+  // how many nodes are visited between checks of the clock
+  private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+  // the fewest empty cells at which counting replies for fastest-first ordering pays off
+  private static final int FASTEST_FIRST_MIN_EMPTIES = 7;
+
+  private final BitboardHexReversi board;
+  private final long deadlineNanos;
+
+  // neighbors of each cell, for finding the regions of empty cells
+  private final int[][] neighbors;
+
+  // the cells that were empty when the solve started, which are the only cells moves can go to
+  private final int[] empties;
+  private final int emptyCount;
+
+  // one buffer of moves, ordering keys and an undo record for each ply
+  private final int[][] moveBuffers;
+  private final int[][] keyBuffers;
+  private final MoveUndo[] undos;
+
+  // undo record for trying a move while ordering moves
+  private final MoveUndo probe;
+
+  // scratch space for marking the region of every empty cell
+  private final int[] regionStamp;
+  private final boolean[] oddRegion;
+  private final int[] regionCells;
+  private int stamp;
+
+  private long nodes;
+  private boolean aborted;
+  private int rootScore;
+
+  /**
+   * Creates a solver for the position of the given board.
+   *
+   * @param board         the board to solve, which is changed during the solve but restored
+   *                      afterwards
+   * @param deadlineNanos the System.nanoTime() value at which the solve is abandoned, which it
+   *                      also is if the thread running it is interrupted
+   */
+  EndgameSolver(BitboardHexReversi board, long deadlineNanos) {
+    this.board = board;
+    this.deadlineNanos = deadlineNanos;
+    HexTopology topology = board.getTopology();
+    int cellCount = topology.getCellCount();
+
+    this.neighbors = new int[cellCount][];
+    this.empties = new int[cellCount];
+    int count = 0;
+    for (int cell = 0; cell < cellCount; cell++) {
+      int[] adjacent = new int[HexTopology.DIRECTIONS];
+      int found = 0;
+      for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+        int[] ray = topology.ray(cell, dir);
+        if (ray.length > 0) {
+          adjacent[found++] = ray[0];
+        }
+      }
+      this.neighbors[cell] = Arrays.copyOf(adjacent, found);
+      if (board.getPlayerAtCell(cell) == PlayerPiece.EMPTY) {
+        this.empties[count++] = cell;
+      }
+    }
+    this.emptyCount = count;
+
+    // every ply either fills a cell or passes, and two passes in a row end the game
+    int maxPly = 2 * count + 2;
+    this.moveBuffers = new int[maxPly][count];
+    this.keyBuffers = new int[maxPly][count];
+    this.undos = new MoveUndo[maxPly];
+    for (int ply = 0; ply < maxPly; ply++) {
+      this.undos[ply] = new MoveUndo(cellCount);
+    }
+    this.probe = new MoveUndo(cellCount);
+    this.regionStamp = new int[cellCount];
+    this.oddRegion = new boolean[cellCount];
+    this.regionCells = new int[cellCount];
+  }
+
+  /**
+   * Gives the number of empty cells the solve started with.
+   *
+   * @return the empty cell count
+   */
+  int getEmptyCount() {
+    return this.emptyCount;
+  }
+
+  /**
+   * Gives the number of positions visited so far.
+   *
+   * @return the node count
+   */
+  long getNodes() {
+    return this.nodes;
+  }
+
+  /**
+   * Returns whether the solve was abandoned because time ran out.
+   *
+   * @return true if the solve was aborted
+   */
+  boolean isAborted() {
+    return this.aborted;
+  }
+
+  /**
+   * Solves the position for the player to move, who must have at least one legal move.
+   *
+   * @param rootMoves a buffer for the root moves, which is reordered so the best move is first
+   * @return the number of root moves, or 0 if the player has no moves
+   */
+  int solveRoot(int[] rootMoves) {
+    int count = this.generateMoves(rootMoves);
+    this.orderMoves(rootMoves, this.keyBuffers[0], count, this.emptyCount);
+    int alpha = -Integer.MAX_VALUE;
+    int bestIndex = 0;
+    for (int index = 0; index < count; index++) {
+      this.board.makeMove(rootMoves[index], this.undos[0]);
+      int score = -this.solve(-Integer.MAX_VALUE, -alpha, 1, this.emptyCount - 1);
+      this.board.unmakeMove(this.undos[0]);
+      if (this.aborted) {
+        return count;
+      }
+      if (score > alpha) {
+        alpha = score;
+        bestIndex = index;
+      }
+    }
+    int best = rootMoves[bestIndex];
+    System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+    rootMoves[0] = best;
+    this.rootScore = alpha;
+    return count;
+  }
+
+  /**
+   * Gives the exact final disc differential of the last completed solveRoot(), for the player who
+   * was to move.
+   *
+   * @return the player's discs minus the opponent's discs at the end of the game
+   */
+  int getRootScore() {
+    return this.rootScore;
+  }
+
+  private int solve(int alpha, int beta, int ply, int emptiesLeft) {
+    this.nodes++;
+    if ((this.nodes % CLOCK_CHECK_INTERVAL) == 0 && (System.nanoTime() - this.deadlineNanos > 0
+            || Thread.currentThread().isInterrupted())) {
+      this.aborted = true;
+    }
+    if (this.aborted) {
+      return 0;
+    }
+    if (emptiesLeft == 0) {
+      // a full board ends the game, after both players pass
+      return this.discDifferential();
+    }
+
+    int[] moves = this.moveBuffers[ply];
+    int count = this.generateMoves(moves);
+    if (count == 0) {
+      if (this.board.getConsecutivePasses() > 0) {
+        return this.discDifferential();
+      }
+      this.board.makePass(this.undos[ply]);
+      int score = -this.solve(-beta, -alpha, ply + 1, emptiesLeft);
+      this.board.unmakeMove(this.undos[ply]);
+      return score;
+    }
+
+    this.orderMoves(moves, this.keyBuffers[ply], count, emptiesLeft);
+    int best = -Integer.MAX_VALUE;
+    for (int index = 0; index < count; index++) {
+      this.board.makeMove(moves[index], this.undos[ply]);
+      int score = -this.solve(-beta, -alpha, ply + 1, emptiesLeft - 1);
+      this.board.unmakeMove(this.undos[ply]);
+      if (this.aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  // the final disc differential for the player to move
+  private int discDifferential() {
+    PlayerPiece player = this.board.getCurrentPlayer();
+    return this.board.getPlayerScore(player)
+            - this.board.getPlayerScore(Evaluation.opponent(player));
+  }
+
+  // the legal moves of the player to move, among the cells empty when the solve started
+  private int generateMoves(int[] moves) {
+    PlayerPiece player = this.board.getCurrentPlayer();
+    int count = 0;
+    for (int index = 0; index < this.emptyCount; index++) {
+      int cell = this.empties[index];
+      if (this.board.isMoveLegal(player, cell)) {
+        moves[count++] = cell;
+      }
+    }
+    return count;
+  }
+
+  // the number of legal moves the player to move has
+  private int countMoves() {
+    PlayerPiece player = this.board.getCurrentPlayer();
+    int count = 0;
+    for (int index = 0; index < this.emptyCount; index++) {
+      if (this.board.isMoveLegal(player, this.empties[index])) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Sorts the moves of a node by parity first, and by the number of replies they leave the
+   * opponent second when there are enough empty cells for that to pay off.
+   */
+  private void orderMoves(int[] moves, int[] keys, int count, int emptiesLeft) {
+    if (count < 2) {
+      return;
+    }
+    this.markRegions();
+    boolean fastestFirst = emptiesLeft >= FASTEST_FIRST_MIN_EMPTIES;
+    for (int index = 0; index < count; index++) {
+      int move = moves[index];
+      int key = this.oddRegion[move] ? this.empties.length : 0;
+      if (fastestFirst) {
+        this.board.makeMove(move, this.probe);
+        key -= this.countMoves();
+        this.board.unmakeMove(this.probe);
+      }
+      keys[index] = key;
+    }
+    for (int index = 1; index < count; index++) {
+      int move = moves[index];
+      int key = keys[index];
+      int slot = index - 1;
+      while (slot >= 0 && keys[slot] < key) {
+        moves[slot + 1] = moves[slot];
+        keys[slot + 1] = keys[slot];
+        slot--;
+      }
+      moves[slot + 1] = move;
+      keys[slot + 1] = key;
+    }
+  }
+
+  // finds the connected regions of empty cells, and marks the cells of the odd sized ones
+  private void markRegions() {
+    this.stamp++;
+    for (int index = 0; index < this.emptyCount; index++) {
+      int start = this.empties[index];
+      if (this.regionStamp[start] == this.stamp
+              || this.board.getPlayerAtCell(start) != PlayerPiece.EMPTY) {
+        continue;
+      }
+      int size = 0;
+      this.regionCells[size++] = start;
+      this.regionStamp[start] = this.stamp;
+      for (int next = 0; next < size; next++) {
+        for (int neighbor : this.neighbors[this.regionCells[next]]) {
+          if (this.regionStamp[neighbor] != this.stamp
+                  && this.board.getPlayerAtCell(neighbor) == PlayerPiece.EMPTY) {
+            this.regionStamp[neighbor] = this.stamp;
+            this.regionCells[size++] = neighbor;
+          }
+        }
+      }
+      boolean odd = (size % 2) == 1;
+      for (int cell = 0; cell < size; cell++) {
+        this.oddRegion[this.regionCells[cell]] = odd;
+      }
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package reversi.strategy;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * Strategy that plays the end of the game perfectly. Once few enough cells are empty, it solves
+ * the rest of the game exactly and plays the move that gives the best final disc differential.
+ * Before that, and whenever a solve does not finish within its time budget, it asks the strategy
+ * it wraps for the move instead, so it can be put around any other strategy. With a
+ * TimedStrategy as the fallback, a turn takes the larger of the two budgets, and a solve that runs
+ * out of time hands the fallback only what is left of the turn rather than a budget of its own;
+ * give the solve a smaller budget than the fallback so the fallback has time left. Interrupting
+ * the thread that asked for the move abandons the solve as if its time had run out.<br>
+ * The exact differential found by the last solve is available through getLastSolvedScore(), which
+ * also tells whether the player can force a win, a draw or only a loss. Pondering is passed on to
+ * the wrapped strategy.
+ */
+public class EndgameStrategy implements PonderingStrategy, TimedStrategy {
+  private final ReversiStrategy fallback;
+  private final int maxEmpties;
+  private final long timeBudgetMillis;
+
+  private volatile SearchStats lastSearchStats;
+  private volatile Integer lastSolvedScore;
+
+  /**
+   * Creates an endgame strategy around another strategy.
+   *
+   * @param fallback         the strategy that chooses moves while the game can't be solved
+   * @param maxEmpties       the most empty cells a position may have to be solved
+   * @param timeBudgetMillis the wall-clock time a solve may take, in milliseconds, after which the
+   *                         fallback strategy chooses the move
+   * @throws IllegalArgumentException if the fallback is null, the empty count is negative, or the
+   *                                  budget is not positive
+   */
+  public EndgameStrategy(ReversiStrategy fallback, int maxEmpties, long timeBudgetMillis)
+          throws IllegalArgumentException {
+    if (fallback == null) {
+      throw new IllegalArgumentException("Fallback strategy can't be null.");
+    }
+    if (maxEmpties < 0) {
+      throw new IllegalArgumentException("Empty cell count can't be negative.");
+    }
+    if (timeBudgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive.");
+    }
+    this.fallback = fallback;
+    this.maxEmpties = maxEmpties;
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  /**
+   * Gives the time a turn may take, which is the solve budget, or the fallback's budget if the
+   * fallback is a TimedStrategy with a larger one.
+   *
+   * @return the time budget of a move, in milliseconds
+   */
+  @Override
+  public long getTimeBudgetMillis() {
+    if (this.fallback instanceof TimedStrategy) {
+      return Math.max(this.timeBudgetMillis, ((TimedStrategy) this.fallback).getTimeBudgetMillis());
+    }
+    return this.timeBudgetMillis;
+  }
+
+  /**
+   * Chooses the move with the best exact result if the position has at most maxEmpties empty
+   * cells and can be solved in time, or the fallback strategy's move otherwise.
+   *
+   * @param model   the model in which the move will be made.
+   * @param forWhom the player in the model whose is moving.
+   * @return the chosen move, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom) {
+    return this.chooseMove(model, forWhom,
+            System.nanoTime() + this.getTimeBudgetMillis() * 1_000_000);
+  }
+
+  /**
+   * Chooses a move like chooseMove(), but ends the turn by the deadline instead of after the time
+   * budget. The solve stops at the deadline if that comes before its own budget runs out, and a
+   * TimedStrategy fallback is given the time left until the deadline.
+   *
+   * @param model         the model in which the move will be made.
+   * @param forWhom       the player in the model whose is moving.
+   * @param deadlineNanos the System.nanoTime() value by which the move should be chosen
+   * @return the chosen move, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom, long deadlineNanos) {
+    this.stopPondering();
+    long start = System.nanoTime();
+    this.lastSolvedScore = null;
+    if (!model.canPlayerMove(forWhom)) {
+      return null;
+    }
+    BitboardHexReversi board = BitboardHexReversi.copyOf(model, forWhom);
+    int cellCount = board.getTopology().getCellCount();
+    if (board.getScore().empty > this.maxEmpties) {
+      return this.fallbackMove(model, forWhom, deadlineNanos);
+    }
+
+    long solveDeadline = start + this.timeBudgetMillis * 1_000_000;
+    if (solveDeadline - deadlineNanos > 0) {
+      solveDeadline = deadlineNanos;
+    }
+    EndgameSolver solver = new EndgameSolver(board, solveDeadline);
+    int[] rootMoves = new int[cellCount];
+    solver.solveRoot(rootMoves);
+    this.lastSearchStats = new SearchStats(solver.getNodes(),
+            solver.isAborted() ? 0 : solver.getEmptyCount(), System.nanoTime() - start);
+    if (solver.isAborted()) {
+      return this.fallbackMove(model, forWhom, deadlineNanos);
+    }
+    this.lastSolvedScore = solver.getRootScore();
+    return board.getTopology().coordOf(rootMoves[0]);
+  }
+
+  // the fallback's move, chosen by the deadline if the fallback can keep to one
+  private Coord fallbackMove(ReadonlyReversi model, PlayerPiece forWhom, long deadlineNanos) {
+    if (this.fallback instanceof TimedStrategy) {
+      return ((TimedStrategy) this.fallback).chooseMove(model, forWhom, deadlineNanos);
+    }
+    return this.fallback.chooseMove(model, forWhom);
+  }
+
+  /**
+   * Passes pondering on to the wrapped strategy, if it can ponder.
+   *
+   * @param model    the model in which the opponent is about to move
+   * @param opponent the player whose turn it is in the model
+   */
+  @Override
+  public void ponder(ReadonlyReversi model, PlayerPiece opponent) {
+    if (this.fallback instanceof PonderingStrategy) {
+      ((PonderingStrategy) this.fallback).ponder(model, opponent);
+    }
+  }
+
+  @Override
+  public void stopPondering() {
+    if (this.fallback instanceof PonderingStrategy) {
+      ((PonderingStrategy) this.fallback).stopPondering();
+    }
+  }
+
+  /**
+   * Gives the statistics of the last solve, where the depth is the number of empty cells solved,
+   * or 0 if the solve ran out of time.
+   *
+   * @return the last solve's statistics, or null if no position was solved yet
+   */
+  public SearchStats getLastSearchStats() {
+    return this.lastSearchStats;
+  }
+
+  /**
+   * Gives the final disc differential the last move forces, if the last call to chooseMove()
+   * solved its position.
+   *
+   * @return the player's discs minus the opponent's discs at the end of the game with best play,
+   *         or null if the last move was not chosen by a completed solve
+   */
+  public Integer getLastSolvedScore() {
+    return this.lastSolvedScore;
+  }
+}
@@ -0,0 +1,133 @@
+package reversi.strategy;
+
+import reversi.model.HexTopology;
+import reversi.model.PlayerPiece;
+import reversi.model.SearchableReversi;
+
+/**
+ * Heuristic score of a position for search-based strategies. The score combines how valuable the
+ * cells each player occupies are with how many moves each player has. Corner cells, which can
+ * never be flipped, are worth the most, edges are worth a little more than inner cells, and cells
+ * next to a corner are worth less since taking them usually hands the corner to the opponent.
+ * An evaluation keeps a scratch buffer, so each search thread needs its own.
+ */
+final class Evaluation {
+  /** Scores at or above this value are won games. */
+  static final int WIN_SCORE = 1_000_000;
+
+  private static final int CORNER_WEIGHT = 20;
+  private static final int EDGE_WEIGHT = 3;
+  private static final int NEXT_TO_CORNER_WEIGHT = -4;
+  private static final int INNER_WEIGHT = 1;
+  private static final int MOBILITY_WEIGHT = 3;
+
+  private final int[] weights;
+  private final int[] moves;
+
+  /**
+   * Creates the evaluation for boards of the given shape.
+   *
+   * @param topology the shape of the boards that will be evaluated
+   */
+  Evaluation(HexTopology topology) {
+    this.weights = new int[topology.getCellCount()];
+    this.moves = new int[topology.getCellCount()];
+    for (int cell = 0; cell < this.weights.length; cell++) {
+      if (isCorner(topology, cell)) {
+        this.weights[cell] = CORNER_WEIGHT;
+      }
+      else if (isNextToCorner(topology, cell)) {
+        this.weights[cell] = NEXT_TO_CORNER_WEIGHT;
+      }
+      else if (neighborCount(topology, cell) < HexTopology.DIRECTIONS) {
+        this.weights[cell] = EDGE_WEIGHT;
+      }
+      else {
+        this.weights[cell] = INNER_WEIGHT;
+      }
+    }
+  }
+
+  private static int neighborCount(HexTopology topology, int cell) {
+    int count = 0;
+    for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+      if (topology.ray(cell, dir).length > 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean isCorner(HexTopology topology, int cell) {
+    return neighborCount(topology, cell) == 3;
+  }
+
+  private static boolean isNextToCorner(HexTopology topology, int cell) {
+    for (int dir = 0; dir < HexTopology.DIRECTIONS; dir++) {
+      int[] ray = topology.ray(cell, dir);
+      if (ray.length > 0 && isCorner(topology, ray[0])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gives the static weight of a cell, which search strategies can also use to order moves.
+   *
+   * @param cell the cell index
+   * @return the weight of owning the cell
+   */
+  int weight(int cell) {
+    return this.weights[cell];
+  }
+
+  /**
+   * Scores a position that is not over from the point of view of the given player.
+   *
+   * @param board  the board to score
+   * @param player the player the score is for
+   * @return a positive score if the position is good for the player
+   */
+  int evaluate(SearchableReversi board, PlayerPiece player) {
+    PlayerPiece opponent = opponent(player);
+    int score = 0;
+    for (int cell = 0; cell < this.weights.length; cell++) {
+      PlayerPiece piece = board.getPlayerAtCell(cell);
+      if (piece == player) {
+        score += this.weights[cell];
+      }
+      else if (piece == opponent) {
+        score -= this.weights[cell];
+      }
+    }
+    int mobility = board.legalMoves(player, this.moves) - board.legalMoves(opponent, this.moves);
+    return score + MOBILITY_WEIGHT * mobility;
+  }
+
+  /**
+   * Scores a finished game from the point of view of the given player. Any win scores higher than
+   * every heuristic score, and bigger wins score higher than smaller ones.
+   *
+   * @param board  the board of the finished game
+   * @param player the player the score is for
+   * @return the final score for the player
+   */
+  static int finalScore(SearchableReversi board, PlayerPiece player) {
+    int difference = board.getPlayerScore(player) - board.getPlayerScore(opponent(player));
+    if (difference > 0) {
+      return WIN_SCORE + difference;
+    }
+    return (difference < 0) ? -WIN_SCORE + difference : 0;
+  }
+
+  /**
+   * Gives the other player.
+   *
+   * @param player BLACK or WHITE
+   * @return WHITE for BLACK and BLACK for WHITE
+   */
+  static PlayerPiece opponent(PlayerPiece player) {
+    return (player == PlayerPiece.BLACK) ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+  }
+}
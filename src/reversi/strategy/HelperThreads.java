@@ -0,0 +1,65 @@
+package reversi.strategy;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The helper threads that parallel strategies run their extra workers on, while the thread that
+ * asked for a move runs the first worker itself. Helper threads are daemon threads, so a strategy
+ * that is no longer used never keeps the program from exiting, and they end after being idle for
+ * a while, so strategies that are thrown away don't leave threads behind.
+ */
+final class HelperThreads {
+  private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+  // how long a helper thread waits for work before it ends
+  private static final long IDLE_SECONDS = 30;
+
+  private HelperThreads() {
+  }
+
+  /**
+   * Creates a pool of helper threads.
+   *
+   * @param name the name the threads of the pool are given, followed by a number
+   * @param size the number of threads in the pool
+   * @return the new pool
+   */
+  static ExecutorService newPool(String name, int size) {
+    int pool = POOL_COUNT.incrementAndGet();
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, IDLE_SECONDS,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+          Thread thread = new Thread(runnable,
+                  name + "-" + pool + "-helper-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Waits for a helper worker to finish. If the waiting thread is interrupted it stops waiting
+   * and keeps its interrupt status.
+   *
+   * @param run the helper worker to wait for
+   * @throws IllegalStateException if the helper worker failed
+   */
+  static void await(Future<?> run) throws IllegalStateException {
+    try {
+      run.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("Helper worker failed.", e.getCause());
+    }
+  }
+}
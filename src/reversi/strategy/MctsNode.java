@@ -0,0 +1,141 @@
+package reversi.strategy;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+
+/**
+ * A position in a Monte Carlo search tree, shared by every thread of the search. The statistics of
+ * a node are changed under the node's lock, and read without it while choosing which child to
+ * explore, since a slightly stale count only makes the choice slightly less informed.<br>
+ * A thread going through a node adds a virtual loss to it, which counts as a lost playout until
+ * the thread's real result is added. This keeps the other threads from all following the same
+ * path before its results are in.
+ */
+final class MctsNode {
+  // the cell played to reach this node, or MoveUndo.PASS
+  final int move;
+
+  // the player who played the move, or null for the root
+  final PlayerPiece mover;
+
+  private volatile MctsNode[] children;
+  private volatile boolean terminal;
+
+  private volatile int visits;
+  private volatile int virtualLosses;
+  private volatile double reward;
+
+  /**
+   * Creates a node that has not been visited yet.
+   *
+   * @param move  the cell played to reach the node, or MoveUndo.PASS
+   * @param mover the player who played the move, or null for the root
+   */
+  MctsNode(int move, PlayerPiece mover) {
+    this.move = move;
+    this.mover = mover;
+  }
+
+  /**
+   * Gives the children of the node.
+   *
+   * @return the children, or null if the node is not expanded yet or ends the game
+   */
+  MctsNode[] getChildren() {
+    return this.children;
+  }
+
+  /**
+   * Returns whether the game is over in this node.
+   *
+   * @return true if the node ends the game
+   */
+  boolean isTerminal() {
+    return this.terminal;
+  }
+
+  /**
+   * Gives the number of playouts that went through this node.
+   *
+   * @return the visit count
+   */
+  int getVisits() {
+    return this.visits;
+  }
+
+  /**
+   * Creates a child for every move of the player to move, unless another thread already did.
+   * A player without moves gets a single pass child, unless the last move was also a pass, in
+   * which case the game is over and the node gets no children.
+   *
+   * @param board the board in this node's position
+   * @param moves a buffer large enough for every legal move
+   */
+  synchronized void expand(BitboardHexReversi board, int[] moves) {
+    if (this.children != null || this.terminal) {
+      return;
+    }
+    PlayerPiece player = board.getCurrentPlayer();
+    int count = board.legalMoves(player, moves);
+    if (count == 0) {
+      if (board.getConsecutivePasses() > 0) {
+        this.terminal = true;
+        return;
+      }
+      this.children = new MctsNode[]{new MctsNode(MoveUndo.PASS, player)};
+      return;
+    }
+    MctsNode[] created = new MctsNode[count];
+    for (int index = 0; index < count; index++) {
+      created[index] = new MctsNode(moves[index], player);
+    }
+    this.children = created;
+  }
+
+  /**
+   * Chooses the child to explore by the UCT formula: the child's average reward for its mover
+   * plus an exploration bonus that grows for children visited less than their siblings. Virtual
+   * losses count as visits with no reward. Children nobody has visited are chosen first.
+   *
+   * @param exploration the weight of the exploration bonus
+   * @return the chosen child
+   */
+  MctsNode selectChild(double exploration) {
+    MctsNode[] options = this.children;
+    double logVisits = Math.log(Math.max(1, this.visits + this.virtualLosses));
+    MctsNode best = options[0];
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (MctsNode child : options) {
+      int tries = child.visits + child.virtualLosses;
+      if (tries == 0) {
+        return child;
+      }
+      double value = child.reward / tries + exploration * Math.sqrt(logVisits / tries);
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Adds a virtual loss to the node, for a thread that is about to go through it.
+   */
+  synchronized void addVirtualLoss() {
+    this.virtualLosses++;
+  }
+
+  /**
+   * Replaces a virtual loss with the result of the playout that went through the node.
+   *
+   * @param playoutReward the reward of the playout for this node's mover, from 0 for a loss to 1
+   *                      for a win
+   */
+  synchronized void update(double playoutReward) {
+    this.virtualLosses--;
+    this.visits++;
+    this.reward += playoutReward;
+  }
+}
@@ -0,0 +1,280 @@
+package reversi.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * Strategy that chooses moves by Monte Carlo tree search with the UCT selection rule. It plays
+ * many games from the current position to the end with random moves, and grows a tree of the
+ * positions those games went through, exploring more of the moves whose games went well. The
+ * move played is the one whose games were explored most. Unlike alpha-beta search it needs no
+ * evaluation heuristic, and it copes with the large number of moves on big boards.<br>
+ * The search stops when its time budget or its playout budget runs out, whichever comes first,
+ * or early if the thread that asked for the move is interrupted.
+ * With more than one thread, every thread plays games on its own bit set copy of the board and
+ * grows the same shared tree, using virtual losses so the threads spread out over the tree.
+ * Playing out a game makes and takes back moves on the thread's board, so it does not allocate.
+ */
+public class MctsStrategy implements TimedStrategy {
+  // weight of exploring rarely tried moves over exploiting good ones, for rewards from 0 to 1
+  private static final double EXPLORATION = Math.sqrt(2);
+
+  private final long timeBudgetMillis;
+  private final long maxPlayouts;
+  private final int threads;
+  private final SplittableRandom seeds;
+
+  // runs the helper workers, created on the first parallel search
+  private ExecutorService helperPool;
+
+  private volatile PlayoutStats lastSearchStats;
+
+  /**
+   * Creates a single threaded Monte Carlo strategy that plays out as many games as it can within
+   * the time budget.
+   *
+   * @param timeBudgetMillis the wall-clock time each move may take, in milliseconds
+   * @throws IllegalArgumentException if the budget is not positive
+   */
+  public MctsStrategy(long timeBudgetMillis) throws IllegalArgumentException {
+    this(timeBudgetMillis, Long.MAX_VALUE, 1);
+  }
+
+  /**
+   * Creates a Monte Carlo strategy that plays out at most maxPlayouts games per move within the
+   * time budget, using the given number of threads.
+   *
+   * @param timeBudgetMillis the wall-clock time each move may take, in milliseconds
+   * @param maxPlayouts      the largest number of games played out for each move
+   * @param threads          the number of threads playing out games
+   * @throws IllegalArgumentException if the budgets or the thread count are not positive
+   */
+  public MctsStrategy(long timeBudgetMillis, long maxPlayouts, int threads)
+          throws IllegalArgumentException {
+    if (timeBudgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive.");
+    }
+    if (maxPlayouts <= 0) {
+      throw new IllegalArgumentException("Playout budget must be positive.");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+    this.timeBudgetMillis = timeBudgetMillis;
+    this.maxPlayouts = maxPlayouts;
+    this.threads = threads;
+    this.seeds = new SplittableRandom();
+  }
+
+  @Override
+  public long getTimeBudgetMillis() {
+    return this.timeBudgetMillis;
+  }
+
+  /**
+   * Searches for the best move for the given player until the time or playout budget runs out.
+   *
+   * @param model   the model in which the move will be made.
+   * @param forWhom the player in the model whose is moving.
+   * @return the most explored move, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom) {
+    return this.chooseMove(model, forWhom, System.nanoTime() + this.timeBudgetMillis * 1_000_000);
+  }
+
+  /**
+   * Searches for the best move for the given player until the deadline or until the playout
+   * budget runs out.
+   *
+   * @param model         the model in which the move will be made.
+   * @param forWhom       the player in the model whose is moving.
+   * @param deadlineNanos the System.nanoTime() value by which the move should be chosen
+   * @return the most explored move, or null if the player has no legal moves.
+   */
+  @Override
+  public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom, long deadlineNanos) {
+    long start = System.nanoTime();
+    if (!model.canPlayerMove(forWhom)) {
+      return null;
+    }
+    BitboardHexReversi board = BitboardHexReversi.copyOf(model, forWhom);
+    MctsNode root = new MctsNode(MoveUndo.PASS, null);
+    root.expand(board, new int[board.getTopology().getCellCount()]);
+    MctsNode[] rootChildren = root.getChildren();
+    if (rootChildren.length == 1) {
+      this.lastSearchStats = new PlayoutStats(0, 0, System.nanoTime() - start);
+      return board.getTopology().coordOf(rootChildren[0].move);
+    }
+
+    AtomicLong started = new AtomicLong();
+    AtomicLong finished = new AtomicLong();
+    AtomicBoolean stopped = new AtomicBoolean();
+    List<Future<?>> helperRuns = new ArrayList<>();
+    for (int worker = 1; worker < this.threads; worker++) {
+      Worker helper = new Worker(BitboardHexReversi.copyOf(model, forWhom), this.nextSeed());
+      helperRuns.add(this.helperPool().submit(
+          () -> helper.run(root, deadlineNanos, this.maxPlayouts, started, finished, stopped)));
+    }
+    try {
+      new Worker(board, this.nextSeed())
+              .run(root, deadlineNanos, this.maxPlayouts, started, finished, stopped);
+    }
+    finally {
+      // the helpers stop with the first worker, which stops early if its thread is interrupted
+      stopped.set(true);
+      for (Future<?> run : helperRuns) {
+        HelperThreads.await(run);
+      }
+    }
+
+    MctsNode best = rootChildren[0];
+    for (MctsNode child : rootChildren) {
+      if (child.getVisits() > best.getVisits()) {
+        best = child;
+      }
+    }
+    this.lastSearchStats = new PlayoutStats(finished.get(), best.getVisits(),
+            System.nanoTime() - start);
+    return board.getTopology().coordOf(best.move);
+  }
+
+  private synchronized long nextSeed() {
+    return this.seeds.nextLong();
+  }
+
+  private synchronized ExecutorService helperPool() {
+    if (this.helperPool == null) {
+      this.helperPool = HelperThreads.newPool("mcts", this.threads - 1);
+    }
+    return this.helperPool;
+  }
+
+  /**
+   * Gives the statistics of the last completed call to chooseMove().
+   *
+   * @return the last search's statistics, or null if no search was made yet
+   */
+  public PlayoutStats getLastSearchStats() {
+    return this.lastSearchStats;
+  }
+
+  /**
+   * One thread's share of a search, with its own board and every buffer it needs to walk down
+   * the tree and play out a game.
+   */
+  private static final class Worker {
+    private final BitboardHexReversi board;
+    private final SplittableRandom random;
+    private final int[] moves;
+    private final MoveUndo[] undos;
+    private final MctsNode[] path;
+
+    Worker(BitboardHexReversi board, long seed) {
+      this.board = board;
+      this.random = new SplittableRandom(seed);
+      int cellCount = board.getTopology().getCellCount();
+      // every ply either fills a cell or passes, and two passes in a row end the game
+      int maxPly = 2 * cellCount + 2;
+      this.moves = new int[cellCount];
+      this.undos = new MoveUndo[maxPly];
+      for (int ply = 0; ply < maxPly; ply++) {
+        this.undos[ply] = new MoveUndo(cellCount);
+      }
+      this.path = new MctsNode[maxPly + 1];
+    }
+
+    /**
+     * Plays out games from the root until the deadline passes, the shared playout budget is used
+     * up, the search is stopped, or the thread is interrupted.
+     */
+    void run(MctsNode root, long deadline, long maxPlayouts, AtomicLong started,
+             AtomicLong finished, AtomicBoolean stopped) {
+      while (System.nanoTime() - deadline < 0 && !stopped.get()
+              && !Thread.currentThread().isInterrupted()
+              && started.getAndIncrement() < maxPlayouts) {
+        this.playOnce(root);
+        finished.incrementAndGet();
+      }
+    }
+
+    private void playOnce(MctsNode root) {
+      int depth = 0;
+      int ply = 0;
+      MctsNode node = root;
+      node.addVirtualLoss();
+      this.path[depth++] = node;
+
+      // walk down the tree, expanding the first node that has no children yet
+      while (true) {
+        if (node.getChildren() == null) {
+          node.expand(this.board, this.moves);
+          if (node.getChildren() == null) {
+            break;
+          }
+          node = this.descend(node, ply++);
+          this.path[depth++] = node;
+          break;
+        }
+        node = this.descend(node, ply++);
+        this.path[depth++] = node;
+      }
+
+      // finish the game with random moves
+      while (true) {
+        int count = this.board.legalMoves(this.board.getCurrentPlayer(), this.moves);
+        if (count == 0) {
+          if (this.board.getConsecutivePasses() > 0) {
+            break;
+          }
+          this.board.makePass(this.undos[ply++]);
+        }
+        else {
+          this.board.makeMove(this.moves[this.random.nextInt(count)], this.undos[ply++]);
+        }
+      }
+
+      int difference = this.board.getPlayerScore(PlayerPiece.BLACK)
+              - this.board.getPlayerScore(PlayerPiece.WHITE);
+      for (int index = 0; index < depth; index++) {
+        MctsNode visited = this.path[index];
+        visited.update(reward(visited.mover, difference));
+      }
+      while (ply > 0) {
+        this.board.unmakeMove(this.undos[--ply]);
+      }
+    }
+
+    private MctsNode descend(MctsNode node, int ply) {
+      MctsNode child = node.selectChild(EXPLORATION);
+      child.addVirtualLoss();
+      if (child.move == MoveUndo.PASS) {
+        this.board.makePass(this.undos[ply]);
+      }
+      else {
+        this.board.makeMove(child.move, this.undos[ply]);
+      }
+      return child;
+    }
+
+    // the reward of a finished game for a player, given black's disc lead
+    private static double reward(PlayerPiece player, int blackLead) {
+      if (blackLead == 0 || player == null) {
+        return 0.5;
+      }
+      boolean blackWon = blackLead > 0;
+      return (blackWon == (player == PlayerPiece.BLACK)) ? 1 : 0;
+    }
+  }
+}
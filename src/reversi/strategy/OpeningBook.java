@@ -0,0 +1,133 @@
+package reversi.strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A book of the best moves in opening positions, read from a file that is memory-mapped instead
+ * of loaded, so the book takes no heap space and opens instantly however large it is. Positions
+ * are identified by their position hash, which is the same in every run of the program.<br>
+ * A book file starts with a 16 byte header: the magic number, the board size, the number of
+ * entries, and a reserved int. It is followed by the entries, sorted by hash, each made of the
+ * 8 byte hash of a position and the 4 byte cell index of the move to play. Looking up a position
+ * is a binary search over the mapped entries.
+ */
+public final class OpeningBook {
+  /** The first int of every book file. */
+  public static final int MAGIC = 0x48584231;
+
+  /** Cell index returned by lookup() for positions that are not in the book. */
+  public static final int NO_MOVE = -1;
+
+  private static final int HEADER_BYTES = 16;
+  private static final int ENTRY_BYTES = 12;
+
+  private final ByteBuffer entries;
+  private final int boardSize;
+  private final int size;
+
+  private OpeningBook(ByteBuffer entries, int boardSize, int size) {
+    this.entries = entries;
+    this.boardSize = boardSize;
+    this.size = size;
+  }
+
+  /**
+   * Maps a book file into memory.
+   *
+   * @param file the book file
+   * @return the book in the file
+   * @throws IOException if the file can't be read or is not a valid book
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+        throw new IOException("Not an opening book: " + file);
+      }
+      // the mapping stays valid after the channel is closed
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      int size = mapped.getInt(8);
+      if (mapped.getInt(0) != MAGIC || size < 0
+              || length != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+        throw new IOException("Not an opening book: " + file);
+      }
+      return new OpeningBook(mapped, mapped.getInt(4), size);
+    }
+  }
+
+  /**
+   * Writes a book file.
+   *
+   * @param file      the file to write, which is replaced if it exists
+   * @param boardSize the size of the boards the book is for
+   * @param moves     the cell index of the move to play in each position, by position hash
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Path file, int boardSize, Map<Long, Integer> moves)
+          throws IOException {
+    Map<Long, Integer> sorted = new TreeMap<>(moves);
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sorted.size() * ENTRY_BYTES);
+    buffer.putInt(MAGIC).putInt(boardSize).putInt(sorted.size()).putInt(0);
+    for (Map.Entry<Long, Integer> entry : sorted.entrySet()) {
+      buffer.putLong(entry.getKey()).putInt(entry.getValue());
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Gives the size of the boards the book is for.
+   *
+   * @return the board size, as given to HexReversi
+   */
+  public int getBoardSize() {
+    return this.boardSize;
+  }
+
+  /**
+   * Gives the number of positions in the book.
+   *
+   * @return the entry count
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Looks up the move to play in a position.
+   *
+   * @param positionHash the hash of the position
+   * @return the cell index of the book move, or NO_MOVE if the position is not in the book
+   */
+  public int lookup(long positionHash) {
+    int low = 0;
+    int high = this.size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int offset = HEADER_BYTES + middle * ENTRY_BYTES;
+      long hash = this.entries.getLong(offset);
+      if (hash < positionHash) {
+        low = middle + 1;
+      }
+      else if (hash > positionHash) {
+        high = middle - 1;
+      }
+      else {
+        return this.entries.getInt(offset + 8);
+      }
+    }
+    return NO_MOVE;
+  }
+}
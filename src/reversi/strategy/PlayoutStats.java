@@ -0,0 +1,48 @@
+package reversi.strategy;
+
+/**
+ * The statistics of one completed Monte Carlo move search, used to tune how fast a playout-based
+ * strategy plays out games.
+ */
+public final class PlayoutStats {
+  /** The number of games played out to the end. */
+  public final long playouts;
+
+  /** The number of playouts that went through the chosen move. */
+  public final long chosenMoveVisits;
+
+  /** The wall-clock time the search took, in nanoseconds. */
+  public final long elapsedNanos;
+
+  /**
+   * Creates the statistics of a search.
+   *
+   * @param playouts         the number of games played out
+   * @param chosenMoveVisits the number of playouts through the chosen move
+   * @param elapsedNanos     the time the search took in nanoseconds
+   */
+  public PlayoutStats(long playouts, long chosenMoveVisits, long elapsedNanos) {
+    this.playouts = playouts;
+    this.chosenMoveVisits = chosenMoveVisits;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Gives the average number of games played out per second.
+   *
+   * @return the playouts per second, or 0 if no time was measured
+   */
+  public long playoutsPerSecond() {
+    if (this.elapsedNanos <= 0) {
+      return 0;
+    }
+    return Math.round(this.playouts * 1e9 / this.elapsedNanos);
+  }
+
+  @Override
+  public String toString() {
+    return "playouts: " + this.playouts + ", chosen move visits: " + this.chosenMoveVisits
+            + ", time: " + (this.elapsedNanos / 1_000_000) + "ms"
+            + ", playouts/s: " + this.playoutsPerSecond();
+  }
+}
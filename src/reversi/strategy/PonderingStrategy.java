@@ -0,0 +1,26 @@
+package reversi.strategy;
+
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * A strategy that can keep thinking while the opponent decides on its move, and use that work
+ * for its own next move. Pondering runs in the background, and is stopped when the strategy is
+ * asked for a move, so chooseMove() never competes with it.
+ */
+public interface PonderingStrategy extends ReversiStrategy {
+  /**
+   * Starts thinking about the given position in the background, stopping any earlier pondering
+   * first. The position is copied before this returns, so the model can change meanwhile.
+   *
+   * @param model    the model in which the opponent is about to move
+   * @param opponent the player whose turn it is in the model
+   */
+  void ponder(ReadonlyReversi model, PlayerPiece opponent);
+
+  /**
+   * Stops pondering and waits until the background thinking has ended. Does nothing if the
+   * strategy isn't pondering.
+   */
+  void stopPondering();
+}
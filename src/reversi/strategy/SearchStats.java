@@ -0,0 +1,48 @@
+package reversi.strategy;
+
+/**
+ * The statistics of one completed move search, used to tune how fast a search-based strategy
+ * goes through positions.
+ */
+public final class SearchStats {
+  /** The number of positions visited by the search. */
+  public final long nodes;
+
+  /** The deepest search depth, in plies, that was fully completed. */
+  public final int depth;
+
+  /** The wall-clock time the search took, in nanoseconds. */
+  public final long elapsedNanos;
+
+  /**
+   * Creates the statistics of a search.
+   *
+   * @param nodes        the number of positions visited
+   * @param depth        the deepest completed depth in plies
+   * @param elapsedNanos the time the search took in nanoseconds
+   */
+  public SearchStats(long nodes, int depth, long elapsedNanos) {
+    this.nodes = nodes;
+    this.depth = depth;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Gives the average number of positions visited per second.
+   *
+   * @return the nodes per second, or 0 if no time was measured
+   */
+  public long nodesPerSecond() {
+    if (this.elapsedNanos <= 0) {
+      return 0;
+    }
+    return Math.round(this.nodes * 1e9 / this.elapsedNanos);
+  }
+
+  @Override
+  public String toString() {
+    return "depth: " + this.depth + ", nodes: " + this.nodes
+            + ", time: " + (this.elapsedNanos / 1_000_000) + "ms"
+            + ", nodes/s: " + this.nodesPerSecond();
+  }
+}
@@ -0,0 +1,30 @@
+package reversi.strategy;
+
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+
+/**
+ * A strategy that thinks for a wall-clock time budget per move, and can be told to finish by a
+ * deadline instead. A strategy that wraps another one can then hand it whatever is left of the
+ * turn, so the turn takes no longer than its budget however the time was spent.
+ */
+public interface TimedStrategy extends ReversiStrategy {
+  /**
+   * Gives the time chooseMove() may take for a move.
+   *
+   * @return the time budget of a move, in milliseconds
+   */
+  long getTimeBudgetMillis();
+
+  /**
+   * Chooses a move like chooseMove(), but thinks until the given deadline instead of for the time
+   * budget.
+   *
+   * @param model         the model in which the move will be made.
+   * @param forWhom       the player in the model whose is moving.
+   * @param deadlineNanos the System.nanoTime() value by which the move should be chosen
+   * @return the chosen move, or null if the player has no legal moves.
+   */
+  Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom, long deadlineNanos);
+}
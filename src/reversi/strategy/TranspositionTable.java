@@ -0,0 +1,246 @@
+package reversi.strategy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of search results, keyed by position hash, that lets a search reuse the
+ * result of a position it already reached through a different order of moves. For every position
+ * the table stores the depth it was searched to, the score, whether the score is exact or only a
+ * bound, and the best move found.<br>
+ * The table is open-addressed over primitive arrays, so it never allocates after being created.
+ * Positions are grouped into buckets of two entries: the first entry of a bucket only gets
+ * replaced by a result searched at least as deep, and the second entry is always replaced, so
+ * deep results survive while recent shallow results still get stored.<br>
+ * Entries are written as two separate longs, the packed result and the key XOR-ed with the packed
+ * result. A reader only accepts an entry if XOR-ing the two gives back the key it is looking for,
+ * so several search threads can share one table without locks: an entry torn by two threads
+ * writing at the same time just reads as a miss.
+ */
+public class TranspositionTable {
+  /** Bound type of a score that is the exact value of the position. */
+  public static final int EXACT = 1;
+
+  /** Bound type of a score that the position is worth at least (the search failed high). */
+  public static final int LOWER_BOUND = 2;
+
+  /** Bound type of a score that the position is worth at most (the search failed low). */
+  public static final int UPPER_BOUND = 3;
+
+  /** Value returned by probe() when the position is not in the table. */
+  public static final long MISS = 0L;
+
+  /** Best move stored for a result that has no move. */
+  public static final int NO_MOVE = -1;
+
+  // bytes used by one entry: a key long and a data long
+  private static final int ENTRY_BYTES = 16;
+
+  private static final int ENTRIES_PER_BUCKET = 2;
+
+  private final long[] checks;
+  private final long[] data;
+  private final int bucketMask;
+
+  private final LongAdder probes = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder collisions = new LongAdder();
+  private final LongAdder stores = new LongAdder();
+  private final LongAdder overwrites = new LongAdder();
+
+  /**
+   * Creates a table using at most the given number of megabytes. The number of buckets is
+   * rounded down to a power of two.
+   *
+   * @param megabytes the memory budget of the table
+   * @throws IllegalArgumentException if the budget is not positive or too large
+   */
+  public TranspositionTable(int megabytes) throws IllegalArgumentException {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("Table size must be positive.");
+    }
+    long buckets = ((long) megabytes << 20) / (ENTRY_BYTES * ENTRIES_PER_BUCKET);
+    if (buckets * ENTRIES_PER_BUCKET > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Table size is too large.");
+    }
+    int bucketCount = Integer.highestOneBit((int) buckets);
+    this.checks = new long[bucketCount * ENTRIES_PER_BUCKET];
+    this.data = new long[bucketCount * ENTRIES_PER_BUCKET];
+    this.bucketMask = bucketCount - 1;
+  }
+
+  private int bucketOf(long key) {
+    return ((int) (key ^ (key >>> 32)) & this.bucketMask) * ENTRIES_PER_BUCKET;
+  }
+
+  /**
+   * Looks up the stored result of a position.
+   *
+   * @param key the hash of the position
+   * @return the packed result, to be read with the static accessors, or MISS
+   */
+  public long probe(long key) {
+    this.probes.increment();
+    int bucket = this.bucketOf(key);
+    boolean occupied = false;
+    for (int slot = bucket; slot < bucket + ENTRIES_PER_BUCKET; slot++) {
+      long entry = this.data[slot];
+      if (entry != MISS) {
+        if ((this.checks[slot] ^ entry) == key) {
+          this.hits.increment();
+          return entry;
+        }
+        occupied = true;
+      }
+    }
+    if (occupied) {
+      this.collisions.increment();
+    }
+    return MISS;
+  }
+
+  /**
+   * Stores the result of searching a position, replacing older results by the bucket's
+   * replacement policy.
+   *
+   * @param key      the hash of the position
+   * @param depth    the depth the position was searched to, from 0 to 255
+   * @param bound    EXACT, LOWER_BOUND or UPPER_BOUND
+   * @param score    the score of the position
+   * @param bestMove the cell index of the best move, or NO_MOVE
+   */
+  public void store(long key, int depth, int bound, int score, int bestMove) {
+    this.stores.increment();
+    long entry = pack(depth, bound, score, bestMove);
+    int bucket = this.bucketOf(key);
+    int deep = bucket;
+    int recent = bucket + 1;
+
+    long deepEntry = this.data[deep];
+    boolean deepMatches = deepEntry != MISS && (this.checks[deep] ^ deepEntry) == key;
+    if (deepEntry == MISS || deepMatches || depth >= depth(deepEntry)) {
+      if (deepEntry != MISS && !deepMatches) {
+        this.overwrites.increment();
+      }
+      this.write(deep, key, entry);
+      return;
+    }
+    long recentEntry = this.data[recent];
+    if (recentEntry != MISS && (this.checks[recent] ^ recentEntry) != key) {
+      this.overwrites.increment();
+    }
+    this.write(recent, key, entry);
+  }
+
+  private void write(int slot, long key, long entry) {
+    this.data[slot] = entry;
+    this.checks[slot] = key ^ entry;
+  }
+
+  /**
+   * Removes every stored result and resets the statistics.
+   */
+  public void clear() {
+    Arrays.fill(this.data, MISS);
+    Arrays.fill(this.checks, 0L);
+    this.probes.reset();
+    this.hits.reset();
+    this.collisions.reset();
+    this.stores.reset();
+    this.overwrites.reset();
+  }
+
+  /**
+   * Gives the number of entries the table can hold.
+   *
+   * @return the capacity in entries
+   */
+  public int capacity() {
+    return this.data.length;
+  }
+
+  private static long pack(int depth, int bound, int score, int bestMove) {
+    return (score & 0xFFFFFFFFL)
+            | ((long) ((bestMove + 1) & 0xFFFF) << 32)
+            | ((long) (Math.max(0, Math.min(depth, 255))) << 48)
+            | ((long) (bound & 0x3) << 56);
+  }
+
+  /**
+   * Reads the score of a packed result.
+   *
+   * @param entry a packed result returned by probe()
+   * @return the stored score
+   */
+  public static int score(long entry) {
+    return (int) entry;
+  }
+
+  /**
+   * Reads the best move of a packed result.
+   *
+   * @param entry a packed result returned by probe()
+   * @return the stored cell index, or NO_MOVE
+   */
+  public static int bestMove(long entry) {
+    return (int) ((entry >>> 32) & 0xFFFF) - 1;
+  }
+
+  /**
+   * Reads the search depth of a packed result.
+   *
+   * @param entry a packed result returned by probe()
+   * @return the stored depth
+   */
+  public static int depth(long entry) {
+    return (int) ((entry >>> 48) & 0xFF);
+  }
+
+  /**
+   * Reads the bound type of a packed result.
+   *
+   * @param entry a packed result returned by probe()
+   * @return EXACT, LOWER_BOUND or UPPER_BOUND
+   */
+  public static int bound(long entry) {
+    return (int) ((entry >>> 56) & 0x3);
+  }
+
+  /**
+   * Gives the fraction of lookups that found their position.
+   *
+   * @return the hit rate from 0 to 1
+   */
+  public double hitRate() {
+    return ratio(this.hits.sum(), this.probes.sum());
+  }
+
+  /**
+   * Gives the fraction of lookups that missed although their bucket held other positions.
+   *
+   * @return the collision rate from 0 to 1
+   */
+  public double collisionRate() {
+    return ratio(this.collisions.sum(), this.probes.sum());
+  }
+
+  /**
+   * Gives the fraction of stores that replaced the result of a different position.
+   *
+   * @return the overwrite rate from 0 to 1
+   */
+  public double overwriteRate() {
+    return ratio(this.overwrites.sum(), this.stores.sum());
+  }
+
+  private static double ratio(long count, long total) {
+    return (total == 0) ? 0 : (double) count / total;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("entries: %d, probes: %d, hit rate: %.3f, collision rate: %.3f, "
+                    + "overwrite rate: %.3f", this.capacity(), this.probes.sum(), this.hitRate(),
+            this.collisionRate(), this.overwriteRate());
+  }
+}
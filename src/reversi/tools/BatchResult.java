@@ -0,0 +1,100 @@
+package reversi.tools;
+
+import java.util.Arrays;
+
+/**
+ * The combined results of a batch of games between two players, A and B, which are counted
+ * from player A's side whichever color it played.
+ */
+public final class BatchResult {
+  /** The number of games played. */
+  public final int games;
+
+  /** The number of games player A won. */
+  public final int winsA;
+
+  /** The number of games player B won. */
+  public final int winsB;
+
+  /** The number of drawn games. */
+  public final int draws;
+
+  /** The average of player A's discs minus player B's discs at the end of each game. */
+  public final double averageDifferential;
+
+  /** The wall-clock time the whole batch took, in nanoseconds. */
+  public final long elapsedNanos;
+
+  // time every move took to choose, sorted
+  private final long[] moveNanos;
+
+  /**
+   * Creates the results of a batch.
+   *
+   * @param winsA             the number of games player A won
+   * @param winsB             the number of games player B won
+   * @param draws             the number of drawn games
+   * @param totalDifferential the sum of player A's disc lead over all games
+   * @param elapsedNanos      the time the batch took in nanoseconds
+   * @param moveNanos         the time every move took to choose, in nanoseconds, in any order
+   */
+  BatchResult(int winsA, int winsB, int draws, long totalDifferential, long elapsedNanos,
+              long[] moveNanos) {
+    this.games = winsA + winsB + draws;
+    this.winsA = winsA;
+    this.winsB = winsB;
+    this.draws = draws;
+    this.averageDifferential = (this.games == 0) ? 0 : (double) totalDifferential / this.games;
+    this.elapsedNanos = elapsedNanos;
+    this.moveNanos = moveNanos.clone();
+    Arrays.sort(this.moveNanos);
+  }
+
+  /**
+   * Gives the average number of games finished per second.
+   *
+   * @return the games per second, or 0 if no time was measured
+   */
+  public double gamesPerSecond() {
+    return (this.elapsedNanos <= 0) ? 0 : this.games * 1e9 / this.elapsedNanos;
+  }
+
+  /**
+   * Gives the number of moves and passes played in the batch.
+   *
+   * @return the move count
+   */
+  public int moveCount() {
+    return this.moveNanos.length;
+  }
+
+  /**
+   * Gives the time within which the given share of moves were chosen, by the nearest rank.
+   *
+   * @param percentile the share of moves, from 0 to 100
+   * @return the move latency at that percentile in nanoseconds, or 0 if no moves were played
+   * @throws IllegalArgumentException if the percentile is not between 0 and 100
+   */
+  public long moveLatencyPercentile(double percentile) throws IllegalArgumentException {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+    }
+    if (this.moveNanos.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100 * this.moveNanos.length);
+    return this.moveNanos[Math.max(0, rank - 1)];
+  }
+
+  @Override
+  public String toString() {
+    return String.format("games: %d, A wins: %d, B wins: %d, draws: %d%n"
+                    + "average disc differential (A - B): %.2f%n"
+                    + "games/s: %.2f, moves: %d%n"
+                    + "move latency p50: %.3f ms, p90: %.3f ms, p99: %.3f ms, max: %.3f ms",
+            this.games, this.winsA, this.winsB, this.draws, this.averageDifferential,
+            this.gamesPerSecond(), this.moveCount(), this.moveLatencyPercentile(50) / 1e6,
+            this.moveLatencyPercentile(90) / 1e6, this.moveLatencyPercentile(99) / 1e6,
+            this.moveLatencyPercentile(100) / 1e6);
+  }
+}
@@ -0,0 +1,245 @@
+package reversi.tools;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import reversi.PlayerCreator;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.HexTopology;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.record.GameRecord;
+import reversi.record.GameRecordWriter;
+import reversi.strategy.ReversiStrategy;
+
+/**
+ * Plays many games between two computer players without any views, controllers or Swing, to
+ * compare strategies. The games run in parallel on a pool of threads, each on its own HexReversi
+ * model, which the runner drives directly by asking the strategy of the player to move for a
+ * move. The players swap colors every game, so neither gets the first move more often.<br>
+ * Every thread of the pool creates its own strategy for each player, and uses it for all the
+ * games it plays, so strategies that keep state between moves are never shared between games
+ * played at the same time.<br>
+ * The games played can be archived to a record file as they finish, in the order they were
+ * started.
+ */
+public class BatchRunner {
+  private final Supplier<ReversiStrategy> playerA;
+  private final Supplier<ReversiStrategy> playerB;
+  private final int boardSize;
+
+  /**
+   * Creates a runner for games between two players.
+   *
+   * @param playerA   creates the strategy of player A
+   * @param playerB   creates the strategy of player B
+   * @param boardSize the size of the boards to play on
+   * @throws IllegalArgumentException if a player is null or the board size is less than 2
+   */
+  public BatchRunner(Supplier<ReversiStrategy> playerA, Supplier<ReversiStrategy> playerB,
+                     int boardSize) throws IllegalArgumentException {
+    if (playerA == null || playerB == null) {
+      throw new IllegalArgumentException("Players can't be null.");
+    }
+    if (boardSize < 2) {
+      throw new IllegalArgumentException("Board size is too small.");
+    }
+    this.playerA = playerA;
+    this.playerB = playerB;
+    this.boardSize = boardSize;
+  }
+
+  /**
+   * Plays a batch of games and waits for all of them to finish.
+   *
+   * @param games   the number of games to play
+   * @param threads the number of games played at the same time
+   * @return the combined results of the games
+   * @throws IllegalArgumentException if the game or thread count is not positive
+   * @throws IllegalStateException    if a game fails or the waiting thread is interrupted
+   */
+  public BatchResult run(int games, int threads)
+          throws IllegalArgumentException, IllegalStateException {
+    try {
+      return this.run(games, threads, null);
+    }
+    catch (IOException e) {
+      // nothing is written without an archive
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Plays a batch of games, appends a record of every game to an archive, and waits for all of
+   * them to finish.
+   *
+   * @param games   the number of games to play
+   * @param threads the number of games played at the same time
+   * @param archive the writer to append the records to, or null to keep no records
+   * @return the combined results of the games
+   * @throws IllegalArgumentException if the game or thread count is not positive
+   * @throws IllegalStateException    if a game fails or the waiting thread is interrupted
+   * @throws IOException              if a record can't be written
+   */
+  public BatchResult run(int games, int threads, GameRecordWriter archive)
+          throws IllegalArgumentException, IllegalStateException, IOException {
+    if (games <= 0 || threads <= 0) {
+      throw new IllegalArgumentException("Game and thread counts must be positive.");
+    }
+    ThreadLocal<ReversiStrategy> strategiesA = ThreadLocal.withInitial(this.playerA);
+    ThreadLocal<ReversiStrategy> strategiesB = ThreadLocal.withInitial(this.playerB);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    long start = System.nanoTime();
+    try {
+      List<Future<PlayedGame>> results = new ArrayList<>();
+      for (int game = 0; game < games; game++) {
+        boolean aIsBlack = (game % 2) == 0;
+        results.add(pool.submit(
+            () -> this.play(strategiesA.get(), strategiesB.get(), aIsBlack)));
+      }
+
+      int winsA = 0;
+      int winsB = 0;
+      int draws = 0;
+      long totalDifferential = 0;
+      List<PlayedGame> played = new ArrayList<>();
+      int moveCount = 0;
+      for (Future<PlayedGame> result : results) {
+        PlayedGame game = result.get();
+        played.add(game);
+        if (archive != null) {
+          archive.write(game.record);
+        }
+        if (game.differential > 0) {
+          winsA++;
+        }
+        else if (game.differential < 0) {
+          winsB++;
+        }
+        else {
+          draws++;
+        }
+        totalDifferential += game.differential;
+        moveCount += game.moveCount;
+      }
+
+      long[] moveNanos = new long[moveCount];
+      int filled = 0;
+      for (PlayedGame game : played) {
+        System.arraycopy(game.moveNanos, 0, moveNanos, filled, game.moveCount);
+        filled += game.moveCount;
+      }
+      return new BatchResult(winsA, winsB, draws, totalDifferential,
+              System.nanoTime() - start, moveNanos);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for games.", e);
+    }
+    catch (ExecutionException e) {
+      throw new IllegalStateException("A game failed.", e.getCause());
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  // plays one game to the end, and gives player A's disc lead, the time of every move and the
+  // record of the game
+  private PlayedGame play(ReversiStrategy strategyA, ReversiStrategy strategyB,
+                          boolean aIsBlack) {
+    Reversi model = new HexReversi(this.boardSize);
+    model.startGame();
+    PlayerPiece pieceA = aIsBlack ? PlayerPiece.BLACK : PlayerPiece.WHITE;
+    PlayerPiece pieceB = aIsBlack ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    // every ply either fills a cell or passes, and two passes in a row end the game
+    HexTopology topology = HexTopology.of(this.boardSize);
+    long[] moveNanos = new long[2 * topology.getCellCount() + 2];
+    int[] moves = new int[moveNanos.length];
+    int moveCount = 0;
+
+    while (!model.isGameOver()) {
+      PlayerPiece player = model.getCurrentPlayer();
+      ReversiStrategy strategy = (player == pieceA) ? strategyA : strategyB;
+      long moveStart = System.nanoTime();
+      Coord move = strategy.chooseMove(model, player);
+      moveNanos[moveCount] = System.nanoTime() - moveStart;
+      if (move == null) {
+        model.passTurn();
+        moves[moveCount++] = GameRecord.PASS;
+      }
+      else {
+        model.makeMove(move);
+        moves[moveCount++] = topology.cellIndex(move);
+      }
+    }
+    int differential = model.getPlayerScore(pieceA) - model.getPlayerScore(pieceB);
+    GameRecord record = GameRecord.of(this.boardSize, Arrays.copyOf(moves, moveCount),
+            model.getScore());
+    return new PlayedGame(differential, moveNanos, moveCount, record);
+  }
+
+  /**
+   * The result of one game.
+   */
+  private static final class PlayedGame {
+    private final int differential;
+    private final long[] moveNanos;
+    private final int moveCount;
+    private final GameRecord record;
+
+    PlayedGame(int differential, long[] moveNanos, int moveCount, GameRecord record) {
+      this.differential = differential;
+      this.moveNanos = moveNanos;
+      this.moveCount = moveCount;
+      this.record = record;
+    }
+  }
+
+  /**
+   * Plays a batch of games between two player types and prints the results.
+   *
+   * @param args the types of players A and B as in PlayerCreator.PlayerType, the number of
+   *             games, and optionally the board size (default 6), the number of games played
+   *             at the same time (default the number of available cores) and a record file to
+   *             append the games to. The searches of the games share the available cores, so
+   *             with the default every search is single-threaded
+   * @throws IOException if the record file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      throw new IllegalArgumentException("Usage: BatchRunner <playerA> <playerB> <games> "
+              + "[boardSize] [threads] [recordFile]");
+    }
+    PlayerCreator.PlayerType typeA = PlayerCreator.PlayerType.valueOf(args[0].toUpperCase());
+    PlayerCreator.PlayerType typeB = PlayerCreator.PlayerType.valueOf(args[1].toUpperCase());
+    int games = Integer.parseInt(args[2]);
+    int boardSize = (args.length > 3) ? Integer.parseInt(args[3]) : 6;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int threads = (args.length > 4) ? Integer.parseInt(args[4]) : cores;
+    // the games share the cores, so a search doesn't start a thread per core in every game
+    int searchThreads = Math.max(1, cores / Math.max(1, threads));
+
+    BatchRunner runner = new BatchRunner(
+        () -> PlayerCreator.createStrategy(typeA, searchThreads),
+        () -> PlayerCreator.createStrategy(typeB, searchThreads), boardSize);
+    System.out.println("A: " + typeA + ", B: " + typeB + ", board size: " + boardSize);
+    if (args.length > 5) {
+      try (GameRecordWriter archive = GameRecordWriter.open(Paths.get(args[5]))) {
+        System.out.println(runner.run(games, threads, archive));
+      }
+    }
+    else {
+      System.out.println(runner.run(games, threads));
+    }
+  }
+}
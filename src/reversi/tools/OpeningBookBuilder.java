@@ -0,0 +1,159 @@
+package reversi.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.OpeningBook;
+import reversi.strategy.TranspositionTable;
+
+/**
+ * Builds an opening book offline by searching the opening positions deeply. Every position up to
+ * a number of plies from the start is searched, so the book has an answer to any opening. After
+ * that, the book follows only the lines where both players play the searched move, as in a game
+ * of the search against itself, until the book depth is reached.
+ */
+public class OpeningBookBuilder {
+  private static final int TABLE_MEGABYTES = 64;
+
+  private final int widePlies;
+  private final int depth;
+  private final AlphaBetaStrategy strategy;
+  private final Map<Long, Integer> moves;
+  private final IntConsumer progress;
+
+  private OpeningBookBuilder(int widePlies, int depth, long searchMillis, int threads,
+                             IntConsumer progress) {
+    this.widePlies = widePlies;
+    this.depth = depth;
+    this.strategy = new AlphaBetaStrategy(searchMillis, Integer.MAX_VALUE,
+            new TranspositionTable(TABLE_MEGABYTES), threads);
+    this.moves = new HashMap<>();
+    this.progress = progress;
+  }
+
+  /**
+   * Builds the moves of an opening book.
+   *
+   * @param boardSize    the size of the boards to build the book for
+   * @param widePlies    the number of plies from the start in which every move is followed
+   * @param depth        the number of plies from the start the book covers
+   * @param searchMillis the time spent searching each position, in milliseconds
+   * @param threads      the number of threads searching each position
+   * @return the move to play in each book position, by position hash
+   * @throws IllegalArgumentException if the board size, budget or thread count is invalid, or
+   *                                  the ply counts are negative
+   */
+  public static Map<Long, Integer> build(int boardSize, int widePlies, int depth,
+                                         long searchMillis, int threads)
+          throws IllegalArgumentException {
+    return build(boardSize, widePlies, depth, searchMillis, threads, searched -> { });
+  }
+
+  /**
+   * Builds the moves of an opening book, reporting the progress as it goes.
+   *
+   * @param boardSize    the size of the boards to build the book for
+   * @param widePlies    the number of plies from the start in which every move is followed
+   * @param depth        the number of plies from the start the book covers
+   * @param searchMillis the time spent searching each position, in milliseconds
+   * @param threads      the number of threads searching each position
+   * @param progress     told the number of positions searched so far after each search
+   * @return the move to play in each book position, by position hash
+   * @throws IllegalArgumentException if the board size, budget or thread count is invalid, the
+   *                                  ply counts are negative, or the progress is null
+   */
+  public static Map<Long, Integer> build(int boardSize, int widePlies, int depth,
+                                         long searchMillis, int threads, IntConsumer progress)
+          throws IllegalArgumentException {
+    if (widePlies < 0 || depth < 0) {
+      throw new IllegalArgumentException("Ply counts can't be negative.");
+    }
+    if (progress == null) {
+      throw new IllegalArgumentException("Progress can't be null.");
+    }
+    OpeningBookBuilder builder = new OpeningBookBuilder(widePlies, depth, searchMillis, threads,
+            progress);
+    BitboardHexReversi board = new BitboardHexReversi(boardSize);
+    board.startGame();
+    builder.visit(board, 0);
+    return builder.moves;
+  }
+
+  private void visit(BitboardHexReversi board, int ply) {
+    if (ply >= this.depth || board.isGameOver()
+            || this.moves.containsKey(board.getPositionHash())) {
+      return;
+    }
+    int cellCount = board.getTopology().getCellCount();
+    MoveUndo undo = new MoveUndo(cellCount);
+    PlayerPiece player = board.getCurrentPlayer();
+    if (!board.canPlayerMove(player)) {
+      board.makePass(undo);
+      this.visit(board, ply + 1);
+      board.unmakeMove(undo);
+      return;
+    }
+
+    Coord best = this.strategy.chooseMove(board, player);
+    int bestCell = board.getTopology().cellIndex(best);
+    this.moves.put(board.getPositionHash(), bestCell);
+    this.progress.accept(this.moves.size());
+
+    if (ply < this.widePlies) {
+      int[] replies = new int[cellCount];
+      int count = board.legalMoves(player, replies);
+      for (int index = 0; index < count; index++) {
+        board.makeMove(replies[index], undo);
+        this.visit(board, ply + 1);
+        board.unmakeMove(undo);
+      }
+    }
+    else {
+      board.makeMove(bestCell, undo);
+      this.visit(board, ply + 1);
+      board.unmakeMove(undo);
+    }
+  }
+
+  /**
+   * Builds an opening book and writes it to a file.
+   *
+   * @param args the output file, followed by the optional board size (default 6), number of
+   *             plies in which every move is followed (default 2), book depth in plies
+   *             (default 10), search time per position in milliseconds (default 500), and
+   *             number of search threads (default the number of available cores)
+   * @throws IOException if the book file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      throw new IllegalArgumentException("Usage: OpeningBookBuilder <file> [boardSize] "
+              + "[widePlies] [depth] [searchMillis] [threads]");
+    }
+    Path file = Path.of(args[0]);
+    int boardSize = (args.length > 1) ? Integer.parseInt(args[1]) : 6;
+    int widePlies = (args.length > 2) ? Integer.parseInt(args[2]) : 2;
+    int depth = (args.length > 3) ? Integer.parseInt(args[3]) : 10;
+    long searchMillis = (args.length > 4) ? Long.parseLong(args[4]) : 500;
+    int threads = (args.length > 5) ? Integer.parseInt(args[5])
+            : Runtime.getRuntime().availableProcessors();
+
+    long start = System.nanoTime();
+    Map<Long, Integer> moves = build(boardSize, widePlies, depth, searchMillis, threads,
+        searched -> {
+          if (searched % 100 == 0) {
+            System.out.println(searched + " positions searched");
+          }
+        });
+    OpeningBook.write(file, boardSize, moves);
+    System.out.printf("wrote %d positions to %s in %.1f s%n", moves.size(), file,
+            (System.nanoTime() - start) / 1e9);
+  }
+}
@@ -0,0 +1,357 @@
+package reversi.tools;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.HexTopology;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+import reversi.model.Reversi;
+
+/**
+ * Counts every move path of a given length from a position, as perft does for chess engines, to
+ * check that a board engine generates moves correctly and to measure how fast it does. A player
+ * who can't move while the game isn't over must pass, so a pass counts as a move of its own. A
+ * path that reaches the end of the game before the given length is not counted. Two engines
+ * that agree on the counts for every depth agree on the rules.<br>
+ * The BITBOARD engine makes and takes back moves on a single BitboardHexReversi, while the
+ * HEX_REVERSI engine copies the position into a new HexReversi with continueGame() for every
+ * move, since HexReversi moves can't be taken back. In parallel mode, the top plies of the tree
+ * are split into fork-join tasks, each counting its subtree on its own copy of the position.
+ */
+public final class Perft {
+  /**
+   * The board engines perft can count with.
+   */
+  public enum Engine {
+    BITBOARD,
+    HEX_REVERSI
+  }
+
+  // plies at the top of the tree that are split into tasks in parallel mode
+  private static final int SPLIT_PLIES = 2;
+
+  private Perft() {
+  }
+
+  /**
+   * Counts the move paths of the given length from a position.
+   *
+   * @param position the started position to count from, which is not changed
+   * @param depth    the length of the move paths
+   * @param engine   the board engine to count with
+   * @param threads  the number of threads counting
+   * @return the counts and the time they took
+   * @throws IllegalArgumentException if the depth is negative or the thread count not positive
+   * @throws IllegalStateException    if the position's game hasn't started
+   */
+  public static PerftResult count(ReadonlyReversi position, int depth, Engine engine,
+                                  int threads)
+          throws IllegalArgumentException, IllegalStateException {
+    validate(depth, threads);
+    long start = System.nanoTime();
+    Counter counter = run(new PerftTask(engine, copy(engine, position), depth, false,
+            (threads > 1) ? SPLIT_PLIES : 0), threads);
+    return counter.toResult(System.nanoTime() - start);
+  }
+
+  /**
+   * Counts the move paths of the given length from a position separately for every first move,
+   * which helps to find the move two engines disagree on.
+   *
+   * @param position the started position to count from, which is not changed
+   * @param depth    the length of the move paths, at least 1
+   * @param engine   the board engine to count with
+   * @param threads  the number of threads counting
+   * @return the counts of every first move, in the order the moves were generated, with a null
+   *         key for a pass, or an empty map if the game is over
+   * @throws IllegalArgumentException if the depth is less than 1 or the thread count not positive
+   * @throws IllegalStateException    if the position's game hasn't started
+   */
+  public static Map<Coord, PerftResult> divide(ReadonlyReversi position, int depth,
+                                               Engine engine, int threads)
+          throws IllegalArgumentException, IllegalStateException {
+    validate(depth - 1, threads);
+    Map<Coord, PerftResult> counts = new LinkedHashMap<>();
+    if (position.isGameOver()) {
+      return counts;
+    }
+    PlayerPiece player = position.getCurrentPlayer();
+    List<Coord> moves = new ArrayList<>(position.legalMoves(player));
+    if (moves.isEmpty()) {
+      moves.add(null);
+    }
+    for (Coord move : moves) {
+      long start = System.nanoTime();
+      Reversi child = copy(engine, position);
+      if (move == null) {
+        child.passTurn();
+      }
+      else {
+        child.makeMove(move);
+      }
+      Counter counter = run(new PerftTask(engine, child, depth - 1, move == null,
+              (threads > 1) ? SPLIT_PLIES : 0), threads);
+      counts.put(move, counter.toResult(System.nanoTime() - start));
+    }
+    return counts;
+  }
+
+  private static void validate(int depth, int threads) throws IllegalArgumentException {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth is too small.");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Thread count must be positive.");
+    }
+  }
+
+  // runs a task on the calling thread, or on a pool of the given number of threads
+  private static Counter run(PerftTask task, int threads) {
+    if (threads == 1) {
+      return task.compute();
+    }
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      return pool.invoke(task);
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
+  // copies a position into a new, independent board of the given engine
+  private static Reversi copy(Engine engine, ReadonlyReversi position) {
+    if (engine == Engine.BITBOARD) {
+      return BitboardHexReversi.copyOf(position);
+    }
+    HexReversi copy = new HexReversi(HexTopology.ofHeight(position.getBoardHeight())
+            .getBoardSize());
+    copy.continueGame(position.copyBoard(), position.getCurrentPlayer());
+    return copy;
+  }
+
+  /**
+   * Counts the paths below one position, splitting the top of the tree into subtasks.
+   */
+  private static final class PerftTask extends RecursiveTask<Counter> {
+    private static final long serialVersionUID = 1L;
+
+    private final Engine engine;
+    private final Reversi position;
+    private final int depth;
+    private final boolean passed;
+    private final int splitPlies;
+
+    PerftTask(Engine engine, Reversi position, int depth, boolean passed, int splitPlies) {
+      this.engine = engine;
+      this.position = position;
+      this.depth = depth;
+      this.passed = passed;
+      this.splitPlies = splitPlies;
+    }
+
+    @Override
+    protected Counter compute() {
+      Counter counter = new Counter();
+      if (this.splitPlies == 0 || this.depth <= 1) {
+        if (this.engine == Engine.BITBOARD) {
+          new BitboardCounter((BitboardHexReversi) this.position, counter)
+                  .count(this.depth, this.passed, 0);
+        }
+        else {
+          countCopying(this.position, this.depth, this.passed, counter);
+        }
+        return counter;
+      }
+
+      if (this.position.isGameOver()) {
+        return counter;
+      }
+      List<PerftTask> subtasks = new ArrayList<>();
+      PlayerPiece player = this.position.getCurrentPlayer();
+      List<Coord> moves = this.position.legalMoves(player);
+      if (moves.isEmpty()) {
+        Reversi child = copy(this.engine, this.position);
+        child.passTurn();
+        subtasks.add(new PerftTask(this.engine, child, this.depth - 1, true,
+                this.splitPlies - 1));
+      }
+      for (Coord move : moves) {
+        Reversi child = copy(this.engine, this.position);
+        child.makeMove(move);
+        subtasks.add(new PerftTask(this.engine, child, this.depth - 1, false,
+                this.splitPlies - 1));
+      }
+      for (PerftTask subtask : invokeAll(subtasks)) {
+        counter.add(subtask.join());
+      }
+      return counter;
+    }
+  }
+
+  // counts the paths below a position by copying it for every move
+  private static void countCopying(ReadonlyReversi position, int depth, boolean passed,
+                                   Counter counter) {
+    if (depth == 0) {
+      counter.leaf(passed, position.isGameOver());
+      return;
+    }
+    if (position.isGameOver()) {
+      return;
+    }
+    PlayerPiece player = position.getCurrentPlayer();
+    List<Coord> moves = position.legalMoves(player);
+    if (moves.isEmpty()) {
+      Reversi child = copy(Engine.HEX_REVERSI, position);
+      child.passTurn();
+      countCopying(child, depth - 1, true, counter);
+      return;
+    }
+    for (Coord move : moves) {
+      Reversi child = copy(Engine.HEX_REVERSI, position);
+      child.makeMove(move);
+      countCopying(child, depth - 1, false, counter);
+    }
+  }
+
+  /**
+   * Counts the paths below a position by making and taking back moves on one bitboard, with a
+   * move buffer and undo record for every ply allocated up front.
+   */
+  private static final class BitboardCounter {
+    private final BitboardHexReversi board;
+    private final Counter counter;
+    private final int[][] moveBuffers;
+    private final MoveUndo[] undos;
+
+    BitboardCounter(BitboardHexReversi board, Counter counter) {
+      this.board = board;
+      this.counter = counter;
+      int cellCount = board.getTopology().getCellCount();
+      // every ply either fills a cell or passes, and two passes in a row end the game
+      int maxPly = 2 * cellCount + 2;
+      this.moveBuffers = new int[maxPly][];
+      this.undos = new MoveUndo[maxPly];
+      for (int ply = 0; ply < maxPly; ply++) {
+        this.moveBuffers[ply] = new int[cellCount];
+        this.undos[ply] = new MoveUndo(cellCount);
+      }
+    }
+
+    void count(int depth, boolean passed, int ply) {
+      if (depth == 0) {
+        this.counter.leaf(passed, this.board.isGameOver());
+        return;
+      }
+      if (this.board.isGameOver()) {
+        return;
+      }
+      int[] moves = this.moveBuffers[ply];
+      MoveUndo undo = this.undos[ply];
+      int count = this.board.legalMoves(this.board.getCurrentPlayer(), moves);
+      if (count == 0) {
+        this.board.makePass(undo);
+        this.count(depth - 1, true, ply + 1);
+        this.board.unmakeMove(undo);
+        return;
+      }
+      for (int index = 0; index < count; index++) {
+        this.board.makeMove(moves[index], undo);
+        this.count(depth - 1, false, ply + 1);
+        this.board.unmakeMove(undo);
+      }
+    }
+  }
+
+  /**
+   * Running totals of a count.
+   */
+  private static final class Counter {
+    private long nodes;
+    private long passes;
+    private long gameOvers;
+
+    void leaf(boolean passed, boolean gameOver) {
+      this.nodes++;
+      if (passed) {
+        this.passes++;
+      }
+      if (gameOver) {
+        this.gameOvers++;
+      }
+    }
+
+    void add(Counter other) {
+      this.nodes += other.nodes;
+      this.passes += other.passes;
+      this.gameOvers += other.gameOvers;
+    }
+
+    PerftResult toResult(long elapsedNanos) {
+      return new PerftResult(this.nodes, this.passes, this.gameOvers, elapsedNanos);
+    }
+  }
+
+  /**
+   * Counts the move paths from the start position for every depth up to the given one, and
+   * prints the counts and the speed of every engine asked for. When both engines are run, any
+   * depth at which their counts differ is reported.
+   *
+   * @param args the deepest depth, followed by the optional board size (default 6), engine
+   *             (BITBOARD, HEX_REVERSI or BOTH, default BOTH), number of threads (default 1),
+   *             and the word "divide" to also print the counts of every first move at the
+   *             deepest depth
+   */
+  public static void main(String[] args) {
+    if (args.length < 1) {
+      throw new IllegalArgumentException(
+              "Usage: Perft <depth> [boardSize] [engine|BOTH] [threads] [divide]");
+    }
+    int depth = Integer.parseInt(args[0]);
+    int boardSize = (args.length > 1) ? Integer.parseInt(args[1]) : 6;
+    String engineName = (args.length > 2) ? args[2].toUpperCase() : "BOTH";
+    int threads = (args.length > 3) ? Integer.parseInt(args[3]) : 1;
+    boolean divide = (args.length > 4) && args[4].equalsIgnoreCase("divide");
+    Engine[] engines = engineName.equals("BOTH") ? Engine.values()
+            : new Engine[]{Engine.valueOf(engineName)};
+
+    Reversi start = new HexReversi(boardSize);
+    start.startGame();
+    System.out.printf("board size %d, %d thread(s)%n", boardSize, threads);
+    for (int plies = 1; plies <= depth; plies++) {
+      PerftResult first = null;
+      for (Engine engine : engines) {
+        PerftResult result = count(start, plies, engine, threads);
+        System.out.printf("depth %2d %-11s %,16d nodes %,12d passes %,12d game overs"
+                + " %10.1f ms %,14.0f nodes/s%n", plies, engine, result.nodes, result.passes,
+                result.gameOvers, result.elapsedNanos / 1e6, result.nodesPerSecond());
+        if (first == null) {
+          first = result;
+        }
+        else if (!first.sameCounts(result)) {
+          System.out.printf("depth %2d MISMATCH between engines%n", plies);
+        }
+      }
+    }
+
+    if (divide && depth > 0) {
+      for (Engine engine : engines) {
+        System.out.println("divide " + engine + " at depth " + depth + ":");
+        for (Map.Entry<Coord, PerftResult> entry
+                : divide(start, depth, engine, threads).entrySet()) {
+          String move = (entry.getKey() == null) ? "pass" : entry.getKey().toString();
+          System.out.printf("  %-20s %,16d%n", move, entry.getValue().nodes);
+        }
+      }
+    }
+  }
+}
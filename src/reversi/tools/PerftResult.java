@@ -0,0 +1,60 @@
+package reversi.tools;
+
+/**
+ * The counts of a perft run: the move paths of a given length from a position, and how many of
+ * them end in a pass or with the game over.
+ */
+public final class PerftResult {
+  /** The number of positions reached by a move path of exactly the given depth. */
+  public final long nodes;
+
+  /** The number of those positions whose last move was a pass. */
+  public final long passes;
+
+  /** The number of those positions in which the game is over. */
+  public final long gameOvers;
+
+  /** The wall-clock time of the run, in nanoseconds, or 0 for part of a run. */
+  public final long elapsedNanos;
+
+  /**
+   * Creates the counts of a perft run.
+   *
+   * @param nodes        the number of leaf positions
+   * @param passes       the number of leaf positions reached by a pass
+   * @param gameOvers    the number of leaf positions in which the game is over
+   * @param elapsedNanos the time the run took in nanoseconds
+   */
+  PerftResult(long nodes, long passes, long gameOvers, long elapsedNanos) {
+    this.nodes = nodes;
+    this.passes = passes;
+    this.gameOvers = gameOvers;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Gives the leaf positions counted per second.
+   *
+   * @return the nodes per second, or 0 if no time was measured
+   */
+  public double nodesPerSecond() {
+    return (this.elapsedNanos <= 0) ? 0 : this.nodes * 1e9 / this.elapsedNanos;
+  }
+
+  /**
+   * Returns whether two runs counted the same paths, whatever time they took.
+   *
+   * @param other the other run
+   * @return true if every count is the same
+   */
+  public boolean sameCounts(PerftResult other) {
+    return this.nodes == other.nodes && this.passes == other.passes
+            && this.gameOvers == other.gameOvers;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("nodes: %d, passes: %d, game overs: %d", this.nodes, this.passes,
+            this.gameOvers);
+  }
+}
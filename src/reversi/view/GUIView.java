@@ -17,6 +17,13 @@ public interface GUIView {
    */
   void addFeatureListener(PlayerActions features);
 
+  /**
+   * Adds a listener that is run when the user closes the view.
+   *
+   * @param listener the code to run when the view is closed
+   */
+  void addCloseListener(Runnable listener);
+
   /**
    * Sets the title of the window.
    * @param title the text that the title of the window will be set to.
@@ -1,5 +1,8 @@
 package reversi.view;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 
@@ -35,6 +38,16 @@ public class HexReversiGUIView extends JFrame implements GUIView  {
     this.panel.addFeatureListener(features);
   }
 
+  @Override
+  public void addCloseListener(Runnable listener) {
+    this.addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosing(WindowEvent e) {
+        listener.run();
+      }
+    });
+  }
+
   public void showMessage(String msg) {
     JOptionPane.showMessageDialog(this.panel, msg);
   }
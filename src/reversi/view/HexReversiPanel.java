@@ -101,11 +101,13 @@ public class HexReversiPanel extends JPanel {
   }
 
   private void drawReversiBoard(Graphics2D g2d) {
+    // cells are numbered left to right from the top row, the order they are drawn in
+    int cellIndex = 0;
     for (int row = 0; row < this.model.getBoardHeight(); row++) {
       for (int col = 0; col < this.model.getRowWidth(row); col++) {
-        Point2D center = this.convertIndexToCoords(Coord.coordAt(row, col));
+        Point2D center = this.convertIndexToCoords(row, col);
         this.drawHexagon(g2d, center, CELL_HEIGHT / 2, Color.gray);
-        PlayerPiece cell =  this.model.getPlayerAtCell(Coord.coordAt(row, col));
+        PlayerPiece cell = this.model.getPlayerAtCell(cellIndex++);
         if (cell != PlayerPiece.EMPTY) {
           this.drawPlayer(g2d, center, cell);
         }
@@ -163,10 +165,10 @@ public class HexReversiPanel extends JPanel {
     return ret;
   }
 
-  private Point2D convertIndexToCoords(Coord coords) {
-    double x_offset = (Math.abs(coords.row - this.boardSize + 1) + 1) * CELL_WIDTH / 2;
-    return new Point2D.Double(coords.col * CELL_WIDTH + x_offset,
-            coords.row * CELL_HEIGHT * 3 / 4 + CELL_HEIGHT / 2);
+  private Point2D convertIndexToCoords(int row, int col) {
+    double x_offset = (Math.abs(row - this.boardSize + 1) + 1) * CELL_WIDTH / 2;
+    return new Point2D.Double(col * CELL_WIDTH + x_offset,
+            row * CELL_HEIGHT * 3 / 4 + CELL_HEIGHT / 2);
   }
 
   private Coord convertCoordsToIndex(Point2D point) {
@@ -177,10 +179,7 @@ public class HexReversiPanel extends JPanel {
   }
 
   private boolean isCellValid(Coord cellIndex) {
-    if (cellIndex.row < 0 || cellIndex.row >= this.model.getBoardHeight()) {
-      return false;
-    }
-    return cellIndex.col >= 0 && cellIndex.col < this.model.getRowWidth(cellIndex.row);
+    return this.model.isOnBoard(cellIndex);
   }
 
   public void addFeatureListener(PlayerActions features) {
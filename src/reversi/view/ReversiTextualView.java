@@ -1,6 +1,5 @@
 package reversi.view;
 
-import reversi.model.Coord;
 import reversi.model.PlayerPiece;
 import reversi.model.Reversi;
 
@@ -23,12 +22,13 @@ public class ReversiTextualView implements TextView {
     String blackPlayer = "X";
     String whitePlayer = "0";
 
-    //Draw whole grid first
+    //Draw whole grid first, walking the cells in the order of their cell indices
+    int cell = 0;
     for (int row = 0; row < this.model.getBoardHeight(); row++) {
       text.append(oneSpace.repeat(model.getBoardHeight()
               - this.model.getRowWidth(row)));
       for (int col = 0; col < this.model.getRowWidth(row); col++) {
-        PlayerPiece player = this.model.getPlayerAtCell(Coord.coordAt(row, col));
+        PlayerPiece player = this.model.getPlayerAtCell(cell++);
 
         if (player == PlayerPiece.WHITE) {
           text.append(whitePlayer);
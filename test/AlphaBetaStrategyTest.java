@@ -0,0 +1,133 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.CaptureMax;
+import reversi.strategy.ReversiStrategy;
+import reversi.strategy.SearchStats;
+import reversi.strategy.TranspositionTable;
+
+/**
+ * Test class for the iterative deepening alpha-beta strategy.
+ */
+public class AlphaBetaStrategyTest {
+
+  @Test
+  public void testPassesWhenNoMoves() {
+    Reversi model = new HexReversi(2);
+    model.startGame();
+    Assert.assertNull(new AlphaBetaStrategy(100).chooseMove(model, PlayerPiece.BLACK));
+  }
+
+  @Test
+  public void testChoosesLegalMoveAndReportsStats() {
+    Reversi model = new HexReversi(6);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(200);
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK);
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+
+    SearchStats stats = strategy.getLastSearchStats();
+    Assert.assertTrue(stats.depth >= 1);
+    Assert.assertTrue(stats.nodes > 0);
+    Assert.assertTrue(stats.nodesPerSecond() > 0);
+    Assert.assertTrue("search should stop close to its budget",
+            stats.elapsedNanos < 2_000_000_000L);
+  }
+
+  @Test
+  public void testRejectsInvalidBudget() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new AlphaBetaStrategy(0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new AlphaBetaStrategy(100, 0));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new AlphaBetaStrategy(100, 5, new TranspositionTable(1), 0));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new AlphaBetaStrategy(100, 5, null, 2));
+  }
+
+  @Test
+  public void testParallelSearchPlaysLegalMoves() {
+    Reversi model = new HexReversi(5);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(10_000, 4, new TranspositionTable(4), 3);
+    while (!model.isGameOver()) {
+      Coord move = strategy.chooseMove(model, model.getCurrentPlayer());
+      if (move == null) {
+        model.passTurn();
+      }
+      else {
+        Assert.assertTrue(model.isMoveLegal(model.getCurrentPlayer(), move));
+        Assert.assertTrue(strategy.getLastSearchStats().depth >= 1);
+        model.makeMove(move);
+      }
+    }
+  }
+
+  /**
+   * Pondering on the opponent's position fills the shared table, which the search for the next
+   * move then finds results in, and asking for a move stops the pondering.
+   */
+  @Test
+  public void testPonderingFillsTableForNextMove() throws InterruptedException {
+    Reversi model = new HexReversi(6);
+    model.startGame();
+    TranspositionTable table = new TranspositionTable(4);
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(100, Integer.MAX_VALUE, table);
+    model.makeMove(strategy.chooseMove(model, PlayerPiece.BLACK));
+
+    strategy.ponder(model, PlayerPiece.WHITE);
+    Thread.sleep(200);
+    model.makeMove(model.legalMoves(PlayerPiece.WHITE).get(0));
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK);
+
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+    SearchStats ponderStats = strategy.getLastPonderStats();
+    Assert.assertNotNull(ponderStats);
+    Assert.assertTrue(ponderStats.nodes > 0);
+    Assert.assertTrue(ponderStats.depth >= 1);
+    Assert.assertTrue(table.hitRate() > 0);
+    // stopping again, or when no pondering is running, does nothing
+    strategy.stopPondering();
+  }
+
+  @Test
+  public void testPonderingNeedsTable() {
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(100);
+    strategy.ponder(model, PlayerPiece.BLACK);
+    strategy.stopPondering();
+    Assert.assertNull(strategy.getLastPonderStats());
+  }
+
+  /**
+   * A small board can be searched to the end, so the search should beat the greedy strategy
+   * playing either color.
+   */
+  @Test
+  public void testBeatsCaptureMax() {
+    for (PlayerPiece searcher : new PlayerPiece[]{PlayerPiece.BLACK, PlayerPiece.WHITE}) {
+      Reversi model = new HexReversi(4);
+      model.startGame();
+      ReversiStrategy alphaBeta = new AlphaBetaStrategy(10_000, 8);
+      ReversiStrategy captureMax = new CaptureMax();
+      while (!model.isGameOver()) {
+        PlayerPiece player = model.getCurrentPlayer();
+        ReversiStrategy strategy = (player == searcher) ? alphaBeta : captureMax;
+        Coord move = strategy.chooseMove(model, player);
+        if (move == null) {
+          model.passTurn();
+        }
+        else {
+          model.makeMove(move);
+        }
+      }
+      PlayerPiece other = (searcher == PlayerPiece.BLACK) ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+      Assert.assertTrue(model.getPlayerScore(searcher) > model.getPlayerScore(other));
+    }
+  }
+}
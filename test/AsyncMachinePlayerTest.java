@@ -0,0 +1,215 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import reversi.PlayerCreator;
+import reversi.controller.AsyncMachinePlayer;
+import reversi.controller.HumanPlayer;
+import reversi.controller.MachinePlayer;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+import reversi.model.Reversi;
+import reversi.strategy.CaptureMax;
+import reversi.strategy.PonderingStrategy;
+import reversi.strategy.ReversiStrategy;
+import reversi.view.PlayerActions;
+
+/**
+ * Test class for the machine player that chooses its moves in the background. The test thread
+ * plays the part of the event dispatch thread, running the results the player posts to it.
+ */
+public class AsyncMachinePlayerTest {
+  private Reversi model;
+  private BlockingQueue<Runnable> posted;
+  private List<Coord> played;
+
+  @Before
+  public void init() {
+    this.model = new HexReversi(4);
+    this.posted = new LinkedBlockingQueue<>();
+    this.played = new ArrayList<>();
+  }
+
+  // creates the black player with the given strategy, and a human white player
+  private AsyncMachinePlayer createPlayer(ReversiStrategy strategy) {
+    return this.createPlayer(strategy, false);
+  }
+
+  private AsyncMachinePlayer createPlayer(ReversiStrategy strategy, boolean ponder) {
+    AsyncMachinePlayer player = new AsyncMachinePlayer(this.model, strategy, this.posted::add,
+            ponder);
+    this.model.addPlayer(player);
+    this.model.addPlayer(new HumanPlayer(this.model));
+    player.initializePiece();
+    player.addListener(new PlayerActions() {
+      @Override
+      public void passMove() {
+        played.add(null);
+      }
+
+      @Override
+      public void playMove(Coord coord) {
+        played.add(coord);
+      }
+    });
+    this.model.startGame();
+    return player;
+  }
+
+  // runs the next result the player posts
+  private void runPosted() throws InterruptedException {
+    Runnable result = this.posted.poll(5, TimeUnit.SECONDS);
+    Assert.assertNotNull(result);
+    result.run();
+  }
+
+  @Test
+  public void testPlaysChosenMoveOnPostingThread() throws InterruptedException {
+    AsyncMachinePlayer player = this.createPlayer(new CaptureMax());
+    player.requestMove();
+    // asking again for the same position must not start a second search
+    player.requestMove();
+    this.runPosted();
+    Assert.assertEquals(List.of(new CaptureMax().chooseMove(this.model, PlayerPiece.BLACK)),
+            this.played);
+    Assert.assertNull(this.posted.poll(100, TimeUnit.MILLISECONDS));
+    player.stop();
+  }
+
+  @Test
+  public void testDropsMoveForChangedPosition() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncMachinePlayer player = this.createPlayer(new BlockedStrategy(release));
+    player.requestMove();
+    // the requesting thread isn't blocked, and the game moves on while the search runs
+    this.model.makeMove(this.model.legalMoves(PlayerPiece.BLACK).get(1));
+    release.countDown();
+    this.runPosted();
+    Assert.assertTrue(this.played.isEmpty());
+    player.stop();
+  }
+
+  @Test
+  public void testStopDropsPendingMove() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    AsyncMachinePlayer player = this.createPlayer(new BlockedStrategy(release));
+    player.requestMove();
+    player.stop();
+    release.countDown();
+    Runnable result = this.posted.poll(500, TimeUnit.MILLISECONDS);
+    if (result != null) {
+      result.run();
+    }
+    Assert.assertTrue(this.played.isEmpty());
+    // a stopped player ignores later requests
+    player.requestMove();
+    Assert.assertNull(this.posted.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testStrategyFailureIsRethrownOnPostingThread() throws InterruptedException {
+    AsyncMachinePlayer player = this.createPlayer((model, forWhom) -> {
+      throw new IllegalStateException("strategy failed");
+    });
+    player.requestMove();
+    Runnable result = this.posted.poll(5, TimeUnit.SECONDS);
+    Assert.assertNotNull(result);
+    Assert.assertThrows(IllegalStateException.class, result::run);
+    player.stop();
+  }
+
+  @Test
+  public void testPondersAfterOwnMoveUntilStopped() throws InterruptedException {
+    RecordingPonderer strategy = new RecordingPonderer();
+    AsyncMachinePlayer player = this.createPlayer(strategy, true);
+    player.addListener(new PlayerActions() {
+      @Override
+      public void passMove() {
+        model.passTurn();
+      }
+
+      @Override
+      public void playMove(Coord coord) {
+        model.makeMove(coord);
+      }
+    });
+    player.requestMove();
+    this.runPosted();
+    Assert.assertEquals(PlayerPiece.WHITE, this.model.getCurrentPlayer());
+    Assert.assertEquals(List.of(PlayerPiece.WHITE), strategy.pondered);
+    player.stop();
+    Assert.assertTrue(strategy.stopped);
+  }
+
+  @Test
+  public void testCreatorBuildsBackgroundOrSynchronousPlayers() {
+    Assert.assertTrue(PlayerCreator.create(this.model, PlayerCreator.PlayerType.CAPTURE_MAX)
+            instanceof AsyncMachinePlayer);
+    Assert.assertTrue(PlayerCreator.create(this.model, PlayerCreator.PlayerType.CAPTURE_MAX,
+            false) instanceof MachinePlayer);
+    Assert.assertTrue(PlayerCreator.create(this.model, PlayerCreator.PlayerType.HUMAN, false)
+            instanceof HumanPlayer);
+  }
+
+  /**
+   * Waits for a latch before choosing the first legal move, ignoring interrupts like a strategy
+   * searching until its deadline would.
+   */
+  private static final class BlockedStrategy implements ReversiStrategy {
+    private final CountDownLatch release;
+
+    BlockedStrategy(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom) {
+      boolean interrupted = false;
+      while (true) {
+        try {
+          this.release.await();
+          break;
+        }
+        catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return model.legalMoves(forWhom).get(0);
+    }
+  }
+
+  /**
+   * Plays the first legal move and records what it is asked to ponder.
+   */
+  private static final class RecordingPonderer implements PonderingStrategy {
+    private final List<PlayerPiece> pondered = new ArrayList<>();
+    private volatile boolean stopped;
+
+    @Override
+    public Coord chooseMove(ReadonlyReversi model, PlayerPiece forWhom) {
+      return model.legalMoves(forWhom).get(0);
+    }
+
+    @Override
+    public void ponder(ReadonlyReversi model, PlayerPiece opponent) {
+      this.pondered.add(opponent);
+    }
+
+    @Override
+    public void stopPondering() {
+      this.stopped = true;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import reversi.PlayerCreator;
+import reversi.strategy.CaptureMax;
+import reversi.tools.BatchResult;
+import reversi.tools.BatchRunner;
+
+/**
+ * Test class for the headless batch game runner.
+ */
+public class BatchRunnerTest {
+
+  /**
+   * CaptureMax always plays the same game against itself, so swapping colors every game must
+   * split the wins evenly between the two players.
+   */
+  @Test
+  public void testMirrorMatch() {
+    BatchRunner runner = new BatchRunner(CaptureMax::new, CaptureMax::new, 4);
+    BatchResult result = runner.run(8, 3);
+    Assert.assertEquals(8, result.games);
+    Assert.assertEquals(result.games, result.winsA + result.winsB + result.draws);
+    Assert.assertEquals(result.winsA, result.winsB);
+    Assert.assertEquals(0, result.averageDifferential, 1e-9);
+    Assert.assertTrue(result.gamesPerSecond() > 0);
+    Assert.assertTrue(result.moveCount() > 8);
+    Assert.assertTrue(result.moveLatencyPercentile(50) <= result.moveLatencyPercentile(99));
+    Assert.assertTrue(result.moveLatencyPercentile(99) <= result.moveLatencyPercentile(100));
+  }
+
+  @Test
+  public void testCreatesStrategiesForMachinePlayers() {
+    Assert.assertTrue(PlayerCreator.createStrategy(PlayerCreator.PlayerType.CAPTURE_MAX)
+            instanceof CaptureMax);
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> PlayerCreator.createStrategy(PlayerCreator.PlayerType.HUMAN));
+    Assert.assertNotNull(PlayerCreator.createStrategy(PlayerCreator.PlayerType.MCTS, 1));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> PlayerCreator.createStrategy(PlayerCreator.PlayerType.ALPHA_BETA, 0));
+  }
+
+  @Test
+  public void testRejectsInvalidArguments() {
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new BatchRunner(null, CaptureMax::new, 4));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new BatchRunner(CaptureMax::new, CaptureMax::new, 1));
+    BatchRunner runner = new BatchRunner(CaptureMax::new, CaptureMax::new, 4);
+    Assert.assertThrows(IllegalArgumentException.class, () -> runner.run(0, 1));
+  }
+}
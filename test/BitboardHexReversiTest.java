@@ -0,0 +1,215 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.HexTopology;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.model.ZobristKeys;
+import reversi.view.ReversiTextualView;
+
+/**
+ * Test class for the bit set backed BitboardHexReversi model. Most of the behaviour is checked by
+ * playing the same games on a HexReversi model and making sure both boards always agree.
+ */
+public class BitboardHexReversiTest {
+
+  /**
+   * Plays random games on both implementations at once and compares every observable part of
+   * the two models after each move.
+   */
+  @Test
+  public void testRandomGamesMatchHexReversi() {
+    Random random = new Random(42);
+    for (int boardSize = 2; boardSize <= 8; boardSize++) {
+      for (int game = 0; game < 10; game++) {
+        Reversi expected = new HexReversi(boardSize);
+        Reversi actual = new BitboardHexReversi(boardSize);
+        expected.startGame();
+        actual.startGame();
+        assertSameState(expected, actual);
+
+        while (!expected.isGameOver()) {
+          List<Coord> moves = legalMoves(expected);
+          if (moves.isEmpty()) {
+            expected.passTurn();
+            actual.passTurn();
+          }
+          else {
+            Coord move = moves.get(random.nextInt(moves.size()));
+            expected.makeMove(move);
+            actual.makeMove(move);
+          }
+          assertSameState(expected, actual);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTextualRendering() {
+    Reversi model = new BitboardHexReversi(4);
+    model.startGame();
+    ReversiTextualView view = new ReversiTextualView(model);
+
+    Assert.assertTrue(view.toString().contains(
+            "   _ _ _ _" + System.lineSeparator() + "  _ _ _ _ _" + System.lineSeparator()
+                    + " _ _ X 0 _ _" + System.lineSeparator()
+                    + "_ _ 0 _ X _ _" + System.lineSeparator()
+                    + " _ _ X 0 _ _" + System.lineSeparator()
+                    + "  _ _ _ _ _" + System.lineSeparator()
+                    + "   _ _ _ _"));
+  }
+
+  @Test
+  public void testInvalidMoves() {
+    Reversi model = new BitboardHexReversi(3);
+    Assert.assertThrows(IllegalStateException.class,
+        () -> model.makeMove(Coord.coordAt(1, 0)));
+    model.startGame();
+    Assert.assertThrows(IllegalStateException.class,
+        () -> model.makeMove(Coord.coordAt(1, 1)));
+    Assert.assertThrows(IllegalStateException.class,
+        () -> model.makeMove(Coord.coordAt(0, 0)));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> model.makeMove(Coord.coordAt(0, 3)));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> model.makeMove(Coord.coordAt(-1, 3)));
+    Assert.assertEquals(PlayerPiece.BLACK, model.getCurrentPlayer());
+  }
+
+  @Test
+  public void testContinueGameCopiesBoard() {
+    Reversi source = new HexReversi(5);
+    source.startGame();
+    source.makeMove(Coord.coordAt(2, 3));
+
+    BitboardHexReversi model = new BitboardHexReversi(3);
+    model.continueGame(source.copyBoard(), source.getCurrentPlayer());
+    Assert.assertEquals(9, model.getBoardHeight());
+    assertSameState(source, model);
+  }
+
+  /**
+   * Plays random lines with pooled undo records, checking each move against the regular makeMove
+   * and that taking every move back restores the original position exactly.
+   */
+  @Test
+  public void testMakeAndUnmakeRestoresPosition() {
+    Random random = new Random(7);
+    BitboardHexReversi board = new BitboardHexReversi(5);
+    board.startGame();
+    int cellCount = board.getTopology().getCellCount();
+    MoveUndo[] undos = new MoveUndo[40];
+    for (int ply = 0; ply < undos.length; ply++) {
+      undos[ply] = new MoveUndo(cellCount);
+    }
+    int[] moves = new int[cellCount];
+
+    for (int line = 0; line < 50; line++) {
+      List<List<PlayerPiece>> start = board.copyBoard();
+      long startHash = board.getPositionHash();
+      PlayerPiece startPlayer = board.getCurrentPlayer();
+      int ply = 0;
+      while (ply < undos.length && board.getConsecutivePasses() < 2) {
+        BitboardHexReversi expected = BitboardHexReversi.copyOf(board);
+        int count = board.legalMoves(board.getCurrentPlayer(), moves);
+        if (count == 0) {
+          board.makePass(undos[ply++]);
+          continue;
+        }
+        int move = moves[random.nextInt(count)];
+        expected.makeMove(board.getTopology().coordOf(move));
+        MoveUndo undo = board.makeMove(move, undos[ply++]);
+        Assert.assertEquals(move, undo.getCell());
+        Assert.assertEquals(expected.copyBoard(), board.copyBoard());
+        Assert.assertEquals(expected.getCurrentPlayer(), board.getCurrentPlayer());
+        Assert.assertEquals(expected.getPositionHash(), board.getPositionHash());
+      }
+      while (ply > 0) {
+        board.unmakeMove(undos[--ply]);
+      }
+      Assert.assertEquals(start, board.copyBoard());
+      Assert.assertEquals(startHash, board.getPositionHash());
+      Assert.assertEquals(startPlayer, board.getCurrentPlayer());
+      Assert.assertEquals(0, board.getConsecutivePasses());
+    }
+    Assert.assertThrows(IllegalStateException.class, () -> board.unmakeMove(undos[0]));
+    Assert.assertThrows(IllegalStateException.class, () -> board.makeMove(0, undos[0]));
+    Assert.assertThrows(IllegalArgumentException.class, () -> board.makeMove(-1, undos[0]));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> board.makeMove(cellCount, undos[0]));
+    long hash = board.getPositionHash();
+    board.legalMoves(board.getCurrentPlayer(), moves);
+    MoveUndo large = new MoveUndo(200);
+    Assert.assertThrows(IllegalStateException.class, () -> board.makeMove(moves[0], large));
+    Assert.assertThrows(IllegalStateException.class, () -> board.makePass(large));
+    Assert.assertEquals(hash, board.getPositionHash());
+  }
+
+  /**
+   * An illegal move tried with a record that holds a move leaves the record untouched, so the
+   * move can still be taken back.
+   */
+  @Test
+  public void testIllegalMoveKeepsUndoRecord() {
+    BitboardHexReversi board = new BitboardHexReversi(4);
+    board.startGame();
+    List<List<PlayerPiece>> start = board.copyBoard();
+    long startHash = board.getPositionHash();
+    int[] moves = new int[board.getTopology().getCellCount()];
+    board.legalMoves(PlayerPiece.BLACK, moves);
+    MoveUndo undo = board.makeMove(moves[0], new MoveUndo(moves.length));
+
+    Assert.assertThrows(IllegalStateException.class, () -> board.makeMove(moves[0], undo));
+    Assert.assertThrows(IllegalArgumentException.class, () -> board.makeMove(-1, undo));
+    Assert.assertEquals(moves[0], undo.getCell());
+    board.unmakeMove(undo);
+    Assert.assertEquals(start, board.copyBoard());
+    Assert.assertEquals(startHash, board.getPositionHash());
+    Assert.assertEquals(PlayerPiece.BLACK, board.getCurrentPlayer());
+  }
+
+  private static List<Coord> legalMoves(Reversi model) {
+    List<Coord> moves = new ArrayList<>();
+    for (int row = 0; row < model.getBoardHeight(); row++) {
+      for (int col = 0; col < model.getRowWidth(row); col++) {
+        if (model.isMoveLegal(model.getCurrentPlayer(), Coord.coordAt(row, col))) {
+          moves.add(Coord.coordAt(row, col));
+        }
+      }
+    }
+    return moves;
+  }
+
+  private static void assertSameState(Reversi expected, Reversi actual) {
+    Assert.assertEquals(expected.getBoardHeight(), actual.getBoardHeight());
+    Assert.assertEquals(expected.copyBoard(), actual.copyBoard());
+    Assert.assertEquals(expected.getCurrentPlayer(), actual.getCurrentPlayer());
+    Assert.assertEquals(expected.isGameOver(), actual.isGameOver());
+    Assert.assertEquals(expected.getPositionHash(), actual.getPositionHash());
+    Assert.assertEquals(ZobristKeys.of(HexTopology.ofHeight(expected.getBoardHeight()))
+            .hash(expected), expected.getPositionHash());
+    for (PlayerPiece player : new PlayerPiece[]{PlayerPiece.BLACK, PlayerPiece.WHITE}) {
+      Assert.assertEquals(expected.getPlayerScore(player), actual.getPlayerScore(player));
+      Assert.assertEquals(expected.canPlayerMove(player), actual.canPlayerMove(player));
+      Assert.assertEquals(new HashSet<>(expected.legalMoves(player)),
+              new HashSet<>(actual.legalMoves(player)));
+      for (int row = 0; row < expected.getBoardHeight(); row++) {
+        for (int col = 0; col < expected.getRowWidth(row); col++) {
+          Coord coord = Coord.coordAt(row, col);
+          Assert.assertEquals(expected.isMoveLegal(player, coord),
+                  actual.isMoveLegal(player, coord));
+        }
+      }
+    }
+  }
+}
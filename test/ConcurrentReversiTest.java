@@ -0,0 +1,162 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.ConcurrentReversi;
+import reversi.model.Coord;
+import reversi.model.PlayerPiece;
+import reversi.model.ReadonlyReversi;
+import reversi.model.Score;
+import reversi.strategy.CaptureMax;
+
+/**
+ * Tests for the ConcurrentReversi model, including a stress test that reads the game from several
+ * threads while a writer plays full games on it.
+ */
+public class ConcurrentReversiTest {
+  private static final int BOARD_SIZE = 5;
+  private static final int GAMES = 30;
+  private static final int READERS = 3;
+
+  /**
+   * Tests that readers hammering a game while a writer plays it only ever see whole positions:
+   * the board, score, hash and player to move read together always belong to the same position.
+   */
+  @Test
+  public void testReadersNeverSeeHalfAppliedMoves() throws InterruptedException {
+    AtomicReference<ConcurrentReversi> current = new AtomicReference<>();
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<String> failure = new AtomicReference<>();
+    AtomicLong reads = new AtomicLong();
+
+    List<Thread> readers = new ArrayList<>();
+    for (int reader = 0; reader < READERS; reader++) {
+      Thread thread = new Thread(() -> {
+        while (!done.get()) {
+          ConcurrentReversi model = current.get();
+          if (model == null) {
+            continue;
+          }
+          try {
+            String problem = model.read(ConcurrentReversiTest::checkPosition);
+            if (problem != null) {
+              failure.compareAndSet(null, problem);
+            }
+            // single queries must never fail because a move is being applied
+            model.getScore();
+            model.legalMoves(model.getCurrentPlayer());
+            model.isMoveLegal(PlayerPiece.BLACK, 0);
+            reads.incrementAndGet();
+          }
+          catch (Throwable t) {
+            // a reader thread dying would otherwise go unnoticed
+            failure.compareAndSet(null, t.toString());
+          }
+        }
+      });
+      thread.setDaemon(true);
+      thread.start();
+      readers.add(thread);
+    }
+
+    Random random = new Random(17);
+    try {
+      for (int game = 0; game < GAMES; game++) {
+        ConcurrentReversi model = new ConcurrentReversi(BOARD_SIZE);
+        model.startGame();
+        current.set(model);
+        while (!model.isGameOver()) {
+          List<Coord> moves = model.legalMoves(model.getCurrentPlayer());
+          if (moves.isEmpty()) {
+            model.passTurn();
+          }
+          else {
+            model.makeMove(moves.get(random.nextInt(moves.size())));
+          }
+          // leaves the readers time to run while the game is both changing and standing still
+          Thread.yield();
+        }
+      }
+    }
+    finally {
+      done.set(true);
+      for (Thread reader : readers) {
+        reader.join(10_000);
+      }
+    }
+    Assert.assertNull(failure.get(), failure.get());
+    Assert.assertTrue(reads.get() > 0);
+  }
+
+  // checks that the answers of several queries belong to one position, or describes the problem
+  private static String checkPosition(ReadonlyReversi model) {
+    List<List<PlayerPiece>> board = model.copyBoard();
+    Score score = model.getScore();
+    long hash = model.getPositionHash();
+    PlayerPiece player = model.getCurrentPlayer();
+    int black = 0;
+    int white = 0;
+    for (List<PlayerPiece> row : board) {
+      for (PlayerPiece cell : row) {
+        black += (cell == PlayerPiece.BLACK) ? 1 : 0;
+        white += (cell == PlayerPiece.WHITE) ? 1 : 0;
+      }
+    }
+    if (black != score.black || white != score.white) {
+      return "Board " + black + "/" + white + " doesn't match score " + score;
+    }
+    BitboardHexReversi copy = new BitboardHexReversi(BOARD_SIZE);
+    copy.continueGame(board, player);
+    if (copy.getPositionHash() != hash) {
+      return "Hash doesn't match the board and player to move.";
+    }
+    return null;
+  }
+
+  /**
+   * Tests that a listener can move from inside yourTurn(), as a machine player does, since the
+   * listeners are only notified once the write lock is released.
+   */
+  @Test
+  public void testListenersCanMoveWhenNotified() {
+    ConcurrentReversi model = new ConcurrentReversi(4);
+    CaptureMax strategy = new CaptureMax();
+    model.addFeatures(() -> {
+      if (model.isGameOver()) {
+        return;
+      }
+      Coord move = strategy.chooseMove(model, model.getCurrentPlayer());
+      if (move == null) {
+        model.passTurn();
+      }
+      else {
+        model.makeMove(move);
+      }
+    });
+    model.startGame();
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertEquals(model.getScore(), model.getSnapshot().getScore());
+    Assert.assertTrue(model.getTurnDispatcher().getTurnCount() > 0);
+  }
+
+  /**
+   * Tests that queries that fail on their own still throw, rather than being retried as if a
+   * move had overlapped them.
+   */
+  @Test
+  public void testFailingQueriesStillThrow() {
+    ConcurrentReversi model = new ConcurrentReversi(4);
+    Assert.assertThrows(IllegalStateException.class, model::getCurrentPlayer);
+    model.startGame();
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> model.getPlayerAtCell(Coord.coordAt(-1, 0)));
+    Assert.assertEquals(0, model.getReadRetries());
+  }
+}
@@ -0,0 +1,160 @@
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.MoveUndo;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.CaptureMax;
+import reversi.strategy.EndgameStrategy;
+import reversi.strategy.MctsStrategy;
+import reversi.strategy.ReversiStrategy;
+
+/**
+ * Test class for the exact endgame strategy.
+ */
+public class EndgameStrategyTest {
+
+  /**
+   * Plays random moves until at most the given number of cells are empty.
+   */
+  private static Reversi randomPosition(long seed, int empties) {
+    Random random = new Random(seed);
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    while (!model.isGameOver()
+            && 37 - model.getPlayerScore(PlayerPiece.BLACK)
+            - model.getPlayerScore(PlayerPiece.WHITE) > empties) {
+      List<Coord> moves = model.legalMoves(model.getCurrentPlayer());
+      if (moves.isEmpty()) {
+        model.passTurn();
+      }
+      else {
+        model.makeMove(moves.get(random.nextInt(moves.size())));
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Finds the final disc differential for the player to move by trying every line of play.
+   */
+  private static int bruteForce(BitboardHexReversi board) {
+    PlayerPiece player = board.getCurrentPlayer();
+    PlayerPiece other = (player == PlayerPiece.BLACK) ? PlayerPiece.WHITE : PlayerPiece.BLACK;
+    int[] moves = new int[board.getTopology().getCellCount()];
+    int count = board.legalMoves(player, moves);
+    MoveUndo undo = new MoveUndo(moves.length);
+    if (count == 0) {
+      if (board.getConsecutivePasses() > 0) {
+        return board.getPlayerScore(player) - board.getPlayerScore(other);
+      }
+      board.makePass(undo);
+      int score = -bruteForce(board);
+      board.unmakeMove(undo);
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (int index = 0; index < count; index++) {
+      board.makeMove(moves[index], undo);
+      best = Math.max(best, -bruteForce(board));
+      board.unmakeMove(undo);
+    }
+    return best;
+  }
+
+  @Test
+  public void testSolvesExactly() {
+    int solved = 0;
+    for (long seed = 0; seed < 20; seed++) {
+      Reversi model = randomPosition(seed, 12);
+      PlayerPiece player = model.getCurrentPlayer();
+      if (model.isGameOver() || !model.canPlayerMove(player)) {
+        continue;
+      }
+      EndgameStrategy strategy = new EndgameStrategy(new CaptureMax(), 12, 60_000);
+      Coord move = strategy.chooseMove(model, player);
+      Assert.assertTrue(model.isMoveLegal(player, move));
+
+      int expected = bruteForce(BitboardHexReversi.copyOf(model));
+      Assert.assertEquals(Integer.valueOf(expected), strategy.getLastSolvedScore());
+
+      // the chosen move must keep the best result
+      BitboardHexReversi board = BitboardHexReversi.copyOf(model);
+      board.makeMove(move);
+      Assert.assertEquals(expected, -bruteForce(board));
+      solved++;
+    }
+    Assert.assertTrue(solved > 10);
+  }
+
+  @Test
+  public void testUsesFallbackWithManyEmptyCells() {
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    Coord marker = Coord.coordAt(0, 1);
+    ReversiStrategy fallback = (position, player) -> marker;
+    EndgameStrategy strategy = new EndgameStrategy(fallback, 8, 60_000);
+    Assert.assertSame(marker, strategy.chooseMove(model, PlayerPiece.BLACK));
+    Assert.assertNull(strategy.getLastSolvedScore());
+  }
+
+  /**
+   * An alpha-beta fallback after a solve that ran out of time should only get the rest of its
+   * budget, so the turn doesn't take the solve's budget and the fallback's one after another.
+   */
+  @Test
+  public void testFallbackAfterAbortedSolveSharesBudget() {
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    EndgameStrategy strategy = new EndgameStrategy(new AlphaBetaStrategy(400), 40, 200);
+    long start = System.nanoTime();
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK);
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+    Assert.assertNull(strategy.getLastSolvedScore());
+    Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 550);
+  }
+
+  @Test
+  public void testMctsFallbackAfterAbortedSolveSharesBudget() {
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    EndgameStrategy strategy = new EndgameStrategy(new MctsStrategy(400), 40, 200);
+    Assert.assertEquals(400, strategy.getTimeBudgetMillis());
+    long start = System.nanoTime();
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK);
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+    Assert.assertNull(strategy.getLastSolvedScore());
+    Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 550);
+  }
+
+  @Test
+  public void testDeadlineCutsSolveAndFallback() {
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    EndgameStrategy strategy = new EndgameStrategy(new AlphaBetaStrategy(2000), 40, 1000);
+    long start = System.nanoTime();
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK, start + 200_000_000L);
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+    Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 350);
+  }
+
+  @Test
+  public void testRejectsInvalidArguments() {
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new EndgameStrategy(null, 8, 100));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new EndgameStrategy(new CaptureMax(), -1, 100));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new EndgameStrategy(new CaptureMax(), 8, 0));
+  }
+}
@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Score;
+import reversi.record.GameRecord;
+import reversi.record.GameRecordReader;
+import reversi.record.GameRecordWriter;
+import reversi.strategy.CaptureMax;
+import reversi.strategy.MctsStrategy;
+import reversi.tools.BatchRunner;
+
+/**
+ * Test class for the binary game record format and its streaming reader and writer.
+ */
+public class GameRecordTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Games archived by the batch runner should read back in order, replay to their recorded
+   * results, and take little more than a byte per move.
+   */
+  @Test
+  public void testArchivedGamesReplay() throws IOException {
+    Path file = this.folder.newFolder().toPath().resolve("games.hxg");
+    BatchRunner runner = new BatchRunner(CaptureMax::new,
+        () -> new MctsStrategy(1000, 30, 1), 5);
+    try (GameRecordWriter archive = GameRecordWriter.open(file)) {
+      runner.run(12, 2, archive);
+      Assert.assertEquals(12, archive.getRecordCount());
+    }
+
+    long moves = 0;
+    int games = 0;
+    try (GameRecordReader reader = GameRecordReader.open(file)) {
+      for (GameRecord record : reader) {
+        Assert.assertEquals(5, record.getBoardSize());
+        BitboardHexReversi end = record.positionAfter(record.getMoveCount());
+        Assert.assertTrue(end.isGameOver());
+        Assert.assertEquals(record.getResult(), end.getScore());
+        moves += record.getMoveCount();
+        games++;
+      }
+      Assert.assertNull(reader.read());
+    }
+    Assert.assertEquals(12, games);
+    Assert.assertTrue(Files.size(file) < 4 + moves + 8 * games);
+  }
+
+  /**
+   * Reopening a record file appends to it, and records larger than the buffers of the writer and
+   * reader are kept whole.
+   */
+  @Test
+  public void testAppendAndLargeRecords() throws IOException {
+    Path file = this.folder.newFolder().toPath().resolve("games.hxg");
+    GameRecord small = GameRecord.of(4, new int[]{GameRecord.PASS, 0, 36},
+            Score.scoreOf(10, 20, 7));
+    int[] manyMoves = new int[100_000];
+    for (int ply = 0; ply < manyMoves.length; ply++) {
+      manyMoves[ply] = (ply % 3 == 0) ? GameRecord.PASS : ply % 1000;
+    }
+    GameRecord large = GameRecord.of(30, manyMoves, Score.scoreOf(1000, 600, 1011));
+
+    try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+      writer.write(small);
+      writer.write(large);
+    }
+    try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+      writer.write(small);
+    }
+
+    List<GameRecord> read = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+    try (GameRecordReader reader = GameRecordReader.open(file)) {
+      offsets.add(reader.getOffset());
+      for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+        read.add(record);
+        offsets.add(reader.getOffset());
+      }
+    }
+    Assert.assertEquals(Arrays.asList(small, large, small), read);
+    Assert.assertArrayEquals(manyMoves, read.get(1).getMoves());
+    Assert.assertEquals(Long.valueOf(4), offsets.get(0));
+    Assert.assertEquals(Long.valueOf(Files.size(file)), offsets.get(3));
+  }
+
+  @Test
+  public void testRejectsTruncatedAndOtherFiles() throws IOException {
+    Path file = this.folder.newFolder().toPath().resolve("games.hxg");
+    try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+      writer.write(GameRecord.of(3, new int[]{0, 1, 2}, Score.scoreOf(5, 3, 11)));
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 1);
+    }
+    try (GameRecordReader reader = GameRecordReader.open(file)) {
+      Assert.assertThrows(IOException.class, reader::read);
+    }
+    try (GameRecordReader reader = GameRecordReader.open(file)) {
+      Assert.assertThrows(UncheckedIOException.class, () -> reader.iterator().hasNext());
+    }
+
+    // length prefixes claiming one and almost two gigabytes, followed by a few bytes
+    Path corrupt = this.folder.newFile("corrupt.hxg").toPath();
+    for (byte[] prefix : new byte[][]{{-128, -128, -128, -128, 0x04}, {-1, -1, -1, -1, 0x07}}) {
+      ByteBuffer bytes = ByteBuffer.allocate(12).putInt(GameRecordWriter.MAGIC).put(prefix);
+      Files.write(corrupt, bytes.put(new byte[]{3, 1, 0}).array());
+      try (GameRecordReader reader = GameRecordReader.open(corrupt)) {
+        Assert.assertThrows(IOException.class, reader::read);
+      }
+    }
+
+    Path other = this.folder.newFile("other.bin").toPath();
+    Files.write(other, new byte[]{1, 2, 3, 4, 5});
+    Assert.assertThrows(IOException.class, () -> GameRecordReader.open(other));
+    Assert.assertThrows(IOException.class, () -> GameRecordWriter.open(other));
+  }
+
+  @Test
+  public void testRejectsInvalidRecords() {
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> GameRecord.of(3, new int[]{19}, Score.scoreOf(5, 3, 11)));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> GameRecord.of(3, new int[]{-2}, Score.scoreOf(5, 3, 11)));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> GameRecord.of(3, new int[0], Score.scoreOf(5, 3, 10)));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> GameRecord.of(1, new int[0], Score.scoreOf(0, 0, 1)));
+  }
+}
@@ -2,31 +2,101 @@
 
 import org.junit.Test;
 import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
+import reversi.model.BitboardHexReversi;
 import reversi.model.Coord;
 import reversi.model.HexReversi;
+import reversi.model.HexTopology;
 import reversi.model.MockReversi;
 import reversi.model.PlayerPiece;
+import reversi.model.PositionSnapshot;
 import reversi.model.Reversi;
+import reversi.model.Score;
 import reversi.strategy.CaptureMax;
 import reversi.view.ReversiTextualView;
 import reversi.view.TextView;
 
 /**
- * Test class for testing the functionality of the HexReversi model.
+ * Test class for testing the functionality of the HexReversi model. Every test that only uses the
+ * Reversi interface runs against both HexReversi and BitboardHexReversi, so the two stay
+ * interchangeable.
  */
+@RunWith(Parameterized.class)
 public class HexReversiTest {
+  private final Function<Integer, Reversi> factory;
+  private final ModelLoader loader;
+
+  /**
+   * Creates the tests for one model implementation.
+   *
+   * @param name    the name of the implementation, shown in the test names
+   * @param factory creates an unstarted model of the given board size
+   * @param loader  creates a model continuing the given board
+   */
+  public HexReversiTest(String name, Function<Integer, Reversi> factory, ModelLoader loader) {
+    this.factory = factory;
+    this.loader = loader;
+  }
+
+  /**
+   * Gives the model implementations the tests run against.
+   *
+   * @return the name, factory and loader of each implementation
+   */
+  @Parameterized.Parameters(name = "{0}")
+  public static List<Object[]> models() {
+    Function<Integer, Reversi> hex = HexReversi::new;
+    ModelLoader hexLoader = (boardSize, board, currentPlayer) -> {
+      HexReversi model = new HexReversi(boardSize);
+      model.continueGame(board, currentPlayer);
+      return model;
+    };
+    Function<Integer, Reversi> bitboard = BitboardHexReversi::new;
+    ModelLoader bitboardLoader = (boardSize, board, currentPlayer) -> {
+      BitboardHexReversi model = new BitboardHexReversi(boardSize);
+      model.continueGame(board, currentPlayer);
+      return model;
+    };
+    return List.of(new Object[]{"HexReversi", hex, hexLoader},
+        new Object[]{"BitboardHexReversi", bitboard, bitboardLoader});
+  }
+
+  /**
+   * Creates a model that continues a game from a board, since continueGame() is not part of the
+   * Reversi interface.
+   */
+  public interface ModelLoader {
+    Reversi load(int boardSize, List<List<PlayerPiece>> board, PlayerPiece currentPlayer);
+  }
+
+  // an unstarted model of the implementation under test
+  private Reversi newModel(int boardSize) {
+    return this.factory.apply(boardSize);
+  }
+
+  // a model of the implementation under test continuing the given board
+  private Reversi loadModel(int boardSize, List<List<PlayerPiece>> board,
+                            PlayerPiece currentPlayer) {
+    return this.loader.load(boardSize, board, currentPlayer);
+  }
+
   /**
    * Checks that model sets up board correctly
    * when the game starts.
    */
   @Test
   public void testStartGameGrid() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
     Assert.assertEquals(7, model.getBoardHeight());
     for (int row = 0; row < model.getBoardHeight(); row++) {
@@ -45,7 +115,7 @@ public class HexReversiTest {
    */
   @Test
   public void testTextualRendering() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
     ReversiTextualView view = new ReversiTextualView(model);
 
@@ -64,7 +134,7 @@ public class HexReversiTest {
    */
   @Test
   public void testStartGameAfterAlreadyStarted() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
 
     Assert.assertThrows(IllegalStateException.class,
@@ -78,7 +148,7 @@ public class HexReversiTest {
   @Test
   public void testStartGameWithZeroBoardSize() {
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> new HexReversi(0));
+        () -> this.newModel(0));
   }
 
   /**
@@ -88,7 +158,7 @@ public class HexReversiTest {
   @Test
   public void testStartGameWithNegativeBoardSize() {
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> new HexReversi(-1));
+        () -> this.newModel(-1));
   }
 
   /**
@@ -98,7 +168,7 @@ public class HexReversiTest {
   @Test
   public void testStartGameWithBoardSizeOne() {
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> new HexReversi(1));
+        () -> this.newModel(1));
   }
 
   /**
@@ -107,7 +177,7 @@ public class HexReversiTest {
    */
   @Test
   public void testGetCurrentPlayerAtStart() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
 
     Assert.assertEquals(model.getCurrentPlayer(), PlayerPiece.BLACK);
@@ -115,7 +185,7 @@ public class HexReversiTest {
 
   @Test
   public void testMakeMoveInvalidMove() {
-    Reversi model = new HexReversi(6);
+    Reversi model = this.newModel(6);
     model.startGame();
     model.makeMove(Coord.coordAt(3, 4));
     Assert.assertThrows(IllegalStateException.class,
@@ -124,7 +194,7 @@ public class HexReversiTest {
 
   @Test
   public void testMakeMoveInvalidMovesPlayers() {
-    Reversi model = new HexReversi(6);
+    Reversi model = this.newModel(6);
     model.startGame();
 
     model.makeMove(Coord.coordAt(3, 4));
@@ -134,16 +204,72 @@ public class HexReversiTest {
     Assert.assertTrue(model.canPlayerMove(PlayerPiece.BLACK));
   }
 
+  @Test
+  public void testLegalMovesFollowTheGame() {
+    Reversi model = this.newModel(3);
+    model.startGame();
+    Assert.assertEquals(6, model.legalMoves(PlayerPiece.BLACK).size());
+    Assert.assertTrue(model.legalMoves(PlayerPiece.BLACK).contains(Coord.coordAt(1, 0)));
+    Assert.assertTrue(model.legalMoves(PlayerPiece.EMPTY).isEmpty());
+    List<Coord> before = model.legalMoves(PlayerPiece.BLACK);
+    model.makeMove(Coord.coordAt(1, 0));
+    Assert.assertFalse(model.legalMoves(PlayerPiece.BLACK).contains(Coord.coordAt(1, 0)));
+    // the list given out earlier is a copy, so the move didn't change it
+    Assert.assertEquals(6, before.size());
+    Assert.assertTrue(before.contains(Coord.coordAt(1, 0)));
+    for (Coord move : model.legalMoves(PlayerPiece.WHITE)) {
+      Assert.assertTrue(model.isMoveLegal(PlayerPiece.WHITE, move));
+    }
+    Assert.assertThrows(UnsupportedOperationException.class,
+        () -> model.legalMoves(PlayerPiece.WHITE).clear());
+  }
+
+  @Test
+  public void testLegalMovesViewFollowsTheGame() {
+    // only HexReversi keeps a legal move set to give a view of, so this runs once
+    Assume.assumeTrue(this.newModel(2) instanceof HexReversi);
+    HexReversi model = new HexReversi(3);
+    model.startGame();
+    List<Coord> view = model.legalMovesView(PlayerPiece.BLACK);
+    Assert.assertEquals(model.legalMoves(PlayerPiece.BLACK), view);
+    model.makeMove(Coord.coordAt(1, 0));
+    Assert.assertFalse(view.contains(Coord.coordAt(1, 0)));
+    Assert.assertEquals(model.legalMoves(PlayerPiece.BLACK), view);
+    Assert.assertThrows(UnsupportedOperationException.class, view::clear);
+  }
+
+  @Test
+  public void testPositionHashTracksPosition() {
+    Reversi model = this.newModel(4);
+    Reversi other = this.newModel(4);
+    model.startGame();
+    other.startGame();
+    long start = model.getPositionHash();
+    Assert.assertEquals(start, other.getPositionHash());
+
+    model.makeMove(Coord.coordAt(1, 2));
+    Assert.assertNotEquals(start, model.getPositionHash());
+    other.makeMove(Coord.coordAt(1, 2));
+    Assert.assertEquals(other.getPositionHash(), model.getPositionHash());
+
+    long beforePass = model.getPositionHash();
+    model.passTurn();
+    Assert.assertNotEquals(beforePass, model.getPositionHash());
+
+    Reversi continued = this.loadModel(4, model.copyBoard(), model.getCurrentPlayer());
+    Assert.assertEquals(model.getPositionHash(), continued.getPositionHash());
+  }
+
   @Test
   public void testBasicGameOver() {
-    Reversi model = new HexReversi(2);
+    Reversi model = this.newModel(2);
     model.startGame();
     Assert.assertTrue("A size 2 game starts with no legal moves.", model.isGameOver());
   }
 
   @Test
   public void endNonTrivialGame() {
-    Reversi model = new HexReversi(3);
+    Reversi model = this.newModel(3);
     TextView view = new ReversiTextualView(model);
     model.startGame();
     model.makeMove(Coord.coordAt(1, 0));
@@ -163,14 +289,14 @@ public class HexReversiTest {
 
   @Test
   public void testBlackMovesFirst() {
-    Reversi model = new HexReversi(6);
+    Reversi model = this.newModel(6);
     model.startGame();
     Assert.assertEquals(PlayerPiece.BLACK, model.getCurrentPlayer());
   }
 
   @Test
   public void testInvalidMoveOnExistingPiece() {
-    Reversi model = new HexReversi(3);
+    Reversi model = this.newModel(3);
     model.startGame();
     Assert.assertThrows(IllegalStateException.class,
         () -> model.makeMove(Coord.coordAt(1, 1)));
@@ -179,7 +305,7 @@ public class HexReversiTest {
 
   @Test
   public void testInvalidMoveOutOfBounds() {
-    Reversi model = new HexReversi(3);
+    Reversi model = this.newModel(3);
     model.startGame();
     Assert.assertThrows(IllegalArgumentException.class,
         () -> model.makeMove(Coord.coordAt(0, 3)));
@@ -189,9 +315,20 @@ public class HexReversiTest {
         () -> model.makeMove(Coord.coordAt(4, 3)));
   }
 
+  @Test
+  public void testIsOnBoardNeverThrows() {
+    Reversi model = this.newModel(3);
+    Assert.assertTrue(model.isOnBoard(Coord.coordAt(0, 2)));
+    Assert.assertTrue(model.isOnBoard(Coord.coordAt(2, 4)));
+    Assert.assertFalse(model.isOnBoard(Coord.coordAt(0, 3)));
+    Assert.assertFalse(model.isOnBoard(Coord.coordAt(-1, 0)));
+    Assert.assertFalse(model.isOnBoard(Coord.coordAt(5, 0)));
+    Assert.assertFalse(model.isOnBoard(null));
+  }
+
   @Test
   public void testInvalidMoveNoPathToSameColor() {
-    Reversi model = new HexReversi(3);
+    Reversi model = this.newModel(3);
     model.startGame();
     Assert.assertThrows(IllegalStateException.class,
         () -> model.makeMove(Coord.coordAt(0, 0)));
@@ -203,7 +340,7 @@ public class HexReversiTest {
 
   @Test
   public void testFlipMultipleLines() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
     TextView view = new ReversiTextualView(model);
     model.makeMove(Coord.coordAt(1, 2));
@@ -226,7 +363,7 @@ public class HexReversiTest {
 
   @Test
   public void testPassTurnEndsGame() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
     model.passTurn();
     Assert.assertEquals(model.getCurrentPlayer(), PlayerPiece.WHITE);
@@ -237,7 +374,7 @@ public class HexReversiTest {
 
   @Test
   public void testCaptureMaxStrategyPass() {
-    Reversi model = new HexReversi(2);
+    Reversi model = this.newModel(2);
     model.startGame();
     Coord optimalMove = new CaptureMax().chooseMove(model, PlayerPiece.BLACK);
     Assert.assertNull(optimalMove);
@@ -245,7 +382,7 @@ public class HexReversiTest {
 
   @Test
   public void testCaptureMaxTie() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
     Coord expectedMove = Coord.coordAt(1, 2);
     Coord optimalMove = new CaptureMax().chooseMove(model, PlayerPiece.BLACK);
@@ -254,27 +391,26 @@ public class HexReversiTest {
 
   @Test
   public void testContinueInvalidBoard() {
-    HexReversi model = new HexReversi(2);
     List<List<PlayerPiece>> board = new ArrayList<>();
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> model.continueGame(null, PlayerPiece.BLACK));
+        () -> this.loadModel(2, null, PlayerPiece.BLACK));
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> model.continueGame(board, PlayerPiece.BLACK));
+        () -> this.loadModel(2, board, PlayerPiece.BLACK));
     board.add(Collections.nCopies(1, PlayerPiece.EMPTY));
     board.add(Collections.nCopies(3, PlayerPiece.EMPTY));
     board.add(Collections.nCopies(2, PlayerPiece.EMPTY));
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> model.continueGame(board, PlayerPiece.BLACK));
+        () -> this.loadModel(2, board, PlayerPiece.BLACK));
     board.set(0, Collections.nCopies(2, PlayerPiece.EMPTY));
     Assert.assertThrows(IllegalArgumentException.class,
-        () -> model.continueGame(board, PlayerPiece.EMPTY));
-    model.continueGame(board, PlayerPiece.BLACK);
+        () -> this.loadModel(2, board, PlayerPiece.EMPTY));
+    Reversi model = this.loadModel(2, board, PlayerPiece.BLACK);
     Assert.assertTrue(model.isGameOver());
   }
 
   @Test
   public void testCaptureMaxNormalSituation() {
-    Reversi model = new HexReversi(4);
+    Reversi model = this.newModel(4);
     model.startGame();
     model.makeMove(Coord.coordAt(1, 2));
     model.makeMove(Coord.coordAt(0, 2));
@@ -285,6 +421,8 @@ public class HexReversiTest {
 
   @Test
   public void testMockModelValidTranscript() {
+    // only HexReversi has mocks and snapshots, so this runs once
+    Assume.assumeTrue(this.newModel(2) instanceof HexReversi);
     HexReversi model = new HexReversi(3);
     MockReversi mock = new MockReversi(model);
     model.startGame();
@@ -303,10 +441,167 @@ public class HexReversiTest {
 
   @Test
   public void testMockModelForcedMove() {
+    // only HexReversi has mocks and snapshots, so this runs once
+    Assume.assumeTrue(this.newModel(2) instanceof HexReversi);
     HexReversi model = new HexReversi(4);
     MockReversi mock = new MockReversi(model);
     model.startGame();
     Coord mockCoord = new CaptureMax().chooseMove(mock, PlayerPiece.BLACK);
     Assert.assertEquals(Coord.coordAt(6, 3), mockCoord);
   }
+
+  /**
+   * The piece counts kept up to date by every move must always match a count of the board, in
+   * both engines and for boards loaded with continueGame().
+   */
+  @Test
+  public void testScoreCountersMatchBoard() {
+    Random random = new Random(7);
+    Reversi model = this.newModel(5);
+    Reversi bitboard = new BitboardHexReversi(5);
+    model.startGame();
+    bitboard.startGame();
+    Assert.assertEquals(Score.scoreOf(3, 3, 55), model.getScore());
+    while (!model.isGameOver()) {
+      List<Coord> moves = model.legalMoves(model.getCurrentPlayer());
+      if (moves.isEmpty()) {
+        model.passTurn();
+        bitboard.passTurn();
+      }
+      else {
+        Coord move = moves.get(random.nextInt(moves.size()));
+        model.makeMove(move);
+        bitboard.makeMove(move);
+      }
+      Score score = model.getScore();
+      Assert.assertEquals(countPieces(model, PlayerPiece.BLACK), score.black);
+      Assert.assertEquals(countPieces(model, PlayerPiece.WHITE), score.white);
+      Assert.assertEquals(countPieces(model, PlayerPiece.EMPTY), score.empty);
+      Assert.assertEquals(score, bitboard.getScore());
+      Assert.assertEquals(score.of(PlayerPiece.BLACK), model.getPlayerScore(PlayerPiece.BLACK));
+      Assert.assertEquals(score.of(PlayerPiece.WHITE), model.getPlayerScore(PlayerPiece.WHITE));
+
+      Reversi loaded = this.loadModel(5, model.copyBoard(), model.getCurrentPlayer());
+      Assert.assertEquals(score, loaded.getScore());
+    }
+  }
+
+  /**
+   * Tests that the cell index overloads of both models answer the same as the coordinate ones,
+   * and reject cell indices that are not on the board.
+   */
+  @Test
+  public void testCellIndexQueriesMatchCoordinates() {
+    Random random = new Random(11);
+    Reversi model = this.newModel(4);
+    Reversi bitboard = new BitboardHexReversi(4);
+    model.startGame();
+    bitboard.startGame();
+    HexTopology topology = HexTopology.of(4);
+    while (!model.isGameOver()) {
+      for (int cell = 0; cell < topology.getCellCount(); cell++) {
+        Coord coord = topology.coordOf(cell);
+        for (PlayerPiece player : new PlayerPiece[]{PlayerPiece.BLACK, PlayerPiece.WHITE}) {
+          Assert.assertEquals(model.isMoveLegal(player, coord), model.isMoveLegal(player, cell));
+          Assert.assertEquals(model.isMoveLegal(player, coord),
+                  bitboard.isMoveLegal(player, cell));
+        }
+        Assert.assertEquals(model.getPlayerAtCell(coord), model.getPlayerAtCell(cell));
+        Assert.assertEquals(model.getPlayerAtCell(coord), bitboard.getPlayerAtCell(cell));
+      }
+      List<Coord> moves = model.legalMoves(model.getCurrentPlayer());
+      if (moves.isEmpty()) {
+        model.passTurn();
+        bitboard.passTurn();
+      }
+      else {
+        Coord move = moves.get(random.nextInt(moves.size()));
+        model.makeMove(move);
+        bitboard.makeMove(move);
+      }
+    }
+    for (Reversi board : new Reversi[]{model, bitboard}) {
+      Assert.assertThrows(IllegalArgumentException.class, () -> board.getPlayerAtCell(-1));
+      Assert.assertThrows(IllegalArgumentException.class,
+          () -> board.isMoveLegal(PlayerPiece.BLACK, topology.getCellCount()));
+    }
+  }
+
+  /**
+   * Tests that the snapshot published after every move matches the model, that earlier snapshots
+   * never change as the game goes on, and that a thread reading snapshots meanwhile only ever sees
+   * whole positions.
+   */
+  @Test
+  public void testSnapshotsFollowGame() throws InterruptedException {
+    Random random = new Random(3);
+    // only HexReversi has mocks and snapshots, so this runs once
+    Assume.assumeTrue(this.newModel(2) instanceof HexReversi);
+    HexReversi model = new HexReversi(5);
+    Assert.assertThrows(IllegalStateException.class, model::getSnapshot);
+    model.startGame();
+
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicBoolean torn = new AtomicBoolean();
+    Thread reader = new Thread(() -> {
+      while (!done.get()) {
+        PositionSnapshot seen = model.getSnapshot();
+        Score score = seen.getScore();
+        if (score.black != countPieces(seen.toBoard(), PlayerPiece.BLACK)
+                || score.white != countPieces(seen.toBoard(), PlayerPiece.WHITE)) {
+          torn.set(true);
+        }
+      }
+    });
+    reader.start();
+
+    List<PositionSnapshot> history = new ArrayList<>();
+    List<List<List<PlayerPiece>>> boards = new ArrayList<>();
+    try {
+      while (!model.isGameOver()) {
+        PositionSnapshot snapshot = model.getSnapshot();
+        Assert.assertEquals(model.copyBoard(), snapshot.toBoard());
+        Assert.assertEquals(model.getCurrentPlayer(), snapshot.getCurrentPlayer());
+        Assert.assertEquals(model.getPositionHash(), snapshot.getPositionHash());
+        Assert.assertEquals(model.getScore(), snapshot.getScore());
+        Assert.assertEquals(PositionSnapshot.copyOf(model).toBoard(), snapshot.toBoard());
+        history.add(snapshot);
+        boards.add(model.copyBoard());
+
+        List<Coord> moves = model.legalMoves(model.getCurrentPlayer());
+        if (moves.isEmpty()) {
+          model.passTurn();
+          Assert.assertEquals(1, model.getSnapshot().getConsecutivePasses());
+        }
+        else {
+          model.makeMove(moves.get(random.nextInt(moves.size())));
+          Assert.assertEquals(0, model.getSnapshot().getConsecutivePasses());
+        }
+      }
+    }
+    finally {
+      done.set(true);
+      reader.join();
+    }
+    for (int index = 0; index < history.size(); index++) {
+      Assert.assertEquals(boards.get(index), history.get(index).toBoard());
+    }
+    Assert.assertFalse(torn.get());
+  }
+
+  private static int countPieces(List<List<PlayerPiece>> board, PlayerPiece piece) {
+    int count = 0;
+    for (List<PlayerPiece> row : board) {
+      for (PlayerPiece cell : row) {
+        if (cell == piece) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  private static int countPieces(Reversi model, PlayerPiece piece) {
+    return countPieces(model.copyBoard(), piece);
+  }
 }
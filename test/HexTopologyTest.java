@@ -0,0 +1,76 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import reversi.model.Coord;
+import reversi.model.HexTopology;
+
+/**
+ * Test class for the precomputed board shape used by the Reversi models and strategies.
+ */
+public class HexTopologyTest {
+
+  @Test
+  public void testTopologyIsSharedPerSize() {
+    Assert.assertSame(HexTopology.of(6), HexTopology.of(6));
+    Assert.assertSame(HexTopology.of(6), HexTopology.ofHeight(11));
+    Assert.assertNotSame(HexTopology.of(6), HexTopology.of(5));
+    Assert.assertThrows(IllegalArgumentException.class, () -> HexTopology.of(1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> HexTopology.ofHeight(4));
+  }
+
+  @Test
+  public void testCellIndices() {
+    HexTopology topology = HexTopology.of(3);
+    Assert.assertEquals(19, topology.getCellCount());
+    Assert.assertEquals(5, topology.getBoardHeight());
+    Assert.assertEquals(0, topology.cellIndex(0, 0));
+    Assert.assertEquals(3, topology.cellIndex(1, 0));
+    Assert.assertEquals(18, topology.cellIndex(4, 2));
+    Assert.assertEquals(-1, topology.cellIndex(0, 3));
+    Assert.assertEquals(-1, topology.cellIndex(-1, 0));
+    Assert.assertEquals(Coord.coordAt(2, 4), topology.coordOf(topology.cellIndex(2, 4)));
+  }
+
+  /**
+   * Checks the rays from the center of a size 3 board, which reach every edge of the hexagon.
+   */
+  @Test
+  public void testRaysFromCenter() {
+    HexTopology topology = HexTopology.of(3);
+    int center = topology.cellIndex(2, 2);
+    Assert.assertArrayEquals(new int[]{topology.cellIndex(2, 1), topology.cellIndex(2, 0)},
+            topology.ray(center, 0));
+    Assert.assertArrayEquals(new int[]{topology.cellIndex(1, 1), topology.cellIndex(0, 0)},
+            topology.ray(center, 1));
+    Assert.assertArrayEquals(new int[]{topology.cellIndex(1, 2), topology.cellIndex(0, 2)},
+            topology.ray(center, 2));
+    Assert.assertArrayEquals(new int[]{topology.cellIndex(2, 3), topology.cellIndex(2, 4)},
+            topology.ray(center, 3));
+    Assert.assertArrayEquals(new int[]{topology.cellIndex(3, 2), topology.cellIndex(4, 2)},
+            topology.ray(center, 4));
+    Assert.assertArrayEquals(new int[]{topology.cellIndex(3, 1), topology.cellIndex(4, 0)},
+            topology.ray(center, 5));
+    Assert.assertEquals(0, topology.ray(topology.cellIndex(0, 0), 1).length);
+  }
+
+  /**
+   * Tests that the coordinates of every cell are shared between lookups and topologies, and that
+   * no two cells of the largest cached board have the same hash.
+   */
+  @Test
+  public void testCoordsAreSharedWithDistinctHashes() {
+    HexTopology topology = HexTopology.of(Coord.MAX_CACHED_BOARD_SIZE);
+    Set<Integer> hashes = new HashSet<>();
+    for (int cell = 0; cell < topology.getCellCount(); cell++) {
+      Coord coord = topology.coordOf(cell);
+      Assert.assertSame(coord, Coord.coordAt(coord.row, coord.col));
+      Assert.assertTrue(hashes.add(coord.hashCode()));
+    }
+    Assert.assertSame(HexTopology.of(4).coordOf(5), HexTopology.of(6).coordOf(7));
+    Assert.assertEquals(Coord.coordAt(-1, 2), Coord.coordAt(-1, 2));
+    Assert.assertNotEquals(Coord.coordAt(-1, 2).hashCode(), Coord.coordAt(2, -1).hashCode());
+  }
+}
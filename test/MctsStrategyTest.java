@@ -0,0 +1,74 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.MctsStrategy;
+import reversi.strategy.PlayoutStats;
+
+/**
+ * Test class for the Monte Carlo tree search strategy.
+ */
+public class MctsStrategyTest {
+
+  @Test
+  public void testPassesWhenNoMoves() {
+    Reversi model = new HexReversi(2);
+    model.startGame();
+    Assert.assertNull(new MctsStrategy(100).chooseMove(model, PlayerPiece.BLACK));
+  }
+
+  @Test
+  public void testStopsAtPlayoutBudget() {
+    Reversi model = new HexReversi(6);
+    model.startGame();
+    MctsStrategy strategy = new MctsStrategy(60_000, 500, 2);
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK);
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+
+    PlayoutStats stats = strategy.getLastSearchStats();
+    Assert.assertEquals(500, stats.playouts);
+    Assert.assertTrue(stats.chosenMoveVisits > 0);
+    Assert.assertTrue(stats.playoutsPerSecond() > 0);
+  }
+
+  @Test
+  public void testStopsAtTimeBudget() {
+    Reversi model = new HexReversi(8);
+    model.startGame();
+    MctsStrategy strategy = new MctsStrategy(100);
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK,
+            strategy.chooseMove(model, PlayerPiece.BLACK)));
+    Assert.assertTrue("search should stop close to its budget",
+            strategy.getLastSearchStats().elapsedNanos < 2_000_000_000L);
+  }
+
+  @Test
+  public void testRejectsInvalidBudget() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(100, 0, 1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(100, 10, 0));
+  }
+
+  /**
+   * Plays a whole game on a small board, where the strategy must also handle passes.
+   */
+  @Test
+  public void testPlaysWholeGame() {
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    MctsStrategy strategy = new MctsStrategy(60_000, 200, 3);
+    while (!model.isGameOver()) {
+      Coord move = strategy.chooseMove(model, model.getCurrentPlayer());
+      if (move == null) {
+        model.passTurn();
+      }
+      else {
+        Assert.assertTrue(model.isMoveLegal(model.getCurrentPlayer(), move));
+        model.makeMove(move);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.HexTopology;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.BookStrategy;
+import reversi.strategy.OpeningBook;
+import reversi.strategy.ReversiStrategy;
+import reversi.tools.OpeningBookBuilder;
+
+/**
+ * Test class for the memory-mapped opening book and the strategy playing from it.
+ */
+public class OpeningBookTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndLookup() throws IOException {
+    Map<Long, Integer> moves = new HashMap<>();
+    for (long hash = -50; hash < 50; hash++) {
+      moves.put(hash * 7919, (int) (hash + 50));
+    }
+    Path file = this.folder.newFile("book.bin").toPath();
+    OpeningBook.write(file, 5, moves);
+
+    OpeningBook book = OpeningBook.open(file);
+    Assert.assertEquals(5, book.getBoardSize());
+    Assert.assertEquals(100, book.size());
+    for (Map.Entry<Long, Integer> entry : moves.entrySet()) {
+      Assert.assertEquals((int) entry.getValue(), book.lookup(entry.getKey()));
+    }
+    Assert.assertEquals(OpeningBook.NO_MOVE, book.lookup(1L));
+    Assert.assertEquals(OpeningBook.NO_MOVE, book.lookup(Long.MIN_VALUE));
+    Assert.assertEquals(OpeningBook.NO_MOVE, book.lookup(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testRejectsOtherFiles() throws IOException {
+    File file = this.folder.newFile("other.bin");
+    Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+    Assert.assertThrows(IOException.class, () -> OpeningBook.open(file.toPath()));
+  }
+
+  /**
+   * A book built by searching should give its move in the start position, and the strategy
+   * should leave the book for the fallback once the position is unknown.
+   */
+  @Test
+  public void testBuiltBookDrivesStrategy() throws IOException {
+    List<Integer> progress = new ArrayList<>();
+    Map<Long, Integer> moves = OpeningBookBuilder.build(4, 1, 3, 20, 1, progress::add);
+    Assert.assertEquals(moves.size(), progress.size());
+    Assert.assertEquals(moves.size(), (int) progress.get(progress.size() - 1));
+    Path file = this.folder.newFile("built.bin").toPath();
+    OpeningBook.write(file, 4, moves);
+    OpeningBook book = OpeningBook.open(file);
+
+    Reversi model = new HexReversi(4);
+    model.startGame();
+    int bookCell = book.lookup(model.getPositionHash());
+    Assert.assertNotEquals(OpeningBook.NO_MOVE, bookCell);
+
+    Coord marker = Coord.coordAt(0, 0);
+    ReversiStrategy fallback = (position, player) -> marker;
+    ReversiStrategy strategy = new BookStrategy(book, fallback);
+    Coord move = strategy.chooseMove(model, PlayerPiece.BLACK);
+    Assert.assertEquals(HexTopology.of(4).coordOf(bookCell), move);
+    Assert.assertTrue(model.isMoveLegal(PlayerPiece.BLACK, move));
+
+    Reversi other = new HexReversi(5);
+    other.startGame();
+    Assert.assertSame(marker, strategy.chooseMove(other, PlayerPiece.BLACK));
+  }
+}
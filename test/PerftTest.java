@@ -0,0 +1,73 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.Reversi;
+import reversi.tools.Perft;
+import reversi.tools.PerftResult;
+
+/**
+ * Test class for the perft move path counter.
+ */
+public class PerftTest {
+  // move paths from the start of a size 4 board, by depth
+  private static final long[] SIZE_4_NODES = {1, 6, 24, 72, 234, 738, 2514, 8394};
+
+  private static Reversi start(int boardSize) {
+    Reversi model = new HexReversi(boardSize);
+    model.startGame();
+    return model;
+  }
+
+  @Test
+  public void testEnginesAgreeWithKnownCounts() {
+    Reversi model = start(4);
+    for (int depth = 0; depth < SIZE_4_NODES.length; depth++) {
+      PerftResult bitboard = Perft.count(model, depth, Perft.Engine.BITBOARD, 1);
+      PerftResult hexReversi = Perft.count(model, depth, Perft.Engine.HEX_REVERSI, 1);
+      Assert.assertEquals(SIZE_4_NODES[depth], bitboard.nodes);
+      Assert.assertTrue(bitboard.sameCounts(hexReversi));
+    }
+    // the first forced passes come at the seventh ply
+    Assert.assertEquals(0, Perft.count(model, 6, Perft.Engine.BITBOARD, 1).passes);
+    Assert.assertEquals(12, Perft.count(model, 7, Perft.Engine.BITBOARD, 1).passes);
+  }
+
+  @Test
+  public void testParallelCountMatchesSerialCount() {
+    Reversi model = start(5);
+    for (Perft.Engine engine : Perft.Engine.values()) {
+      PerftResult serial = Perft.count(model, 6, engine, 1);
+      PerftResult parallel = Perft.count(model, 6, engine, 3);
+      Assert.assertTrue(serial.sameCounts(parallel));
+    }
+  }
+
+  @Test
+  public void testDivideSumsToCount() {
+    Reversi model = start(4);
+    Map<Coord, PerftResult> divided = Perft.divide(model, 7, Perft.Engine.BITBOARD, 2);
+    Assert.assertEquals(6, divided.size());
+    long total = 0;
+    for (PerftResult result : divided.values()) {
+      total += result.nodes;
+    }
+    Assert.assertEquals(SIZE_4_NODES[7], total);
+  }
+
+  @Test
+  public void testFinishedGameHasNoPaths() {
+    // neither player can move on the smallest board
+    Reversi model = start(2);
+    PerftResult leaf = Perft.count(model, 0, Perft.Engine.BITBOARD, 1);
+    Assert.assertEquals(1, leaf.nodes);
+    Assert.assertEquals(1, leaf.gameOvers);
+    Assert.assertEquals(0, Perft.count(model, 3, Perft.Engine.HEX_REVERSI, 1).nodes);
+    Assert.assertTrue(Perft.divide(model, 1, Perft.Engine.BITBOARD, 1).isEmpty());
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> Perft.count(model, -1, Perft.Engine.BITBOARD, 1));
+  }
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.PlayerPiece;
+import reversi.record.GameArchive;
+import reversi.record.GameRecord;
+import reversi.record.GameRecordReader;
+import reversi.record.GameRecordWriter;
+import reversi.record.PositionIndex;
+import reversi.record.PositionMatch;
+import reversi.strategy.CaptureMax;
+import reversi.strategy.MctsStrategy;
+import reversi.tools.BatchRunner;
+
+/**
+ * Test class for memory-mapped game archives and the position index built over them.
+ */
+public class PositionIndexTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path writeGames(int games) throws IOException {
+    Path file = this.folder.newFolder().toPath().resolve("games.hxg");
+    BatchRunner runner = new BatchRunner(CaptureMax::new,
+        () -> new MctsStrategy(1000, 30, 1), 4);
+    try (GameRecordWriter archive = GameRecordWriter.open(file)) {
+      runner.run(games, 2, archive);
+    }
+    return file;
+  }
+
+  /**
+   * An archive mapped in many small segments should give the same games, at the same offsets, as
+   * reading the file from the start.
+   */
+  @Test
+  public void testArchiveMatchesReader() throws IOException {
+    Path file = this.writeGames(20);
+    List<GameRecord> read = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+    try (GameRecordReader reader = GameRecordReader.open(file)) {
+      offsets.add(reader.getOffset());
+      for (GameRecord record = reader.read(); record != null; record = reader.read()) {
+        read.add(record);
+        offsets.add(reader.getOffset());
+      }
+    }
+
+    for (GameArchive archive : new GameArchive[]{GameArchive.open(file),
+        GameArchive.open(file, 100)}) {
+      Assert.assertEquals(read.size(), archive.size());
+      for (int game = 0; game < archive.size(); game++) {
+        Assert.assertEquals(read.get(game), archive.getGame(game));
+        Assert.assertEquals(offsets.get(game).longValue(), archive.getOffset(game));
+      }
+      GameRecord last = read.get(read.size() - 1);
+      BitboardHexReversi end = archive.positionAt(read.size() - 1, last.getMoveCount());
+      Assert.assertEquals(last.getResult(), end.getScore());
+      Assert.assertThrows(IllegalArgumentException.class, () -> archive.getGame(read.size()));
+    }
+  }
+
+  /**
+   * An index built from several runs should find exactly the places a brute force replay of
+   * every game finds, in order of game and ply.
+   */
+  @Test
+  public void testLookupMatchesReplay() throws IOException {
+    Path file = this.writeGames(30);
+    GameArchive archive = GameArchive.open(file);
+    Path indexFile = file.resolveSibling("games.hxi");
+    PositionIndex index = PositionIndex.build(archive, indexFile, 3, 200);
+
+    Map<Long, List<PositionMatch>> expected = new HashMap<>();
+    long positions = 0;
+    for (int game = 0; game < archive.size(); game++) {
+      for (int ply = 0; ply <= archive.getGame(game).getMoveCount(); ply++) {
+        long hash = archive.positionAt(game, ply).getPositionHash();
+        expected.computeIfAbsent(hash, key -> new ArrayList<>()).add(new PositionMatch(game, ply));
+        positions++;
+      }
+    }
+    Assert.assertEquals(positions, index.size());
+    Assert.assertEquals(30, expected.get(archive.positionAt(0, 0).getPositionHash()).size());
+    for (Map.Entry<Long, List<PositionMatch>> position : expected.entrySet()) {
+      Assert.assertEquals(position.getValue(), index.lookup(position.getKey()));
+    }
+    Assert.assertEquals(index.lookup(archive.positionAt(7, 3).getPositionHash()),
+            index.lookup(archive.positionAt(7, 3)));
+    Assert.assertTrue(index.lookup(0x1234_5678_9ABC_DEF0L).isEmpty());
+
+    // an index reopened from its file answers the same
+    PositionIndex reopened = PositionIndex.open(indexFile);
+    Assert.assertEquals(index.size(), reopened.size());
+    long hash = archive.positionAt(11, 5).getPositionHash();
+    Assert.assertEquals(expected.get(hash), reopened.lookup(hash));
+    try (Stream<Path> files = Files.list(indexFile.getParent())) {
+      Assert.assertEquals(2, files.count());
+    }
+  }
+
+  @Test
+  public void testRejectsTruncatedAndIllegalFiles() throws IOException {
+    Path file = this.folder.newFolder().toPath().resolve("games.hxg");
+    BitboardHexReversi start = new BitboardHexReversi(3);
+    start.startGame();
+    int[] moves = new int[start.getTopology().getCellCount()];
+    start.legalMoves(PlayerPiece.BLACK, moves);
+    int firstMove = moves[0];
+    try (GameRecordWriter writer = GameRecordWriter.open(file)) {
+      writer.write(GameRecord.of(3, new int[0], start.getScore()));
+      // a record that is well formed, but plays the same cell twice
+      writer.write(GameRecord.of(3, new int[]{firstMove, firstMove}, start.getScore()));
+      for (int game = 0; game < 20; game++) {
+        writer.write(GameRecord.of(3, new int[]{firstMove}, start.getScore()));
+      }
+    }
+    GameArchive archive = GameArchive.open(file);
+    Assert.assertEquals(22, archive.size());
+    Assert.assertThrows(IOException.class,
+        () -> PositionIndex.build(archive, file.resolveSibling("games.hxi"), 1));
+    // a failed build leaves no runs of the segments sorted in parallel behind
+    Assert.assertThrows(IOException.class,
+        () -> PositionIndex.build(archive, file.resolveSibling("games.hxi"), 3, 1));
+    try (Stream<Path> files = Files.list(file.getParent())) {
+      Assert.assertEquals(1, files.count());
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> PositionIndex.build(archive, file.resolveSibling("games.hxi"), 0));
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 1);
+    }
+    Assert.assertThrows(IOException.class, () -> GameArchive.open(file));
+    Assert.assertThrows(IOException.class, () -> PositionIndex.open(file));
+  }
+}
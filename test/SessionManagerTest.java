@@ -0,0 +1,186 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import reversi.controller.GameSession;
+import reversi.controller.SessionListener;
+import reversi.controller.SessionManager;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.CaptureMax;
+
+/**
+ * Test class for the session manager and its game sessions.
+ */
+public class SessionManagerTest {
+  private SessionManager manager;
+  private RecordingListener listener;
+
+  @Before
+  public void init() {
+    this.manager = new SessionManager();
+    this.listener = new RecordingListener();
+  }
+
+  @After
+  public void shutdown() throws InterruptedException {
+    Assert.assertTrue(this.manager.shutdown(5000));
+  }
+
+  @Test
+  public void testComputerGamesPlayToTheEnd() throws InterruptedException {
+    GameSession[] sessions = new GameSession[20];
+    for (int i = 0; i < sessions.length; i++) {
+      sessions[i] = this.manager.startGame(4, new CaptureMax(), new CaptureMax(), this.listener);
+    }
+    for (GameSession session : sessions) {
+      Assert.assertTrue(session.awaitEnd(5000));
+      Assert.assertTrue(session.getScore(PlayerPiece.BLACK)
+              + session.getScore(PlayerPiece.WHITE) > 6);
+    }
+    Assert.assertTrue(this.listener.ended.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(0, this.manager.activeSessions());
+    Assert.assertTrue(this.listener.played.size() >= sessions.length);
+  }
+
+  @Test
+  public void testRejectsWrongTurnAndIllegalMoves() throws InterruptedException {
+    GameSession session = this.manager.startGame(4, null, new CaptureMax(), this.listener);
+    Reversi reference = new HexReversi(4);
+    reference.startGame();
+    Coord legal = reference.legalMoves(PlayerPiece.BLACK).get(0);
+    Coord occupied = Coord.coordAt(0, 0);
+
+    Assert.assertTrue(session.submitMove(PlayerPiece.WHITE, legal));
+    Assert.assertTrue(session.submitMove(PlayerPiece.BLACK, occupied));
+    Assert.assertTrue(session.submitMove(PlayerPiece.BLACK, legal));
+    Assert.assertTrue(this.listener.awaitPlayed(2));
+
+    Assert.assertEquals(2, this.listener.rejected.size());
+    Assert.assertEquals(PlayerPiece.BLACK, this.listener.played.get(0));
+    Assert.assertEquals(PlayerPiece.WHITE, this.listener.played.get(1));
+    Assert.assertSame(session, this.manager.getSession(session.getId()));
+    Assert.assertFalse(session.hasEnded());
+  }
+
+  @Test
+  public void testRejectsOffBoardMoves() throws InterruptedException {
+    GameSession session = this.manager.startGame(4, null, new CaptureMax(), this.listener);
+    Reversi reference = new HexReversi(4);
+    reference.startGame();
+    Coord legal = reference.legalMoves(PlayerPiece.BLACK).get(0);
+
+    Assert.assertTrue(session.submitMove(PlayerPiece.BLACK, Coord.coordAt(0, 50)));
+    Assert.assertTrue(session.submitMove(PlayerPiece.BLACK, legal));
+    Assert.assertTrue(this.listener.awaitPlayed(2));
+
+    Assert.assertEquals(List.of("Move is off the board."), this.listener.rejected);
+    Assert.assertFalse(session.hasEnded());
+    Assert.assertEquals(1, this.listener.ended.getCount());
+  }
+
+  @Test
+  public void testCancelEndsWaitingSession() throws InterruptedException {
+    GameSession session = this.manager.startGame(5, null, null, this.listener);
+    Assert.assertEquals(1, this.manager.activeSessions());
+    this.manager.cancel(session.getId());
+    Assert.assertTrue(session.awaitEnd(5000));
+    Assert.assertTrue(this.listener.ended.await(5, TimeUnit.SECONDS));
+    Assert.assertNull(this.manager.getSession(session.getId()));
+    Assert.assertEquals(0, this.manager.activeSessions());
+  }
+
+  /**
+   * Sessions waiting for humans hold no threads, so thousands of them run on the fixed pools of
+   * their manager.
+   */
+  @Test
+  public void testIdleSessionsShareThreads() throws InterruptedException {
+    SessionManager small = new SessionManager(2, 2);
+    int threadsBefore = Thread.activeCount();
+    for (int i = 0; i < 5000; i++) {
+      small.startGame(6, null, null, this.listener);
+    }
+    GameSession thinking = small.startGame(4, new CaptureMax(), null, this.listener);
+    Assert.assertTrue(this.listener.awaitPlayed(1));
+    Assert.assertEquals(5001, small.activeSessions());
+    Assert.assertTrue(Thread.activeCount() - threadsBefore <= 4);
+    Assert.assertFalse(thinking.hasEnded());
+    Assert.assertTrue(small.shutdown(10_000));
+    Assert.assertEquals(0, small.activeSessions());
+  }
+
+  /**
+   * Cancelling a session whose computer player is thinking stops the search, instead of letting
+   * it use up its whole time budget.
+   */
+  @Test
+  public void testCancelStopsThinkingStrategy() throws InterruptedException {
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(60_000);
+    GameSession session = this.manager.startGame(6, strategy, null, this.listener);
+    Thread.sleep(200);
+    Assert.assertNull(strategy.getLastSearchStats());
+    long start = System.nanoTime();
+    session.cancel();
+    Assert.assertTrue(session.awaitEnd(5000));
+    while (strategy.getLastSearchStats() == null && System.nanoTime() - start < 5_000_000_000L) {
+      Thread.sleep(5);
+    }
+    Assert.assertNotNull(strategy.getLastSearchStats());
+    Assert.assertTrue(strategy.getLastSearchStats().elapsedNanos < 5_000_000_000L);
+    Assert.assertTrue(this.listener.played.isEmpty());
+  }
+
+  @Test
+  public void testShutdownRefusesNewGames() throws InterruptedException {
+    Assert.assertTrue(this.manager.shutdown(5000));
+    Assert.assertThrows(IllegalStateException.class,
+        () -> this.manager.startGame(4, null, null, this.listener));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new SessionManager().startGame(4, null, null, null));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new SessionManager(0, 1));
+  }
+
+  /**
+   * Records what every session tells it.
+   */
+  private static final class RecordingListener implements SessionListener {
+    private final List<PlayerPiece> played = new CopyOnWriteArrayList<>();
+    private final List<String> rejected = new CopyOnWriteArrayList<>();
+    private final CountDownLatch ended = new CountDownLatch(1);
+
+    @Override
+    public void movePlayed(GameSession session, PlayerPiece player, Coord move) {
+      this.played.add(player);
+    }
+
+    @Override
+    public void moveRejected(GameSession session, PlayerPiece player, Coord move,
+                             String reason) {
+      this.rejected.add(reason);
+    }
+
+    @Override
+    public void gameEnded(GameSession session) {
+      this.ended.countDown();
+    }
+
+    // waits until at least the given number of moves were played
+    private boolean awaitPlayed(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (this.played.size() < count && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      return this.played.size() >= count;
+    }
+  }
+}
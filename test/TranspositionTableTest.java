@@ -0,0 +1,86 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.strategy.AlphaBetaStrategy;
+import reversi.strategy.TranspositionTable;
+
+/**
+ * Test class for the transposition table.
+ */
+public class TranspositionTableTest {
+
+  @Test
+  public void testStoreAndProbe() {
+    TranspositionTable table = new TranspositionTable(1);
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(42L));
+
+    table.store(42L, 7, TranspositionTable.LOWER_BOUND, -1234, 17);
+    long entry = table.probe(42L);
+    Assert.assertNotEquals(TranspositionTable.MISS, entry);
+    Assert.assertEquals(7, TranspositionTable.depth(entry));
+    Assert.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+    Assert.assertEquals(-1234, TranspositionTable.score(entry));
+    Assert.assertEquals(17, TranspositionTable.bestMove(entry));
+
+    table.store(43L, 0, TranspositionTable.EXACT, 0, TranspositionTable.NO_MOVE);
+    Assert.assertEquals(TranspositionTable.NO_MOVE,
+            TranspositionTable.bestMove(table.probe(43L)));
+    Assert.assertEquals(2.0 / 3, table.hitRate(), 1e-9);
+  }
+
+  @Test
+  public void testRejectsInvalidSize() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+  }
+
+  /**
+   * Keys that land in the same bucket: a shallow result must not push out a deeper one, but
+   * still gets stored in the always-replace entry.
+   */
+  @Test
+  public void testReplacementKeepsDeepResults() {
+    TranspositionTable table = new TranspositionTable(1);
+    long bucketStride = table.capacity() / 2;
+    long deep = 5L;
+    long shallow = deep + bucketStride;
+    long newer = deep + 2 * bucketStride;
+
+    table.store(deep, 10, TranspositionTable.EXACT, 1, 0);
+    table.store(shallow, 2, TranspositionTable.EXACT, 2, 0);
+    Assert.assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+    Assert.assertEquals(2, TranspositionTable.depth(table.probe(shallow)));
+
+    table.store(newer, 3, TranspositionTable.EXACT, 3, 0);
+    Assert.assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(shallow));
+    Assert.assertEquals(3, TranspositionTable.depth(table.probe(newer)));
+    Assert.assertTrue(table.overwriteRate() > 0);
+    Assert.assertTrue(table.collisionRate() > 0);
+
+    table.clear();
+    Assert.assertEquals(TranspositionTable.MISS, table.probe(deep));
+  }
+
+  @Test
+  public void testSearchWithTablePlaysLegalMoves() {
+    Reversi model = new HexReversi(5);
+    model.startGame();
+    TranspositionTable table = new TranspositionTable(4);
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(10_000, 5, table);
+    while (!model.isGameOver()) {
+      Coord move = strategy.chooseMove(model, model.getCurrentPlayer());
+      if (move == null) {
+        model.passTurn();
+      }
+      else {
+        Assert.assertTrue(model.isMoveLegal(model.getCurrentPlayer(), move));
+        model.makeMove(move);
+      }
+    }
+    Assert.assertTrue(table.hitRate() > 0);
+  }
+}
@@ -0,0 +1,113 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import reversi.model.BitboardHexReversi;
+import reversi.model.Coord;
+import reversi.model.HexReversi;
+import reversi.model.ModelFeatures;
+import reversi.model.PlayerPiece;
+import reversi.model.Reversi;
+import reversi.model.TurnDispatcher;
+
+/**
+ * Test class for the delivery of turn changes to the feature listeners of the models.
+ */
+public class TurnDispatcherTest {
+
+  /**
+   * A listener that plays for the current player from inside yourTurn(), like a machine player,
+   * must see the same stack depth on every turn of a whole game.
+   */
+  @Test
+  public void testSelfPlayKeepsStackDepthConstant() {
+    HexReversi model = new HexReversi(10);
+    SelfPlayer player = new SelfPlayer(model);
+    model.addFeatures(player);
+    model.startGame();
+    this.checkSelfPlay(model, player, model.getTurnDispatcher());
+
+    BitboardHexReversi bitboard = new BitboardHexReversi(10);
+    SelfPlayer bitboardPlayer = new SelfPlayer(bitboard);
+    bitboard.addFeatures(bitboardPlayer);
+    bitboard.startGame();
+    this.checkSelfPlay(bitboard, bitboardPlayer, bitboard.getTurnDispatcher());
+  }
+
+  private void checkSelfPlay(Reversi model, SelfPlayer player, TurnDispatcher dispatcher) {
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertTrue(player.depths.size() > 20);
+    for (int depth : player.depths) {
+      Assert.assertEquals((int) player.depths.get(0), depth);
+    }
+    // every move and pass was played on its own turn, and the last one ended the game
+    Assert.assertEquals(player.depths.size() + 1, dispatcher.getTurnCount());
+    Assert.assertTrue(dispatcher.getMaxTurnNanos() >= dispatcher.getAverageTurnNanos());
+  }
+
+  /**
+   * Once a listener moves, the listeners after it are told about the new turn only, and never
+   * see a turn that is already over.
+   */
+  @Test
+  public void testLaterListenersSkipFinishedTurns() {
+    HexReversi model = new HexReversi(4);
+    List<PlayerPiece> seen = new ArrayList<>();
+    model.addFeatures(() -> {
+      if (!model.isGameOver() && model.getCurrentPlayer() == PlayerPiece.BLACK
+              && seen.size() < 3) {
+        model.makeMove(model.legalMoves(PlayerPiece.BLACK).get(0));
+      }
+    });
+    model.addFeatures(() -> seen.add(model.getCurrentPlayer()));
+    model.startGame();
+
+    Assert.assertEquals(List.of(PlayerPiece.WHITE), seen);
+    Assert.assertEquals(2, model.getTurnDispatcher().getTurnCount());
+  }
+
+  @Test
+  public void testListenerFailureDoesNotBlockLaterTurns() {
+    HexReversi model = new HexReversi(4);
+    List<PlayerPiece> seen = new ArrayList<>();
+    model.addFeatures(() -> {
+      seen.add(model.getCurrentPlayer());
+      if (seen.size() == 1) {
+        throw new IllegalStateException("listener failed");
+      }
+    });
+    Assert.assertThrows(IllegalStateException.class, model::startGame);
+    model.makeMove(model.legalMoves(PlayerPiece.BLACK).get(0));
+    Assert.assertEquals(List.of(PlayerPiece.BLACK, PlayerPiece.WHITE), seen);
+  }
+
+  /**
+   * Plays the first legal move for whichever player's turn it is, and records the stack depth of
+   * every notification.
+   */
+  private static final class SelfPlayer implements ModelFeatures {
+    private final Reversi model;
+    private final List<Integer> depths = new ArrayList<>();
+
+    SelfPlayer(Reversi model) {
+      this.model = model;
+    }
+
+    @Override
+    public void yourTurn() {
+      if (this.model.isGameOver()) {
+        return;
+      }
+      this.depths.add(Thread.currentThread().getStackTrace().length);
+      List<Coord> moves = this.model.legalMoves(this.model.getCurrentPlayer());
+      if (moves.isEmpty()) {
+        this.model.passTurn();
+      }
+      else {
+        this.model.makeMove(moves.get(0));
+      }
+    }
+  }
+}